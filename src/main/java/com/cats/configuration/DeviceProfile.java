@@ -0,0 +1,213 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.utils.TelnetConnection;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Tuning of an IR device, set in ir-ms.yml under {@code profiles} (by device type or by name) and per
+ * device under {@code tuning}. Unset values fall back to the next less specific profile, down to
+ * {@link #defaults()}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeviceProfile {
+
+    //readTimeoutMs is the socket read timeout of a command
+    private Integer readTimeoutMs;
+
+    //retries is the number of attempts of a command that failed on the connection
+    private Integer retries;
+
+    //retryWaitMs is the pause before a retry
+    private Integer retryWaitMs;
+
+    //poolWaitMs is the longest wait for a hub connection, unset to wait until the request deadline
+    private Integer poolWaitMs;
+
+    //concurrency is the number of ports of the device that may send at the same time
+    private Integer concurrency;
+
+    //minKeyGapMs is the minimum gap between the end of one frame and the start of the next on a port
+    private Integer minKeyGapMs;
+
+    //maxDelayMs is the longest delay allowed between keys
+    private Integer maxDelayMs;
+
+    //maxRepeatCount is the highest repeat count of a held key
+    private Integer maxRepeatCount;
+
+    //maxHoldSeconds is the longest a key may be held
+    private Integer maxHoldSeconds;
+
+    //foldRepeats sends runs of identical presses without delay as one hardware repeat, off by default
+    private Boolean foldRepeats;
+
+    // Held keys must finish within the read timeout, this keeps room for the hub's answer.
+    private static final int REPEAT_COUNT_OFFSET = 30;
+
+    /**
+     * The built in settings, as used before profiles existed.
+     */
+    public static DeviceProfile defaults() {
+        DeviceProfile profile = new DeviceProfile();
+        profile.readTimeoutMs = Integer.parseInt(TelnetConnection.DEFAULT_READ_TIMEOUT);
+        profile.retries = 3;
+        profile.retryWaitMs = 500;
+        profile.minKeyGapMs = 0;
+        profile.maxDelayMs = 30 * 1000;
+        profile.foldRepeats = false;
+        return profile;
+    }
+
+    /**
+     * A new profile with the values set in {@code override} replacing these.
+     */
+    public DeviceProfile overriddenBy(DeviceProfile override) {
+        DeviceProfile merged = copy();
+        if (override == null) {
+            return merged;
+        }
+        merged.readTimeoutMs = pick(override.readTimeoutMs, readTimeoutMs);
+        merged.retries = pick(override.retries, retries);
+        merged.retryWaitMs = pick(override.retryWaitMs, retryWaitMs);
+        merged.poolWaitMs = pick(override.poolWaitMs, poolWaitMs);
+        merged.concurrency = pick(override.concurrency, concurrency);
+        merged.minKeyGapMs = pick(override.minKeyGapMs, minKeyGapMs);
+        merged.maxDelayMs = pick(override.maxDelayMs, maxDelayMs);
+        merged.maxRepeatCount = pick(override.maxRepeatCount, maxRepeatCount);
+        merged.maxHoldSeconds = pick(override.maxHoldSeconds, maxHoldSeconds);
+        merged.foldRepeats = override.foldRepeats != null ? override.foldRepeats : foldRepeats;
+        return merged;
+    }
+
+    /**
+     * A copy with the hold limits filled in from the read timeout where they are not set.
+     */
+    public DeviceProfile withDerivedLimits() {
+        DeviceProfile derived = copy();
+        int readTimeout = readTimeoutMs != null ? readTimeoutMs : Integer.parseInt(TelnetConnection.DEFAULT_READ_TIMEOUT);
+        if (derived.maxRepeatCount == null) {
+            derived.maxRepeatCount = readTimeout / 100 - REPEAT_COUNT_OFFSET;
+        }
+        if (derived.maxHoldSeconds == null) {
+            derived.maxHoldSeconds = readTimeout / 1000 - 1;
+        }
+        return derived;
+    }
+
+    private DeviceProfile copy() {
+        DeviceProfile copy = new DeviceProfile();
+        copy.readTimeoutMs = readTimeoutMs;
+        copy.retries = retries;
+        copy.retryWaitMs = retryWaitMs;
+        copy.poolWaitMs = poolWaitMs;
+        copy.concurrency = concurrency;
+        copy.minKeyGapMs = minKeyGapMs;
+        copy.maxDelayMs = maxDelayMs;
+        copy.maxRepeatCount = maxRepeatCount;
+        copy.maxHoldSeconds = maxHoldSeconds;
+        copy.foldRepeats = foldRepeats;
+        return copy;
+    }
+
+    private static Integer pick(Integer preferred, Integer fallback) {
+        return preferred != null ? preferred : fallback;
+    }
+
+    public Integer getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(Integer readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public Integer getRetries() {
+        return retries;
+    }
+
+    public void setRetries(Integer retries) {
+        this.retries = retries;
+    }
+
+    public Integer getRetryWaitMs() {
+        return retryWaitMs;
+    }
+
+    public void setRetryWaitMs(Integer retryWaitMs) {
+        this.retryWaitMs = retryWaitMs;
+    }
+
+    public Integer getPoolWaitMs() {
+        return poolWaitMs;
+    }
+
+    public void setPoolWaitMs(Integer poolWaitMs) {
+        this.poolWaitMs = poolWaitMs;
+    }
+
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Integer getMinKeyGapMs() {
+        return minKeyGapMs;
+    }
+
+    public void setMinKeyGapMs(Integer minKeyGapMs) {
+        this.minKeyGapMs = minKeyGapMs;
+    }
+
+    public Integer getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(Integer maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public Integer getMaxRepeatCount() {
+        return maxRepeatCount;
+    }
+
+    public void setMaxRepeatCount(Integer maxRepeatCount) {
+        this.maxRepeatCount = maxRepeatCount;
+    }
+
+    public Integer getMaxHoldSeconds() {
+        return maxHoldSeconds;
+    }
+
+    public void setMaxHoldSeconds(Integer maxHoldSeconds) {
+        this.maxHoldSeconds = maxHoldSeconds;
+    }
+
+    public Boolean getFoldRepeats() {
+        return foldRepeats;
+    }
+
+    public void setFoldRepeats(Boolean foldRepeats) {
+        this.foldRepeats = foldRepeats;
+    }
+}
@@ -0,0 +1,92 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Weights for sharing hub connections between clients, the irms.fairshare.* properties.
+ * <pre>
+ * irms.fairshare.weights.team-a=3
+ * irms.fairshare.api-keys.5e1f...=team-a
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "irms.fairshare")
+public class FairShareProperties {
+
+    //weights is the share of each client id, clients not listed get defaultWeight
+    private Map<String, Integer> weights = new HashMap<>();
+
+    //apiKeys maps an X-Api-Key value to the client id it identifies
+    private Map<String, String> apiKeys = new HashMap<>();
+
+    //defaultWeight is the share of clients without a configured weight
+    private int defaultWeight = 1;
+
+    //quantumMs is the hub time charged to a client per connection grant at weight 1
+    private long quantumMs = 100;
+
+    //maxTrackedClients is the number of client ids with their own metrics, the rest share "other"
+    private int maxTrackedClients = 100;
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+
+    public Map<String, String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Map<String, String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public void setDefaultWeight(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public long getQuantumMs() {
+        return quantumMs;
+    }
+
+    public void setQuantumMs(long quantumMs) {
+        this.quantumMs = quantumMs;
+    }
+
+    public int getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(int maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+}
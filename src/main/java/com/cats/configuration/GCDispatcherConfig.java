@@ -32,6 +32,8 @@ import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.TypeDescription;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.representer.Representer;
 
@@ -92,7 +94,18 @@ public class GCDispatcherConfig {
             options.setPrettyFlow(true);
             options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
 
-            Representer representer = new Representer(options);
+            Representer representer = new Representer(options) {
+                // Tuning profiles are for this service only, the GC Dispatcher does not know them.
+                @Override
+                protected NodeTuple representJavaBeanProperty(Object javaBean, Property property, Object propertyValue,
+                                                              Tag customTag) {
+                    if (javaBean instanceof IRDeviceConfig
+                            && (property.getName().equals("profile") || property.getName().equals("tuning"))) {
+                        return null;
+                    }
+                    return super.representJavaBeanProperty(javaBean, property, propertyValue, customTag);
+                }
+            };
             representer.addClassTag(GCDispatcherConfigDto.class, new Tag("!IRMS-Autogenerated-Config"));
 
             Yaml yaml = new Yaml(constructor, representer, options);
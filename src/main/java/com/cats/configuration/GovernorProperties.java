@@ -0,0 +1,71 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Minimum gaps between two frames sent on one port, the irms.governor.* properties.
+ * The larger of the device type gap and the keyset gap applies.
+ * <pre>
+ * irms.governor.device-type-gap-ms.GC100=40
+ * irms.governor.keyset-gap-ms.XR15=120
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "irms.governor")
+public class GovernorProperties {
+
+    //defaultGapMs is the gap for device types and keysets without their own
+    private long defaultGapMs = 0;
+
+    //deviceTypeGapMs is the gap the IR hardware needs, by IRHardwareEnum name
+    private Map<String, Long> deviceTypeGapMs = new HashMap<>();
+
+    //keysetGapMs is the gap the set top box model needs to register every key, by keyset
+    private Map<String, Long> keysetGapMs = new HashMap<>();
+
+    public long getDefaultGapMs() {
+        return defaultGapMs;
+    }
+
+    public void setDefaultGapMs(long defaultGapMs) {
+        this.defaultGapMs = defaultGapMs;
+    }
+
+    public Map<String, Long> getDeviceTypeGapMs() {
+        return deviceTypeGapMs;
+    }
+
+    public void setDeviceTypeGapMs(Map<String, Long> deviceTypeGapMs) {
+        this.deviceTypeGapMs = deviceTypeGapMs;
+    }
+
+    public Map<String, Long> getKeysetGapMs() {
+        return keysetGapMs;
+    }
+
+    public void setKeysetGapMs(Map<String, Long> keysetGapMs) {
+        this.keysetGapMs = keysetGapMs;
+    }
+}
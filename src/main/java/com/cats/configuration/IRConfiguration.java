@@ -20,6 +20,7 @@ package com.cats.configuration;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.PropertySource;
@@ -64,6 +65,9 @@ public class IRConfiguration {
     //gcDispatcherConfigLocation is the location of the GCDispatcher configuration
     public String gcDispatcherConfigLocation;
 
+    //profiles are tuning profiles by device type or by name, see DeviceProfile
+    public Map<String, DeviceProfile> profiles;
+
 
     public int getVersion() {
         return version;
@@ -145,9 +149,17 @@ public class IRConfiguration {
         this.gcDispatcherConfigLocation = gcDispatcherConfigLocation;
     }
 
+    public Map<String, DeviceProfile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, DeviceProfile> profiles) {
+        this.profiles = profiles;
+    }
+
     /**
      * Generates a list of normalized device configs, i.e., count=1 for each item based on either
-     * irDevices or irNetBoxDevies (irDevices gets precedence)
+     * irDevices or irNetBoxDevies (irDevices gets precedence), empty when neither is set
      *
      * @return A list of normalized device configs
      */
@@ -158,9 +170,11 @@ public class IRConfiguration {
         String defaultType = null;
         if (irDevices != null) {
             source = new ArrayList<>(irDevices);
-        } else {
+        } else if (irNetBox != null) {
             defaultType = "irNetBox";
             source = new ArrayList<>(irNetBox);
+        } else {
+            return result;
         }
         for (IRDeviceConfig irDevice : source) {
             int count = irDevice.count != null ? irDevice.count : 1;
@@ -177,6 +191,8 @@ public class IRConfiguration {
                 config.count = 1;
                 config.port = irDevice.port;
                 config.maxPorts = irDevice.maxPorts;
+                config.profile = irDevice.profile;
+                config.tuning = irDevice.tuning;
                 result.add(config);
             }
         }
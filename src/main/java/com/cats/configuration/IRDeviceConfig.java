@@ -48,6 +48,12 @@ public class IRDeviceConfig {
     //maxPorts is the maximum number of ports
     protected Integer maxPorts;
 
+    //profile is the name of a profile in ir-ms.yml profiles, applied over the profile of the type
+    protected String profile;
+
+    //tuning overrides profile values for this device only
+    protected DeviceProfile tuning;
+
     @JsonProperty("type")
     public String getType() {
         return type;
@@ -93,4 +99,22 @@ public class IRDeviceConfig {
         this.maxPorts = maxPorts;
     }
 
+    @JsonProperty("profile")
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    @JsonProperty("tuning")
+    public DeviceProfile getTuning() {
+        return tuning;
+    }
+
+    public void setTuning(DeviceProfile tuning) {
+        this.tuning = tuning;
+    }
+
 }
@@ -0,0 +1,163 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.admission.FairShare;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
+import com.cats.ir.context.SchedulingClass;
+import com.cats.resources.KeyStreamEndpoint;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Binds a {@link RequestContext} to every request before it reaches the resources.
+ * The request deadline is taken from the X-Request-Timeout-Ms header when the client
+ * sends one, otherwise the configured default applies. A X-Scheduling-Class header sets the
+ * scheduling class and the X-Client-Id or X-Api-Key header the client, see {@link FairShare}.
+ * The collected request timing is returned as Server-Timing and HW-Command-* headers.
+ */
+@Slf4j
+@Component
+public class IRRequestFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Value("${irms.request.defaultTimeoutMs:120000}")
+    long defaultTimeoutMs;
+
+    @Autowired
+    FairShare fairShare;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestContext context = new RequestContext(Deadline.afterMillis(requestTimeout(request)));
+        context.setSchedulingClass(schedulingClass(request));
+        context.setClientId(fairShare.identify(request.getHeader(FairShare.CLIENT_ID_HEADER),
+                request.getHeader(FairShare.API_KEY_HEADER)));
+        TimingResponseWrapper timedResponse = new TimingResponseWrapper(response, context.getTiming());
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            chain.doFilter(request, timedResponse);
+        } finally {
+            // Responses without a body never touch the output stream, add the headers before commit.
+            timedResponse.writeTimingHeaders();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // WebSocket frames carry their own per frame context, leave the upgrade request alone.
+        return request.getServletPath().startsWith(KeyStreamEndpoint.PATH);
+    }
+
+    private long requestTimeout(HttpServletRequest request) {
+        String header = request.getHeader(REQUEST_TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long timeout = Long.parseLong(header.trim());
+                if (timeout > 0) {
+                    return timeout;
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid {} header: {}", REQUEST_TIMEOUT_HEADER, header);
+            }
+        }
+        return defaultTimeoutMs;
+    }
+
+    private SchedulingClass schedulingClass(HttpServletRequest request) {
+        String header = request.getHeader(SchedulingClass.HEADER);
+        SchedulingClass schedulingClass = SchedulingClass.parse(header);
+        if (header != null && schedulingClass == null) {
+            log.warn("Ignoring invalid {} header: {}", SchedulingClass.HEADER, header);
+        }
+        return schedulingClass;
+    }
+
+    /**
+     * Adds the timing headers right before the response is committed, once every stage is known.
+     */
+    static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+        private final RequestTiming timing;
+        private boolean headersWritten;
+
+        TimingResponseWrapper(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void writeTimingHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(RequestTiming.SERVER_TIMING_HEADER, timing.serverTimingHeader());
+            if (timing.hasHardwareTiming()) {
+                setHeader(RequestTiming.HW_COMMAND_REQUEST_TIME_HEADER, timing.hardwareRequestTime());
+                setHeader(RequestTiming.HW_COMMAND_RESPONSE_TIME_HEADER, timing.hardwareResponseTime());
+                setHeader(RequestTiming.HW_COMMAND_DURATION_HEADER, timing.hardwareDurationMillis());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeTimingHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeTimingHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeTimingHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeTimingHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeTimingHeaders();
+            super.sendError(sc);
+        }
+    }
+}
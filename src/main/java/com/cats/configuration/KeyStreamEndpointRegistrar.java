@@ -0,0 +1,96 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.admission.FairShare;
+import com.cats.resources.KeyStreamEndpoint;
+import com.cats.service.RemoteProcessor;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.HandshakeResponse;
+import jakarta.websocket.server.HandshakeRequest;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Registers the {@link KeyStreamEndpoint} with the servlet container's WebSocket support once the
+ * context starts. Each session gets its own endpoint instance.
+ */
+@Slf4j
+@Component
+public class KeyStreamEndpointRegistrar implements ServletContextListener {
+
+    @Autowired
+    RemoteProcessor processor;
+
+    @Autowired
+    FairShare fairShare;
+
+    // Deadline applied to each frame, the WebSocket counterpart of the request timeout.
+    @Value("${irms.request.defaultTimeoutMs:120000}")
+    long frameTimeoutMs;
+
+    @Value("${irms.ws.idleTimeoutMs:600000}")
+    long idleTimeoutMs;
+
+    @Value("${irms.ws.maxFrameChars:8192}")
+    int maxFrameChars;
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServerContainer container = (ServerContainer) event.getServletContext().getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            log.warn("No WebSocket support in the servlet container, {} is not available", KeyStreamEndpoint.PATH);
+            return;
+        }
+        ServerEndpointConfig config = ServerEndpointConfig.Builder.create(KeyStreamEndpoint.class, KeyStreamEndpoint.PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+                        // the per session config, frames are sent on behalf of this client.
+                        sec.getUserProperties().put(KeyStreamEndpoint.CLIENT_ID, fairShare.identify(
+                                header(request, FairShare.CLIENT_ID_HEADER), header(request, FairShare.API_KEY_HEADER)));
+                    }
+
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(new KeyStreamEndpoint(processor, frameTimeoutMs, idleTimeoutMs, maxFrameChars));
+                    }
+                })
+                .build();
+        try {
+            container.addEndpoint(config);
+            log.info("Key stream WebSocket registered at {}", KeyStreamEndpoint.PATH);
+        } catch (DeploymentException e) {
+            log.error("Could not register {}: {}", KeyStreamEndpoint.PATH, e.getMessage());
+        }
+    }
+
+    private static String header(HandshakeRequest request, String name) {
+        List<String> values = request.getHeaders().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
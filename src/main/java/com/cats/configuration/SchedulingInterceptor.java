@@ -0,0 +1,50 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies the {@link Scheduling} class of the matched endpoint to the request context, unless
+ * the client chose one with the X-Scheduling-Class header.
+ */
+public class SchedulingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method
+                && SchedulingClass.parse(request.getHeader(SchedulingClass.HEADER)) == null) {
+            Scheduling scheduling = method.getMethodAnnotation(Scheduling.class);
+            if (scheduling == null) {
+                scheduling = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), Scheduling.class);
+            }
+            if (scheduling != null) {
+                RequestContext.current().setSchedulingClass(scheduling.value());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.commands.ShorthandCompiler;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the irms.shorthand.* properties to the {@link ShorthandCompiler} shared by every endpoint that
+ * takes a sequence.
+ */
+@Component
+public class ShorthandCompilerConfig {
+
+    // Compiled shorthand sequences kept for reuse.
+    @Value("${irms.shorthand.cacheSize:" + ShorthandCompiler.DEFAULT_CACHE_SIZE + "}")
+    int cacheSize;
+
+    @PostConstruct
+    public void init() {
+        ShorthandCompiler.setCacheSize(cacheSize);
+    }
+}
@@ -0,0 +1,169 @@
+package com.cats.configuration;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable view of the rack layout from ir-ms.yml: the hub address, the GC Dispatcher and the
+ * normalized IR devices (one entry per device, blocks expanded). Built once per configuration load and
+ * handed out as a reference, so lookups do not rebuild the device list.
+ * <p>
+ * The effective {@link DeviceProfile} of each device is resolved here as well: the built in defaults,
+ * then the profile named after the device type, then the profile the device names, then its own tuning.
+ */
+public final class Topology {
+
+    //version increases with every reload
+    private final long version;
+
+    //redRatHubHost is the host of the RedRatHub
+    private final String redRatHubHost;
+
+    //redRatHubPort is the port of the RedRatHub
+    private final String redRatHubPort;
+
+    //gcDispatcherApiBase is the base URL for the GCDispatcher API
+    private final String gcDispatcherApiBase;
+
+    //devices are the normalized devices, index + 1 is the device id
+    private final List<IRDeviceConfig> devices;
+
+    //numSlots is the number of ports over all devices
+    private final int numSlots;
+
+    //hasGcDevices tells if any device is driven through the GC Dispatcher
+    private final boolean hasGcDevices;
+
+    //defaultProfile applies to devices that are not in the topology
+    private final DeviceProfile defaultProfile;
+
+    //profiles are the effective profiles by device host
+    private final Map<String, DeviceProfile> profiles;
+
+    /**
+     * @param base the profile every device starts from, see {@link DeviceProfile#defaults()}.
+     */
+    public Topology(long version, IRConfiguration config, DeviceProfile base) {
+        this.version = version;
+        this.redRatHubHost = config.getRedRatHubHost();
+        this.redRatHubPort = config.getRedRatHubPort();
+        this.gcDispatcherApiBase = config.getGcDispatcherApiBase();
+        List<IRDeviceConfig> normalized = config.getNormalizedIrDevices();
+        this.devices = Collections.unmodifiableList(normalized);
+        this.numSlots = normalized.stream().mapToInt(IRDeviceConfig::getMaxPorts).sum();
+        this.hasGcDevices = normalized.stream().anyMatch(device -> "itach".equalsIgnoreCase(device.getType())
+                || "gc100".equalsIgnoreCase(device.getType()));
+
+        if (config.getRedRatHubReadTimeout() != null) {
+            DeviceProfile hub = new DeviceProfile();
+            hub.setReadTimeoutMs(Integer.parseInt(config.getRedRatHubReadTimeout().trim()));
+            base = base.overriddenBy(hub);
+        }
+        Map<String, DeviceProfile> named = new LinkedHashMap<>();
+        if (config.getProfiles() != null) {
+            config.getProfiles().forEach((name, profile) -> named.put(name.toLowerCase(), profile));
+        }
+        this.defaultProfile = base.withDerivedLimits();
+        Map<String, DeviceProfile> byHost = new LinkedHashMap<>();
+        for (IRDeviceConfig device : normalized) {
+            DeviceProfile profile = base;
+            if (device.getType() != null) {
+                profile = profile.overriddenBy(named.get(device.getType().toLowerCase()));
+            }
+            if (device.getProfile() != null) {
+                DeviceProfile selected = named.get(device.getProfile().toLowerCase());
+                if (selected == null) {
+                    throw new IllegalArgumentException("Unknown profile " + device.getProfile() + " for " + device.getHost());
+                }
+                profile = profile.overriddenBy(selected);
+            }
+            byHost.put(device.getHost(), profile.overriddenBy(device.getTuning()).withDerivedLimits());
+        }
+        this.profiles = Collections.unmodifiableMap(byHost);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getRedRatHubHost() {
+        return redRatHubHost;
+    }
+
+    public String getRedRatHubPort() {
+        return redRatHubPort;
+    }
+
+    public String getGcDispatcherApiBase() {
+        return gcDispatcherApiBase;
+    }
+
+    public List<IRDeviceConfig> getDevices() {
+        return devices;
+    }
+
+    /**
+     * The device with the given 1-indexed id, null if there is none.
+     */
+    public IRDeviceConfig getDevice(int deviceId) {
+        return deviceId > 0 && deviceId <= devices.size() ? devices.get(deviceId - 1) : null;
+    }
+
+    public int getNumSlots() {
+        return numSlots;
+    }
+
+    public boolean hasGcDevices() {
+        return hasGcDevices;
+    }
+
+    /**
+     * The effective profile of the device at the given host, the default profile if there is none.
+     */
+    public DeviceProfile getProfile(String host) {
+        return profiles.getOrDefault(host, defaultProfile);
+    }
+
+    public DeviceProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    /**
+     * Effective profiles by device host, in device order.
+     */
+    public Map<String, DeviceProfile> getProfiles() {
+        return profiles;
+    }
+
+    public boolean hasHub() {
+        return redRatHubHost != null && redRatHubPort != null;
+    }
+
+    /**
+     * True if both point at the same hub.
+     */
+    public boolean sameHub(Topology other) {
+        return Objects.equals(redRatHubHost, other.redRatHubHost) && Objects.equals(redRatHubPort, other.redRatHubPort);
+    }
+}
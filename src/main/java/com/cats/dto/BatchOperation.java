@@ -0,0 +1,71 @@
+package com.cats.dto;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One operation of a batch request. The target is either a slot or a device and port; which of the
+ * remaining fields are used depends on the operation.
+ */
+@Setter
+@Getter
+public class BatchOperation {
+
+    //operation to run: pressKey, pressKeys, pressKeyAndHold, holdDuration, tune, shorthand, macro or delay
+    private String op;
+
+    //target slot, or device and port
+    private String slot;
+    private String device;
+    private String port;
+
+    //keyset to send with, required for every operation that sends keys
+    private String keySet;
+
+    //key for pressKey, pressKeyAndHold and holdDuration
+    private String key;
+
+    //keys for pressKeys
+    private List<String> keys;
+
+    //number of presses for pressKey, hardware repeat count for pressKeyAndHold
+    private Integer count;
+
+    //hold duration in seconds for holdDuration
+    private Integer duration;
+
+    //delay in milliseconds after each key, or the wait for a delay operation
+    private Integer delay;
+
+    //channel and auto tune flag for tune
+    private String channel;
+    private Boolean autoTune;
+
+    //shorthand sequence for shorthand
+    private String sequence;
+
+    //macro name and parameters for macro
+    private String macro;
+    private Map<String, String> params;
+}
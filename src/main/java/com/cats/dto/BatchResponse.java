@@ -0,0 +1,43 @@
+package com.cats.dto;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Response to a batch request: overall outcome and one result per operation, in request order.
+ */
+@Getter
+public class BatchResponse {
+
+    //true if every operation succeeded
+    private final boolean ok;
+
+    private final double durationMs;
+
+    private final List<BatchResult> results;
+
+    public BatchResponse(List<BatchResult> results, double durationMs) {
+        this.results = results;
+        this.durationMs = durationMs;
+        this.ok = results.stream().allMatch(r -> BatchResult.OK.equals(r.getStatus()));
+    }
+}
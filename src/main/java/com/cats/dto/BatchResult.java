@@ -0,0 +1,58 @@
+package com.cats.dto;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Outcome of one batch operation. Times are in milliseconds relative to the start of the batch.
+ */
+@Setter
+@Getter
+public class BatchResult {
+
+    public static final String OK = "ok";
+    public static final String FAILED = "failed";
+    public static final String ERROR = "error";
+    public static final String SKIPPED = "skipped";
+
+    //position of the operation in the request
+    private int index;
+
+    private String op;
+
+    //device:port the operation ran on
+    private String target;
+
+    //ok, failed (device rejected a key), error (exception) or skipped (an earlier operation on the port failed)
+    private String status = SKIPPED;
+
+    private String message;
+
+    private double startMs;
+
+    private double durationMs;
+
+    public BatchResult(int index, String op, String target) {
+        this.index = index;
+        this.op = op;
+        this.target = target;
+    }
+}
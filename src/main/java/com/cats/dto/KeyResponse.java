@@ -0,0 +1,107 @@
+package com.cats.dto;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.cats.ir.context.RequestTiming;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * JSON result of a key request, returned instead of "true"/"false" when the client accepts
+ * application/json. Times are in milliseconds.
+ */
+@Setter
+@Getter
+public class KeyResponse {
+
+    private boolean result;
+
+    //time since the request was received
+    private double totalMs;
+
+    //time spent in hub or HTTP round trips, null when the request reached no hardware
+    private Double hardwareMs;
+
+    //estimated duration of the program before it ran
+    private Long estimateMs;
+
+    //number of waits before a retried send
+    private int retries;
+
+    //time per stage name: admission, queue, pool, hub, http, delay, governor, retry-wait
+    private Map<String, Double> totals = new LinkedHashMap<>();
+
+    //every stage in the order it happened
+    private List<Step> steps = new ArrayList<>();
+
+    //stages left out because the request recorded more than the limit
+    private int droppedSteps;
+
+    public static KeyResponse of(boolean result, RequestTiming timing) {
+        KeyResponse response = new KeyResponse();
+        response.result = result;
+        double hardwareNanos = 0;
+        boolean hardware = false;
+        for (RequestTiming.Stage stage : timing.getStages()) {
+            double ms = stage.durationNanos() / 1_000_000.0;
+            response.steps.add(new Step(stage.name(), ms));
+            response.totals.merge(stage.name(), ms, Double::sum);
+            if (RequestTiming.RETRY_WAIT.equals(stage.name())) {
+                response.retries++;
+            }
+            if (RequestTiming.HUB.equals(stage.name()) || RequestTiming.HTTP.equals(stage.name())) {
+                hardwareNanos += stage.durationNanos();
+                hardware = true;
+            }
+        }
+        response.hardwareMs = hardware ? hardwareNanos / 1_000_000.0 : null;
+        String reported = timing.hardwareDurationMillis();
+        if (!hardware && reported != null) {
+            // timed by a downstream service rather than measured here.
+            try {
+                response.hardwareMs = Double.valueOf(reported);
+            } catch (NumberFormatException e) {
+                response.hardwareMs = null;
+            }
+        }
+        response.estimateMs = timing.getEstimateMillis();
+        response.droppedSteps = timing.getDropped();
+        response.totalMs = timing.elapsedNanos() / 1_000_000.0;
+        return response;
+    }
+
+    /**
+     * One recorded stage.
+     */
+    @Getter
+    public static class Step {
+        private final String stage;
+        private final double ms;
+
+        public Step(String stage, double ms) {
+            this.stage = stage;
+            this.ms = ms;
+        }
+    }
+}
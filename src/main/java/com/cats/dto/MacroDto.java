@@ -0,0 +1,54 @@
+package com.cats.dto;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class MacroDto {
+
+    //name the macro is stored and run under
+    private String name;
+
+    //shorthand key sequence, may contain ${param} placeholders
+    private String sequence;
+
+    //delay in milliseconds after each key that is not followed by an explicit delay
+    private Integer delay = 0;
+
+    //free text description of what the macro does
+    private String description;
+
+    //placeholders found in the sequence, filled in by the service
+    private List<String> parameters;
+
+    public MacroDto() {
+    }
+
+    public MacroDto(String name, String sequence, Integer delay, String description) {
+        this.name = name;
+        this.sequence = sequence;
+        this.delay = delay;
+        this.description = description;
+    }
+}
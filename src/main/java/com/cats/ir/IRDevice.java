@@ -19,6 +19,12 @@ package com.cats.ir;
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import com.cats.configuration.DeviceProfile;
+import com.cats.ir.admission.AdmissionControl;
+import com.cats.ir.admission.EmitterGovernor;
+import com.cats.service.KeysetCatalog;
+import com.cats.service.TopologyService;
+
 import java.util.List;
 
 /**
@@ -36,6 +42,14 @@ public abstract class IRDevice {
     protected IRCommunicatorManager communicatorManager;
     protected List<IRDevicePort> devicePorts;
     protected IRHardwareEnum deviceType;
+    // bounds how many requests may use or wait for this device, may be null.
+    protected AdmissionControl admissionControl;
+    // spaces the frames sent on the ports of this device, may be null.
+    protected EmitterGovernor emitterGovernor;
+    // source of the tuning profile of this device, may be null.
+    protected TopologyService topologyService;
+    // rejects keysets and keys the hardware does not know before they are sent, may be null.
+    protected KeysetCatalog keysetCatalog;
 
     public abstract boolean init();
 
@@ -126,4 +140,41 @@ public abstract class IRDevice {
     public void setDeviceModule(String deviceModule) {
         this.deviceModule = deviceModule;
     }
+
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    public void setAdmissionControl(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    public EmitterGovernor getEmitterGovernor() {
+        return emitterGovernor;
+    }
+
+    public void setEmitterGovernor(EmitterGovernor emitterGovernor) {
+        this.emitterGovernor = emitterGovernor;
+    }
+
+    public void setTopologyService(TopologyService topologyService) {
+        this.topologyService = topologyService;
+    }
+
+    public KeysetCatalog getKeysetCatalog() {
+        return keysetCatalog;
+    }
+
+    public void setKeysetCatalog(KeysetCatalog keysetCatalog) {
+        this.keysetCatalog = keysetCatalog;
+    }
+
+    /**
+     * The effective tuning profile of this device, read from the current topology so reloads apply to
+     * the next command.
+     */
+    public DeviceProfile getProfile() {
+        return topologyService != null ? topologyService.current().getProfile(deviceIPAddr)
+                : DeviceProfile.defaults().withDerivedLimits();
+    }
 }
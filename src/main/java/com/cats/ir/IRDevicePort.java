@@ -19,9 +19,24 @@ package com.cats.ir;
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import com.cats.configuration.DeviceProfile;
+import com.cats.ir.admission.AdmissionControl;
+import com.cats.ir.admission.EmitterGovernor;
 import com.cats.ir.commands.CatsCommand;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.CommandProgramOptimizer;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
+import com.cats.ir.context.TimingAccuracy;
+import com.cats.ir.exception.DeadlineExceededException;
 import com.cats.ir.exception.IRCommunicatorNotInitializedException;
 import com.cats.ir.exception.IRFailureException;
+import com.cats.service.KeysetCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents a port on the {@link IRDevice}
@@ -36,6 +51,14 @@ public abstract class IRDevicePort {
 
     protected IRCommunicatorManager communicatorManager;
 
+    private static final Logger logger = LoggerFactory.getLogger(IRDevicePort.class);
+
+    // Moving average of a single press round trip, used for duration estimates. Starts at 100ms.
+    private volatile long averageStepNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // End of the last frame sent on this port, for the emitter governor.
+    private volatile long lastFrameEnd = System.nanoTime();
+
     /**
      * Get the number of this port
      *
@@ -54,8 +77,178 @@ public abstract class IRDevicePort {
 
     /**
      * Send a CATSCommand to the device at this port.
+     * The command is compiled to a {@link CommandProgram} bound to the keyset of its IR commands.
+     *
+     */
+    public Boolean sendCommand(CatsCommand command) throws IRFailureException,
+            IRCommunicatorNotInitializedException {
+        if (command == null) {
+            throw new IRFailureException("Command is null");
+        }
+        return sendProgram(command.compile(), command.findIrKeySet());
+    }
+
+    /**
+     * Execute a compiled program on this port with the given keyset.
+     * Steps run in order; delays are waited out and every other step is emitted to the device, see
+     * {@link #execute(CommandProgram, String)} for how delays are timed.
+     * Execution stops at the first step the device rejects. Consecutive frames on the port are kept
+     * at least the {@link EmitterGovernor} gap or the minKeyGapMs of the device profile apart, whichever is
+     * larger, whatever delay the program asks for. Runs of presses are not folded into a hardware repeat
+     * while such a gap applies.
+     * <p>
+     * The keyset and every key of the program are first checked against the {@link KeysetCatalog} of the
+     * device, then the program passes the port and device admission gates, see {@link AdmissionControl}.
+     *
+     */
+    public Boolean sendProgram(CommandProgram program, String keySet) throws IRFailureException,
+            IRCommunicatorNotInitializedException {
+        if (program == null) {
+            throw new IRFailureException("Command is null");
+        }
+        if (device != null && device.getKeysetCatalog() != null) {
+            device.getKeysetCatalog().check(device.getDeviceType(), keySet, program.keys());
+        }
+        AdmissionControl admissionControl = device != null ? device.getAdmissionControl() : null;
+        if (admissionControl == null) {
+            return execute(program, keySet);
+        }
+        RequestContext context = RequestContext.current();
+        long queued = System.nanoTime();
+        AdmissionControl.Admission admission;
+        try {
+            admission = admissionControl.admit(device.getId(), getPortId(), device.getProfile().getConcurrency(), context);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IRFailureException("Interrupted waiting for admission to " + this);
+        }
+        try (admission) {
+            context.getTiming().record(RequestTiming.ADMISSION, queued);
+            return execute(program, keySet);
+        }
+    }
+
+    /**
+     * Runs an admitted program on the device, see {@link #sendProgram(CommandProgram, String)}.
+     * <p>
+     * The program is timed in segments, each anchored on the acknowledgement of the key that opened it.
+     * Every key that follows a delay is scheduled at the anchor plus all delays since, and sent early by the
+     * port's average round trip, so hub latency does not add up within a segment. A key sent without a
+     * delay before it opens a new segment, and so does every hold, whose length is up to the device. Requested and actual offsets are recorded in
+     * {@link TimingAccuracy}. Delays before the first key are plain pauses, and a trailing delay is waited
+     * out from the anchor before returning.
+     */
+    protected Boolean execute(CommandProgram program, String keySet) throws IRFailureException,
+            IRCommunicatorNotInitializedException {
+        RequestContext context = RequestContext.current();
+        Deadline deadline = context.getDeadline();
+        DeviceProfile profile = device != null ? device.getProfile() : null;
+        long minGap = device != null && device.getEmitterGovernor() != null
+                ? device.getEmitterGovernor().minGapNanos(device.getDeviceType(), keySet) : 0;
+        if (profile != null) {
+            // The device profile can only widen the governor gap.
+            minGap = Math.max(minGap, TimeUnit.MILLISECONDS.toNanos(profile.getMinKeyGapMs()));
+        }
+        // Folding is opt-in, set tops may read a repeat frame as one held key instead of several presses.
+        // A folded run is a single frame, so it is never used when frames have to be kept apart.
+        program = program.optimized(minGap == 0 && supportsRepeatFolding() && profile != null
+                && Boolean.TRUE.equals(profile.getFoldRepeats()));
+        long estimate = CommandProgramOptimizer.estimateMillis(program, averageStepMillis());
+        context.getTiming().recordEstimate(estimate);
+        logger.debug("Executing {} steps on {}, estimated {}ms", program.size(), this, estimate);
+        if (estimate > deadline.remainingMillis()) {
+            logger.warn("Program on {} is estimated at {}ms but only {}ms remain before the request deadline",
+                    this, estimate, deadline.remainingMillis());
+        }
+        Boolean retVal = true;
+        // Start of the current timed segment and the planned offset of the next key from it.
+        long anchor = -1;
+        long offset = 0;
+        boolean scheduled = false;
+        for (int step = 0; step < program.size(); step++) {
+            int opcode = program.opcode(step);
+            if (opcode == CommandProgram.DELAY) {
+                if (anchor < 0) {
+                    context.pause(program.argument(step));
+                } else {
+                    offset += TimeUnit.MILLISECONDS.toNanos(program.argument(step));
+                    scheduled = true;
+                }
+                continue;
+            }
+            if (scheduled) {
+                // Send early by the expected round trip so the key lands on its target.
+                context.pauseUntil(anchor + offset - averageStepNanos);
+            }
+            if (minGap > 0) {
+                // Never faster than the hardware and the set top box can take.
+                context.pauseUntil(RequestTiming.GOVERNOR, lastFrameEnd + minGap);
+            }
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException("Request deadline exceeded before sending "
+                        + program.key(step) + " on " + this);
+            }
+            long start = System.nanoTime();
+            retVal = emit(opcode, keySet, program.key(step), program.argument(step));
+            long end = System.nanoTime();
+            lastFrameEnd = end;
+            if (opcode == CommandProgram.PRESS) {
+                updateAverageStep(end - start);
+            }
+            if (!retVal) {
+                break;
+            }
+            if (scheduled) {
+                TimingAccuracy.record(getPortId(), offset, end - anchor);
+            }
+            if (!scheduled || opcode != CommandProgram.PRESS) {
+                // Keys sent back to back and holds, whose length is up to the device, start a new segment.
+                anchor = end;
+                offset = 0;
+            }
+            scheduled = false;
+        }
+        if (scheduled && retVal) {
+            context.pauseUntil(anchor + offset);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return an identifier of this port, "device:port".
+     */
+    public String getPortId() {
+        return (device != null ? device.getId() : "?") + ":" + portNumber;
+    }
+
+    /**
+     * @return true if the device can send a key with a hardware repeat count, so that runs of
+     * identical presses can be folded into one step.
+     */
+    protected boolean supportsRepeatFolding() {
+        return false;
+    }
+
+    /**
+     * @return the moving average round trip of a single press on this port.
+     */
+    public long averageStepMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(averageStepNanos);
+    }
+
+    private void updateAverageStep(long nanos) {
+        // exponentially weighted, 1/8 weight for the newest sample.
+        averageStepNanos += (nanos - averageStepNanos) >> 3;
+    }
+
+    /**
+     * Emit a single PRESS, HOLD_REPEAT or HOLD_DURATION step to the device.
      *
+     * @param opcode   one of the {@link CommandProgram} key opcodes.
+     * @param keySet   keyset the key belongs to.
+     * @param key      key to send.
+     * @param argument repeat count or duration in seconds for holds.
      */
-    public abstract Boolean sendCommand(CatsCommand command) throws IRFailureException,
+    protected abstract Boolean emit(int opcode, String keySet, String key, int argument) throws IRFailureException,
             IRCommunicatorNotInitializedException;
 }
@@ -24,10 +24,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.DelayCommand;
-import com.cats.ir.commands.PressKeyAndHoldCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
+import com.cats.ir.context.RequestContext;
 import com.cats.ir.exception.IRCommunicatorNotInitializedException;
 import com.cats.ir.exception.IRFailureException;
 import org.slf4j.Logger;
@@ -62,6 +61,30 @@ public class LocalRemote implements Remote {
         this.remoteType = remoteType;
     }
 
+    /**
+     * Executes a program on the bound port and waits for the remote delay when it succeeds.
+     *
+     * @param program The program to execute.
+     * @return true if every step was sent successfully.
+     */
+    @Override
+    public boolean sendProgram(CommandProgram program) {
+        return sleepOnTrue(execute(program));
+    }
+
+    private boolean execute(CommandProgram program) {
+        boolean retVal = false;
+        if (devicePort != null && program != null) {
+            limits().check(program);
+            try {
+                retVal = devicePort.sendProgram(program, remoteType);
+            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
+                logger.error("Failed to send command, response:{} ", e);
+            }
+        }
+        return retVal;
+    }
+
     private boolean mustDelay() {
         return (delay > 0);
     }
@@ -74,27 +97,32 @@ public class LocalRemote implements Remote {
     }
 
     /**
-     * Verifies that the delay is within the acceptable range.
+     * Verifies that the delay is within the maxDelayMs of the device profile.
      *
      * @param delay The delay to verify.
      */
     protected void verifyDelay(int delay) {
-        if (delay < 0 || delay > MAX_DELAY) {
-            throw new IllegalArgumentException("Remote delay must be 0 >= delay <= " + MAX_DELAY);
+        int maxDelay = limits().maxDelayMs();
+        if (delay < 0 || delay > maxDelay) {
+            throw new IllegalArgumentException("Remote delay must be 0 >= delay <= " + maxDelay);
         }
     }
 
     /**
-     * Sleeps for the specified delay.
+     * The delay, repeat and hold limits of the device profile, the defaults when the device is not known.
+     */
+    private ShorthandCompiler.Limits limits() {
+        return ShorthandCompiler.Limits.of(devicePort != null && devicePort.getIrDevice() != null
+                ? devicePort.getIrDevice().getProfile() : null);
+    }
+
+    /**
+     * Sleeps for the specified delay, cut short when the request deadline passes.
      *
      * @param delay The delay to sleep for.
      */
     protected void sleep(int delay) {
-        try {
-            Thread.sleep(delay);
-        } catch (InterruptedException e) {
-            logger.warn("Interrupted during sleep operation.");
-        }
+        RequestContext.current().pause(delay);
     }
 
     protected void sleep() {
@@ -152,13 +180,7 @@ public class LocalRemote implements Remote {
         boolean response = false;
         if (devicePort != null && command != null) {
             logger.debug("irPort " + devicePort);
-            PressKeyCommand pressKeyCommand = new PressKeyCommand(command, remoteType);
-            try {
-                response = devicePort.sendCommand(pressKeyCommand);
-            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
-                logger.error("Failed to send command, response:{} ", e);
-                e.printStackTrace();
-            }
+            response = execute(CommandProgram.builder().press(command).build());
             if (!response) {
                 logger.warn("Ir operation on :{} returned :{} ", devicePort, response);
             }
@@ -176,9 +198,10 @@ public class LocalRemote implements Remote {
     @Override
     public boolean pressKey(String command, Integer delay) {
         verifyDelay(delay);
-        boolean rtn = pressKey(command);
-        sleep(delay);
-        return rtn;
+        if (command == null) {
+            return false;
+        }
+        return execute(CommandProgram.builder().press(command).delay(delay).build());
     }
 
 
@@ -188,21 +211,17 @@ public class LocalRemote implements Remote {
      * @param command The command to press.
      * @param count  The number of times to press the key.
      * @return true if the key was pressed successfully.
+     * @throws IllegalArgumentException if the count is missing.
      */
     @Override
     public boolean pressKeyAndHold(String command, Integer count) {
-        boolean retVal = false;
-        if (devicePort != null && command != null) {
-            PressKeyAndHoldCommand pressKeyHoldCommand = new PressKeyAndHoldCommand(command, remoteType, count,
-                    PressKeyAndHoldCommand.REPEAT_MODE);
-            try {
-                retVal = devicePort.sendCommand(pressKeyHoldCommand);
-                sleepOnTrue(retVal);
-            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
-                logger.error("Failed to send command, response:{}", e);
-            }
+        if (command == null) {
+            return false;
         }
-        return retVal;
+        if (count == null) {
+            throw new IllegalArgumentException("Repeat count of " + command + " is required");
+        }
+        return sendProgram(CommandProgram.builder().holdRepeat(command, count).build());
     }
 
     /**
@@ -213,20 +232,14 @@ public class LocalRemote implements Remote {
      */
     @Override
     public boolean pressKeys(List<String> commands) {
-        boolean retVal = false;
-        if (devicePort != null && commands != null) {
-            CatsCommand catsCommand = new CatsCommand("PressKeys");
-            for (String command : commands) {
-                catsCommand.add(new PressKeyCommand(command, remoteType)).add(new DelayCommand(0));
-            }
-            try {
-                retVal = devicePort.sendCommand(catsCommand);
-                sleepOnTrue(retVal);
-            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
-                logger.error("Failed to send command, response: {} ", e);
-            }
+        if (commands == null) {
+            return false;
         }
-        return retVal;
+        CommandProgram.Builder program = CommandProgram.builder();
+        for (String command : commands) {
+            program.press(command);
+        }
+        return sendProgram(program.build());
     }
 
     /**
@@ -239,20 +252,14 @@ public class LocalRemote implements Remote {
      */
     @Override
     public boolean pressKeys(List<String> commands, Integer delay) {
-        boolean retVal = false;
-        if (devicePort != null && commands != null) {
-            CatsCommand catsCommand = new CatsCommand("PressKeys");
-            for (String command : commands) {
-                catsCommand.add(new PressKeyCommand(command, remoteType)).add(new DelayCommand(delay));
-            }
-            try {
-                retVal = devicePort.sendCommand(catsCommand);
-                sleepOnTrue(retVal);
-            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
-                logger.error("Failed to send command, response:{} ", e);
-            }
+        if (commands == null) {
+            return false;
         }
-        return retVal;
+        CommandProgram.Builder program = CommandProgram.builder();
+        for (String command : commands) {
+            program.press(command).delay(delay);
+        }
+        return sendProgram(program.build());
     }
 
     /**
@@ -297,29 +304,33 @@ public class LocalRemote implements Remote {
     @Override
     public boolean pressKey(Integer count, String command, Integer delay) {
         verifyDelay(delay);
-        boolean toReturn = true;
+        if (count <= 0) {
+            return true;
+        }
+        if (command == null) {
+            return false;
+        }
+        CommandProgram.Builder program = CommandProgram.builder();
         for (int i = 0; i < count; i++) {
-            toReturn = pressKey(command);
-            if (false == toReturn) {
-                break;
-            }
-            sleep(delay);
+            program.press(command).delay(delay);
         }
-        return toReturn;
+        return execute(program.build());
     }
 
     @Override
     public boolean pressKey(Integer count, Integer delay, String[] commands) {
         verifyDelay(delay);
-        boolean toReturn = true;
+        if (count <= 0) {
+            return true;
+        }
+        CommandProgram.Builder program = CommandProgram.builder();
         for (int i = 0; i < count; i++) {
-            toReturn = pressKeys(Arrays.asList(commands), delay);
-            if (false == toReturn) {
-                break;
+            for (String command : commands) {
+                program.press(command).delay(delay);
             }
-            sleep(delay);
+            program.delay(delay);
         }
-        return toReturn;
+        return sendProgram(program.build());
     }
 
     @Override
@@ -366,10 +377,18 @@ public class LocalRemote implements Remote {
         return performShorthandCommandSequence(text, DELAY_BETWEEN_KEYS);
     }
 
+    /**
+     * Sends a shorthand key sequence, see {@link ShorthandCompiler} for the syntax.
+     *
+     * @param text  The shorthand sequence.
+     * @param delay Delay in milliseconds after each key that is not followed by an explicit delay.
+     * @return true if every step was sent successfully.
+     * @throws com.cats.ir.exception.ShorthandSyntaxException if the sequence is invalid, before anything is sent.
+     */
     @Override
     public boolean performShorthandCommandSequence(String text, Integer delay) {
-        throw new UnsupportedOperationException(
-                "AbstractLocalRemote.performShorthandCommandSequence() is not supported");
+        int gap = delay == null ? DELAY_BETWEEN_KEYS : delay;
+        return sendProgram(ShorthandCompiler.compile(text, gap, limits()));
     }
 
     public static String parse(char digit) {
@@ -412,18 +431,13 @@ public class LocalRemote implements Remote {
 
     @Override
     public boolean pressKeyAndHoldDuration(String command, Integer durationSec) {
-        boolean retVal = false;
-        if (devicePort != null && command != null) {
-            PressKeyAndHoldCommand pressKeyHoldCommand = new PressKeyAndHoldCommand(command, remoteType, durationSec,
-                    PressKeyAndHoldCommand.DURATION_MODE);
-            try {
-                retVal = devicePort.sendCommand(pressKeyHoldCommand);
-                sleepOnTrue(retVal);
-            } catch (IRFailureException | IRCommunicatorNotInitializedException e) {
-                logger.error("Failed to send command, response:{} ", e);
-            }
+        if (command == null) {
+            return false;
         }
-        return retVal;
+        if (durationSec == null) {
+            throw new IllegalArgumentException("Hold duration of " + command + " is required");
+        }
+        return sendProgram(CommandProgram.builder().holdDuration(command, durationSec).build());
     }
 
     @Override
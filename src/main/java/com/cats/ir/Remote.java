@@ -21,6 +21,8 @@ package com.cats.ir;
 
 import java.util.List;
 
+import com.cats.ir.commands.CommandProgram;
+
 /**
  Interface defining the remote control system used by the IRDevicePorts to have a
  * consistent set of operations for interacting with the RedRatHub.
@@ -65,6 +67,14 @@ public interface Remote {
 
     boolean sendText(String text);
 
+    /**
+     * Executes a compiled command program with this remote's keyset.
+     *
+     * @param program the program to run.
+     * @return true if every step was sent successfully.
+     */
+    boolean sendProgram(CommandProgram program);
+
     void setAutoTuneEnabled(boolean autoTuneEnabled);
 
     void setDelay(Integer delay);
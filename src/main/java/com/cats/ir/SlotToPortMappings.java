@@ -19,17 +19,29 @@ package com.cats.ir;
  */
 
 import com.cats.ir.exception.SlotMappingException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Manages mappings between slots and device information.
+ * Mappings between slots and device information.
+ * <p>
+ * An instance is never changed once built: updates return a new instance, so readers can hold on
+ * to one for the length of a request without locking.
  */
 
 public class SlotToPortMappings {
-    Map<String, String> slots = new HashMap<>();
+    Map<String, String> slots = Collections.emptyMap();
+
+    public SlotToPortMappings() {
+    }
+
+    public SlotToPortMappings(Map<String, String> slots) {
+        this.slots = Collections.unmodifiableMap(new HashMap<>(slots));
+    }
 
     public Map<String, String> getMappings() {
         return slots;
@@ -37,29 +49,40 @@ public class SlotToPortMappings {
 
     @JsonProperty("slots")
     public void setMappings(Map<String, String> slots) {
-        this.slots = slots;
+        this.slots = Collections.unmodifiableMap(new HashMap<>(slots));
     }
 
-    public void removeMappings() {
-        this.slots = new HashMap<>();
+    /**
+     * @return a copy with the slot mapped to the device information.
+     */
+    public SlotToPortMappings withMapping(String slot, String deviceInfo) {
+        Map<String, String> copy = new HashMap<>(slots);
+        copy.put(slot, deviceInfo);
+        return new SlotToPortMappings(copy);
     }
 
-    public void addMapping(String slot, String deviceInfo) {
-        slots.put(slot, deviceInfo);
-    }
-
-    public void removeMapping(String slot) throws SlotMappingException {
-        if (slots.containsKey(slot)) {
-            slots.remove(slot);
-        } else {
+    /**
+     * @return a copy without the slot.
+     */
+    public SlotToPortMappings withoutMapping(String slot) throws SlotMappingException {
+        if (!slots.containsKey(slot)) {
             throw new SlotMappingException("Slot " + slot + " is not mapped");
         }
+        Map<String, String> copy = new HashMap<>(slots);
+        copy.remove(slot);
+        return new SlotToPortMappings(copy);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return slots.isEmpty();
     }
 
     public String getMapping(String slot) throws SlotMappingException {
-        if (slots.containsKey(slot)) {
-            return slots.get(slot);
+        String deviceInfo = slots.get(slot);
+        if (deviceInfo != null) {
+            return deviceInfo;
         }
         throw new SlotMappingException("Slot " + slot + " is not mapped");
     }
-}
\ No newline at end of file
+}
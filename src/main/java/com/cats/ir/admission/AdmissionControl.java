@@ -0,0 +1,153 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.context.RequestContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for hardware access. Every program passes a per port gate, one sender at a time
+ * with a short wait queue, and then a per device gate that bounds concurrent senders and waiters for
+ * the whole device. When a queue is full the request is rejected with 429 and a Retry-After computed
+ * from the current drain rate, so a single runaway client cannot pile up server threads behind one
+ * port or device.
+ * <p>
+ * Queue depth, active holders and rejections are exported as {@code irms.admission.*} meters tagged
+ * with scope and id.
+ */
+@Service
+public class AdmissionControl {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    public static final String PORT = "port";
+    public static final String DEVICE = "device";
+
+    // Requests allowed to wait for a busy port before new ones are rejected.
+    @Value("${irms.admission.portQueueDepth:8}")
+    int portQueueDepth;
+
+    // Ports of one device that may send at the same time.
+    @Value("${irms.admission.deviceConcurrency:4}")
+    int deviceConcurrency;
+
+    // Requests allowed to wait for a busy device before new ones are rejected.
+    @Value("${irms.admission.deviceQueueDepth:32}")
+    int deviceQueueDepth;
+
+    // Wait after which a request of a lower scheduling class ranks like one of the class above.
+    @Value("${irms.scheduling.agingMs:2000}")
+    long agingMs;
+
+    @Autowired(required = false)
+    MeterRegistry meterRegistry;
+
+    private final Map<String, AdmissionGate> portGates = new ConcurrentHashMap<>();
+    private final Map<String, AdmissionGate> deviceGates = new ConcurrentHashMap<>();
+
+    /**
+     * Admits a request to a port, first through the port gate and then through its device gate.
+     * The returned admission must be closed once the program has run.
+     *
+     * @throws com.cats.ir.exception.TooManyRequestsException  if either wait queue is full.
+     * @throws com.cats.ir.exception.DeadlineExceededException if the deadline passes while waiting.
+     */
+    public Admission admit(String deviceId, String portId, RequestContext context) throws InterruptedException {
+        return admit(deviceId, portId, null, context);
+    }
+
+    /**
+     * Admits a request like {@link #admit(String, String, RequestContext)}, with the device gate allowing
+     * {@code concurrency} senders instead of irms.admission.deviceConcurrency. The gate keeps the value it
+     * was created with.
+     */
+    public Admission admit(String deviceId, String portId, Integer concurrency, RequestContext context)
+            throws InterruptedException {
+        AdmissionGate portGate = portGates.computeIfAbsent(portId, id -> gate(PORT, id, 1, portQueueDepth));
+        AdmissionGate deviceGate = deviceGates.computeIfAbsent(deviceId,
+                id -> gate(DEVICE, id, concurrency != null ? concurrency : deviceConcurrency, deviceQueueDepth));
+        AdmissionGate.Permit portPermit = portGate.enter(context);
+        try {
+            return new Admission(portPermit, deviceGate.enter(context));
+        } catch (RuntimeException | InterruptedException e) {
+            portPermit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Current state of all gates, ports first.
+     */
+    public List<AdmissionGate> getGates() {
+        List<AdmissionGate> gates = new ArrayList<>(portGates.values());
+        gates.addAll(deviceGates.values());
+        return gates;
+    }
+
+    private AdmissionGate gate(String scope, String id, int permits, int maxQueue) {
+        AdmissionGate gate = new AdmissionGate(scope, id, permits, maxQueue, TimeUnit.MILLISECONDS.toNanos(agingMs));
+        logger.debug("Admission gate for {} {}: {} permits, queue {}", scope, id, permits, maxQueue);
+        if (meterRegistry != null) {
+            Gauge.builder("irms.admission.waiting", gate, AdmissionGate::getWaiting)
+                    .description("Requests waiting for admission")
+                    .tag("scope", scope).tag("id", id)
+                    .register(meterRegistry);
+            Gauge.builder("irms.admission.active", gate, AdmissionGate::getActive)
+                    .description("Requests holding admission")
+                    .tag("scope", scope).tag("id", id)
+                    .register(meterRegistry);
+            FunctionCounter.builder("irms.admission.rejected", gate, AdmissionGate::getRejected)
+                    .description("Requests rejected because the wait queue was full")
+                    .tag("scope", scope).tag("id", id)
+                    .register(meterRegistry);
+        }
+        return gate;
+    }
+
+    /**
+     * Port and device permits held by one admitted request.
+     */
+    public static final class Admission implements AutoCloseable {
+        private final AdmissionGate.Permit portPermit;
+        private final AdmissionGate.Permit devicePermit;
+
+        private Admission(AdmissionGate.Permit portPermit, AdmissionGate.Permit devicePermit) {
+            this.portPermit = portPermit;
+            this.devicePermit = devicePermit;
+        }
+
+        @Override
+        public void close() {
+            devicePermit.close();
+            portPermit.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.SchedulingClass;
+import com.cats.ir.exception.DeadlineExceededException;
+import com.cats.ir.exception.TooManyRequestsException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded entry to a port or device: a fixed number of holders plus a bounded wait queue served in
+ * {@link SchedulingClass} order.
+ * A request that finds the queue full is rejected at once with a Retry-After estimate derived from
+ * the queue depth and the average time a holder keeps the gate, rather than tying up a server thread.
+ */
+public final class AdmissionGate {
+
+    private final String scope;
+    private final String id;
+    private final int permits;
+    private final int maxQueue;
+    private final PrioritySemaphore semaphore;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Moving average of how long a holder keeps the gate. Starts at 100ms.
+    private volatile long averageHoldNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public AdmissionGate(String scope, String id, int permits, int maxQueue) {
+        this(scope, id, permits, maxQueue, PrioritySemaphore.DEFAULT_AGING_NANOS);
+    }
+
+    /**
+     * @param agingNanos aging step between two scheduling classes, see {@link PrioritySemaphore}.
+     */
+    public AdmissionGate(String scope, String id, int permits, int maxQueue, long agingNanos) {
+        this.scope = scope;
+        this.id = id;
+        this.permits = permits;
+        this.maxQueue = maxQueue;
+        this.semaphore = new PrioritySemaphore(permits, agingNanos);
+    }
+
+    /**
+     * Enters the gate, waiting in the queue if it is busy.
+     *
+     * @throws TooManyRequestsException  if the wait queue is full.
+     * @throws DeadlineExceededException if the request deadline passes while waiting.
+     */
+    public Permit enter(RequestContext context) throws InterruptedException {
+        SchedulingClass schedulingClass = context.getSchedulingClass();
+        int depth = waiting.incrementAndGet();
+        try {
+            if (!semaphore.tryAcquire(schedulingClass, 0, TimeUnit.NANOSECONDS)) {
+                if (depth > maxQueue) {
+                    rejected.increment();
+                    throw new TooManyRequestsException("Too many requests waiting for " + scope + " " + id
+                            + " (" + maxQueue + " queued), please retry later.", retryAfterSeconds(depth));
+                }
+                if (!semaphore.tryAcquire(schedulingClass, context.getDeadline().remainingNanos(),
+                        TimeUnit.NANOSECONDS)) {
+                    throw new DeadlineExceededException("Request deadline exceeded waiting for " + scope + " " + id);
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+        admitted.increment();
+        return new Permit();
+    }
+
+    /**
+     * Estimated time for the current queue to drain, in whole seconds, at least 1.
+     */
+    long retryAfterSeconds(int depth) {
+        long drainNanos = depth * averageHoldNanos / permits;
+        return Math.max(1, (drainNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public int getActive() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getAverageHoldMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(averageHoldNanos);
+    }
+
+    /**
+     * A held place in the gate, released on close.
+     */
+    public final class Permit implements AutoCloseable {
+        private final long start = System.nanoTime();
+        private boolean released;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                // exponentially weighted, 1/8 weight for the newest sample.
+                averageHoldNanos += ((System.nanoTime() - start) - averageHoldNanos) >> 3;
+                semaphore.release();
+            }
+        }
+    }
+}
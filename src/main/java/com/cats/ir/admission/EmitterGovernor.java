@@ -0,0 +1,67 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.GovernorProperties;
+import com.cats.ir.IRHardwareEnum;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimum gap between the end of one frame and the start of the next on a port, so keys can be
+ * sent as fast as the IR hardware and the set top box model allow. Clients may send sequences with
+ * no delay and each port spaces the frames out, see {@link com.cats.ir.IRDevicePort}.
+ */
+@Service
+public class EmitterGovernor {
+    private static final Logger logger = LoggerFactory.getLogger(EmitterGovernor.class);
+
+    @Autowired
+    GovernorProperties properties;
+
+    // Case insensitive copies of the configured gaps, in nanoseconds.
+    private final Map<String, Long> deviceTypeGaps = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Long> keysetGaps = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private long defaultGapNanos;
+
+    @PostConstruct
+    public void init() {
+        defaultGapNanos = TimeUnit.MILLISECONDS.toNanos(properties.getDefaultGapMs());
+        properties.getDeviceTypeGapMs().forEach((type, gap) -> deviceTypeGaps.put(type, TimeUnit.MILLISECONDS.toNanos(gap)));
+        properties.getKeysetGapMs().forEach((keySet, gap) -> keysetGaps.put(keySet, TimeUnit.MILLISECONDS.toNanos(gap)));
+        logger.info("Emitter gaps: default {}ms, device types {}, keysets {}", properties.getDefaultGapMs(),
+                properties.getDeviceTypeGapMs(), properties.getKeysetGapMs());
+    }
+
+    /**
+     * @return the gap to keep between frames of the given keyset on the given kind of device, 0 for none.
+     */
+    public long minGapNanos(IRHardwareEnum deviceType, String keySet) {
+        long deviceGap = deviceType != null ? deviceTypeGaps.getOrDefault(deviceType.name(), defaultGapNanos) : defaultGapNanos;
+        long keysetGap = keySet != null ? keysetGaps.getOrDefault(keySet, defaultGapNanos) : defaultGapNanos;
+        return Math.max(deviceGap, keysetGap);
+    }
+}
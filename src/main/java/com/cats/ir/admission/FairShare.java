@@ -0,0 +1,152 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.FairShareProperties;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies the client behind a request and its share of the hub connections.
+ * <p>
+ * A client is named by the X-Api-Key header when the key is configured, otherwise by the
+ * X-Client-Id header, otherwise it is {@link #ANONYMOUS}. Hub connection grants are ordered by
+ * weighted fair queuing, see {@link PrioritySemaphore}: every grant charges the client a quantum of
+ * hub time divided by its weight, so a client with weight 3 gets three times the grants of a client
+ * with weight 1 while both are waiting. Grants and wait times are exported per client as
+ * {@code irms.fairshare.wait}.
+ */
+@Service
+public class FairShare {
+    private static final Logger logger = LoggerFactory.getLogger(FairShare.class);
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    public static final String API_KEY_HEADER = "X-Api-Key";
+    public static final String ANONYMOUS = "anonymous";
+    public static final String OTHER = "other";
+
+    private static final Pattern CLIENT_ID = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    @Autowired
+    FairShareProperties properties;
+
+    @Autowired(required = false)
+    MeterRegistry meterRegistry;
+
+    private final Map<String, ClientCounters> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @return the client id for the given headers, never null.
+     */
+    public String identify(String clientIdHeader, String apiKey) {
+        if (apiKey != null) {
+            String client = properties.getApiKeys().get(apiKey.trim());
+            if (client != null) {
+                return client;
+            }
+            logger.debug("Ignoring unknown {}", API_KEY_HEADER);
+        }
+        if (clientIdHeader != null && CLIENT_ID.matcher(clientIdHeader.trim()).matches()) {
+            return clientIdHeader.trim();
+        }
+        return ANONYMOUS;
+    }
+
+    public int weight(String clientId) {
+        Integer weight = properties.getWeights().get(clientId);
+        return Math.max(1, weight != null ? weight : properties.getDefaultWeight());
+    }
+
+    /**
+     * Hub time charged to the client for one connection grant.
+     */
+    public long costNanos(String clientId) {
+        return TimeUnit.MILLISECONDS.toNanos(properties.getQuantumMs()) / weight(clientId);
+    }
+
+    /**
+     * Records a connection grant to the client after waiting the given time.
+     */
+    public void recordGrant(String clientId, long waitNanos) {
+        ClientCounters counters = clients.get(clientId);
+        if (counters == null) {
+            String tracked = clients.size() < properties.getMaxTrackedClients() ? clientId : OTHER;
+            counters = clients.computeIfAbsent(tracked, this::counters);
+        }
+        counters.grants.increment();
+        counters.waitNanos.add(waitNanos);
+        counters.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Grants and waits per client, sorted by client id.
+     */
+    public Map<String, ClientStats> snapshot() {
+        Map<String, ClientStats> snapshot = new TreeMap<>();
+        clients.forEach((client, counters) -> {
+            long grants = counters.grants.sum();
+            long waitNanos = counters.waitNanos.sum();
+            snapshot.put(client, new ClientStats(OTHER.equals(client) ? properties.getDefaultWeight() : weight(client),
+                    grants, grants == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos / grants),
+                    TimeUnit.NANOSECONDS.toMillis(counters.maxWaitNanos.get())));
+        });
+        return snapshot;
+    }
+
+    private ClientCounters counters(String client) {
+        ClientCounters counters = new ClientCounters();
+        if (meterRegistry != null) {
+            FunctionTimer.builder("irms.fairshare.wait", counters, c -> c.grants.sum(), c -> c.waitNanos.sum(),
+                            TimeUnit.NANOSECONDS)
+                    .description("Hub connection grants and time waited for them")
+                    .tag("client", client)
+                    .register(meterRegistry);
+            Gauge.builder("irms.fairshare.weight", counters, c -> weight(client))
+                    .description("Configured share of the client")
+                    .tag("client", client)
+                    .register(meterRegistry);
+        }
+        return counters;
+    }
+
+    /**
+     * Share and hub connection waits of one client.
+     */
+    public record ClientStats(int weight, long grants, long averageWaitMs, long maxWaitMs) {
+    }
+
+    private static final class ClientCounters {
+        final LongAdder grants = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+}
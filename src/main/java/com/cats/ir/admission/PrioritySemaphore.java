@@ -0,0 +1,206 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.context.SchedulingClass;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counting semaphore that hands out permits by {@link SchedulingClass} rather than arrival order.
+ * <p>
+ * Each waiter is ranked by its arrival time pushed back by one aging step per class below
+ * interactive. An interactive request therefore overtakes batch work that arrived less than one
+ * step earlier, while batch work that has waited longer than that is served first, so no class
+ * starves. Waiters of the same class are served in arrival order.
+ * <p>
+ * Waiters may also name a flow, such as a client, with a cost per grant. Flows are then served by
+ * start-time fair queuing: a flow's waiter ranks no earlier than the end of the hub time charged to
+ * that flow's previous grants, nor earlier than the start of the last grant, the system virtual time.
+ * A flow with a backlog therefore cannot push the waiters of other flows back, a flow charged half the
+ * cost gets twice the grants, and a flow that had the semaphore to itself is at most one grant ahead
+ * when others arrive. Only grants that had to wait are charged.
+ */
+public final class PrioritySemaphore {
+
+    // Aging step between two classes unless given, irms.scheduling.agingMs in the application.
+    public static final long DEFAULT_AGING_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final int MAX_IDLE_FLOWS = 256;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(Waiter.ORDER);
+    private final long agingNanos;
+    // Virtual finish time of the last grant of each flow, System.nanoTime() based.
+    private final Map<String, Long> flowFinish = new HashMap<>();
+    // Start of the last waiter granted, System.nanoTime() based.
+    private long virtualTime = System.nanoTime();
+    private int permits;
+    private long sequence;
+
+    public PrioritySemaphore(int permits) {
+        this(permits, DEFAULT_AGING_NANOS);
+    }
+
+    public PrioritySemaphore(int permits, long agingNanos) {
+        this.permits = permits;
+        this.agingNanos = agingNanos;
+    }
+
+    /**
+     * Acquires a permit, waiting up to the timeout behind waiters that rank ahead.
+     *
+     * @return true if a permit was acquired, false if the timeout elapsed first.
+     */
+    public boolean tryAcquire(SchedulingClass schedulingClass, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryAcquire(schedulingClass, null, 0, timeout, unit);
+    }
+
+    /**
+     * Acquires a permit on behalf of a flow, charging it the given cost, see the class description.
+     * The charge is refunded when no permit is granted.
+     *
+     * @param flow      the flow, or null to rank by arrival time only.
+     * @param costNanos the virtual time charged to the flow for this grant.
+     * @return true if a permit was acquired, false if the timeout elapsed first.
+     */
+    public boolean tryAcquire(SchedulingClass schedulingClass, String flow, long costNanos, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (waiters.isEmpty() && permits > 0) {
+                permits--;
+                return true;
+            }
+            if (remaining <= 0) {
+                return false;
+            }
+            long start = virtualStart(flow, costNanos);
+            Waiter waiter = new Waiter(start, start + schedulingClass.ordinal() * agingNanos, sequence++);
+            waiters.add(waiter);
+            boolean acquired = false;
+            try {
+                while (waiters.peek() != waiter || permits == 0) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = changed.awaitNanos(remaining);
+                }
+                waiters.poll();
+                permits--;
+                if (waiter.start - virtualTime > 0) {
+                    virtualTime = waiter.start;
+                }
+                acquired = true;
+                return true;
+            } finally {
+                if (!acquired) {
+                    waiters.remove(waiter);
+                    refund(flow, costNanos);
+                }
+                // let the next waiter check whether it is now at the head.
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start of the flow's next grant in virtual time, the latest of now, the system virtual time and
+     * the end of its previous grants, and charges the flow for this one.
+     */
+    private long virtualStart(String flow, long costNanos) {
+        long now = System.nanoTime();
+        if (flow == null) {
+            return now;
+        }
+        long base = virtualTime - now > 0 ? virtualTime : now;
+        if (flowFinish.size() > MAX_IDLE_FLOWS) {
+            // flows whose charges have run out rank like new ones, forget them.
+            flowFinish.values().removeIf(finish -> finish - base < 0);
+        }
+        Long finish = flowFinish.get(flow);
+        long start = finish != null && finish - base > 0 ? finish : base;
+        flowFinish.put(flow, start + costNanos);
+        return start;
+    }
+
+    /**
+     * Takes back the charge of a grant that did not happen, so a flow whose waits time out is not
+     * pushed further back on every attempt.
+     */
+    private void refund(String flow, long costNanos) {
+        if (flow != null) {
+            flowFinish.computeIfPresent(flow, (f, finish) -> finish - costNanos);
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            permits++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return permits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        static final Comparator<Waiter> ORDER = (a, b) -> a.rank != b.rank
+                ? Long.signum(a.rank - b.rank) : Long.compare(a.sequence, b.sequence);
+
+        // System.nanoTime() based, compared by difference.
+        final long start;
+        final long rank;
+        final long sequence;
+
+        Waiter(long start, long rank, long sequence) {
+            this.start = start;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -167,6 +167,43 @@ public class CatsCommand implements Iterator<CatsCommand> {
         return command;
     }
 
+    /**
+     * Compiles this command and all of its children into a flat {@link CommandProgram}, in the
+     * same order the iterator returns them. The iterator state is not touched.
+     */
+    public CommandProgram compile() {
+        CommandProgram.Builder builder = CommandProgram.builder();
+        compileInto(builder);
+        return builder.build();
+    }
+
+    private void compileInto(CommandProgram.Builder builder) {
+        appendTo(builder);
+        // element 0 is this command itself.
+        for (int i = 1; i < catsCommands.size(); i++) {
+            catsCommands.get(i).compileInto(builder);
+        }
+    }
+
+    /**
+     * Appends the step this command represents, if any. Grouping commands add nothing.
+     */
+    protected void appendTo(CommandProgram.Builder builder) {
+    }
+
+    /**
+     * @return the keyset of the first IR command in this command tree, or null if there is none.
+     */
+    public String findIrKeySet() {
+        for (int i = 1; i < catsCommands.size(); i++) {
+            String keySet = catsCommands.get(i).findIrKeySet();
+            if (keySet != null) {
+                return keySet;
+            }
+        }
+        return null;
+    }
+
     @Override
     public void remove() {
         catsCommands.remove(currentCount);
@@ -0,0 +1,237 @@
+package com.cats.ir.commands;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled, flat sequence of IR operations.
+ * <p>
+ * Each step is an opcode with an interned key operand and an integer argument, held in parallel
+ * arrays. A program is immutable once built, so the same instance can be shared across threads,
+ * reused for any slot and traversed by index without allocation. The keyset is bound when the
+ * program is executed on a port.
+ */
+public final class CommandProgram {
+
+    /**
+     * Press a key once. Argument unused.
+     */
+    public static final int PRESS = 0;
+    /**
+     * Press and hold a key. Argument is the hardware repeat count.
+     */
+    public static final int HOLD_REPEAT = 1;
+    /**
+     * Press and hold a key. Argument is the hold duration in seconds.
+     */
+    public static final int HOLD_DURATION = 2;
+    /**
+     * Wait before the next step. Argument is the delay in milliseconds, no key operand.
+     */
+    public static final int DELAY = 3;
+
+    private static final String[] OPCODE_NAMES = {"PRESS", "HOLD_REPEAT", "HOLD_DURATION", "DELAY"};
+
+    public static final CommandProgram EMPTY = new Builder().build();
+
+    private final int[] opcodes;
+    // Index into keys, -1 for DELAY steps.
+    private final int[] operands;
+    private final int[] arguments;
+    // Distinct keys used by the program, interned.
+    private final String[] keys;
+
+    // Optimized forms, computed on first use. A race only computes the same value twice.
+    private volatile CommandProgram optimized;
+    private volatile CommandProgram optimizedWithRepeats;
+
+    private CommandProgram(int[] opcodes, int[] operands, int[] arguments, String[] keys) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.arguments = arguments;
+        this.keys = keys;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    public boolean isEmpty() {
+        return opcodes.length == 0;
+    }
+
+    public int opcode(int step) {
+        return opcodes[step];
+    }
+
+    /**
+     * @return the key of the step, or null for a DELAY step.
+     */
+    public String key(int step) {
+        int operand = operands[step];
+        return operand < 0 ? null : keys[operand];
+    }
+
+    public int argument(int step) {
+        return arguments[step];
+    }
+
+    /**
+     * @return the distinct keys used by this program.
+     */
+    public List<String> keys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * @param foldRepeats true if the target device can send a key with a repeat count.
+     * @return the optimized form of this program, see {@link CommandProgramOptimizer}.
+     */
+    public CommandProgram optimized(boolean foldRepeats) {
+        CommandProgram result = foldRepeats ? optimizedWithRepeats : optimized;
+        if (result == null) {
+            result = CommandProgramOptimizer.optimize(this, foldRepeats);
+            // an optimized program is its own optimized form.
+            if (foldRepeats) {
+                result.optimizedWithRepeats = result;
+                optimizedWithRepeats = result;
+            } else {
+                result.optimized = result;
+                optimized = result;
+            }
+        }
+        return result;
+    }
+
+    public static String opcodeName(int opcode) {
+        return OPCODE_NAMES[opcode];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < opcodes.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(OPCODE_NAMES[opcodes[i]]);
+            if (operands[i] >= 0) {
+                builder.append(' ').append(keys[operands[i]]);
+            }
+            if (opcodes[i] != PRESS) {
+                builder.append(' ').append(arguments[i]);
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Builds a {@link CommandProgram}. Not thread-safe; the built program is.
+     */
+    public static final class Builder {
+        private int[] opcodes = new int[8];
+        private int[] operands = new int[8];
+        private int[] arguments = new int[8];
+        private int size;
+        private final Map<String, Integer> keyIndex = new HashMap<>();
+        private String[] keys = new String[4];
+
+        private Builder() {
+        }
+
+        public Builder press(String key) {
+            return add(PRESS, key, 0);
+        }
+
+        public Builder holdRepeat(String key, int count) {
+            return add(HOLD_REPEAT, key, Math.max(0, count));
+        }
+
+        public Builder holdDuration(String key, int durationSec) {
+            return add(HOLD_DURATION, key, Math.max(0, durationSec));
+        }
+
+        public Builder delay(int delayMs) {
+            return add(DELAY, null, Math.max(0, delayMs));
+        }
+
+        /**
+         * Appends a single step.
+         */
+        public Builder add(int opcode, String key, int argument) {
+            if (opcode < PRESS || opcode > DELAY) {
+                throw new IllegalArgumentException("Unknown opcode " + opcode);
+            }
+            if (opcode != DELAY && key == null) {
+                throw new IllegalArgumentException(OPCODE_NAMES[opcode] + " requires a key");
+            }
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+                arguments = Arrays.copyOf(arguments, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size] = opcode == DELAY ? -1 : intern(key);
+            arguments[size] = argument;
+            size++;
+            return this;
+        }
+
+        /**
+         * Appends every step of another program.
+         */
+        public Builder append(CommandProgram program) {
+            for (int i = 0; i < program.size(); i++) {
+                add(program.opcode(i), program.key(i), program.argument(i));
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private int intern(String key) {
+            Integer index = keyIndex.get(key);
+            if (index == null) {
+                index = keyIndex.size();
+                if (index == keys.length) {
+                    keys = Arrays.copyOf(keys, index * 2);
+                }
+                keys[index] = key.intern();
+                keyIndex.put(key, index);
+            }
+            return index;
+        }
+
+        public CommandProgram build() {
+            return new CommandProgram(Arrays.copyOf(opcodes, size), Arrays.copyOf(operands, size),
+                    Arrays.copyOf(arguments, size), Arrays.copyOf(keys, keyIndex.size()));
+        }
+    }
+}
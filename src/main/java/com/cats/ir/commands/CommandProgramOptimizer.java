@@ -0,0 +1,142 @@
+package com.cats.ir.commands;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Optimization pass over a {@link CommandProgram}, run before a program reaches the hardware.
+ * <ul>
+ * <li>zero delays are dropped and adjacent delays are merged into one;</li>
+ * <li>when asked for, on devices that support a hardware repeat, a run of identical presses with no
+ * delay in between is folded into a single HOLD_REPEAT step, saving one hub round trip per press.</li>
+ * </ul>
+ * It also estimates how long a program will take to execute.
+ */
+public final class CommandProgramOptimizer {
+
+    /**
+     * Approximate length of one repeated IR frame, used to estimate hold durations.
+     */
+    public static final int REPEAT_FRAME_MILLIS = 110;
+
+    /**
+     * Longest run of presses folded into one repeat, keeping the hold well inside the hub read timeout.
+     */
+    public static final int MAX_FOLDED_REPEATS = 20;
+
+    private CommandProgramOptimizer() {
+    }
+
+    /**
+     * @param program     the program to optimize.
+     * @param foldRepeats true if the target device can send a key with a repeat count.
+     * @return an equivalent program with fewer steps, or the same instance when nothing changed.
+     */
+    public static CommandProgram optimize(CommandProgram program, boolean foldRepeats) {
+        CommandProgram.Builder builder = CommandProgram.builder();
+        int pendingDelay = 0;
+        int step = 0;
+        int size = program.size();
+        while (step < size) {
+            int opcode = program.opcode(step);
+            if (opcode == CommandProgram.DELAY) {
+                pendingDelay += program.argument(step);
+                step++;
+                continue;
+            }
+            if (pendingDelay > 0) {
+                builder.delay(pendingDelay);
+                pendingDelay = 0;
+            }
+            String key = program.key(step);
+            int run = 1;
+            if (foldRepeats && opcode == CommandProgram.PRESS) {
+                run = pressRun(program, step, key);
+            }
+            if (run > 1) {
+                builder.holdRepeat(key, run);
+                step = skipRun(program, step, run);
+            } else {
+                builder.add(opcode, key, program.argument(step));
+                step++;
+            }
+        }
+        if (pendingDelay > 0) {
+            builder.delay(pendingDelay);
+        }
+        return builder.size() == size ? program : builder.build();
+    }
+
+    /**
+     * Counts identical presses starting at the given step, separated by nothing but zero delays.
+     */
+    private static int pressRun(CommandProgram program, int start, String key) {
+        int run = 1;
+        for (int step = start + 1; step < program.size() && run < MAX_FOLDED_REPEATS; step++) {
+            int opcode = program.opcode(step);
+            if (opcode == CommandProgram.DELAY && program.argument(step) == 0) {
+                continue;
+            }
+            // keys are interned, identity is enough.
+            if (opcode != CommandProgram.PRESS || program.key(step) != key) {
+                break;
+            }
+            run++;
+        }
+        return run;
+    }
+
+    private static int skipRun(CommandProgram program, int start, int run) {
+        int step = start;
+        int presses = 0;
+        while (presses < run) {
+            if (program.opcode(step) == CommandProgram.PRESS) {
+                presses++;
+            }
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Estimates the wall-clock duration of a program.
+     *
+     * @param program        the program.
+     * @param perStepMillis  expected round trip for a single key step.
+     * @return the estimated duration in milliseconds.
+     */
+    public static long estimateMillis(CommandProgram program, long perStepMillis) {
+        long estimate = 0;
+        for (int step = 0; step < program.size(); step++) {
+            switch (program.opcode(step)) {
+                case CommandProgram.DELAY:
+                    estimate += program.argument(step);
+                    break;
+                case CommandProgram.HOLD_REPEAT:
+                    estimate += perStepMillis + (long) program.argument(step) * REPEAT_FRAME_MILLIS;
+                    break;
+                case CommandProgram.HOLD_DURATION:
+                    estimate += perStepMillis + program.argument(step) * 1000L;
+                    break;
+                default:
+                    estimate += perStepMillis;
+            }
+        }
+        return estimate;
+    }
+}
@@ -47,6 +47,11 @@ public class DelayCommand extends CatsCommand {
         logger.trace("DelayCommand created " + delay);
     }
 
+    @Override
+    protected void appendTo(CommandProgram.Builder builder) {
+        builder.delay(delay);
+    }
+
     public int getDelay() {
         return delay;
     }
@@ -62,4 +62,9 @@ public abstract class IrCommand extends CatsCommand {
     public void setIrKeySet(String irKeySet) {
         this.irKeySet = irKeySet;
     }
+
+    @Override
+    public String findIrKeySet() {
+        return irKeySet != null ? irKeySet : super.findIrKeySet();
+    }
 }
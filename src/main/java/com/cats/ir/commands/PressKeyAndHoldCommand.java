@@ -64,12 +64,21 @@ public class PressKeyAndHoldCommand extends PressKeyCommand {
         logger.trace("PressKeyAndHoldCommand countOrDuration " + countOrDuration);
     }
 
+    @Override
+    protected void appendTo(CommandProgram.Builder builder) {
+        if (DURATION_MODE.equals(mode)) {
+            builder.holdDuration(remoteCommand, duration);
+        } else {
+            builder.holdRepeat(remoteCommand, count);
+        }
+    }
+
     public Integer getCount() {
         return count;
     }
 
     public void setCount(Integer count) {
-        if (count < 0) {
+        if (count == null || count < 0) {
             count = 0;
         }
         this.count = count;
@@ -80,7 +89,7 @@ public class PressKeyAndHoldCommand extends PressKeyCommand {
     }
 
     public void setDuration(Integer duration) {
-        if (duration < 0) {
+        if (duration == null || duration < 0) {
             duration = 0;
         }
         this.duration = duration;
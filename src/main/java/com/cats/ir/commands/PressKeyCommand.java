@@ -29,4 +29,9 @@ public class PressKeyCommand extends IrCommand {
     public PressKeyCommand(String command, String irKeySet) {
         super(COMMAND_NAME, command, irKeySet);
     }
+
+    @Override
+    protected void appendTo(CommandProgram.Builder builder) {
+        builder.press(remoteCommand);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,366 @@
+package com.cats.ir.commands;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.DeviceProfile;
+import com.cats.ir.Remote;
+import com.cats.ir.exception.ShorthandSyntaxException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Compiles shorthand key sequences such as {@code G D*5 O ~200 P:hold3} into a {@link CommandProgram}.
+ * <p>
+ * Tokens are separated by whitespace or commas:
+ * <ul>
+ *     <li>a single character alias, the same set understood by the legacy {@code /seq} endpoint
+ *     ({@code U D L R O G M X S I P C [ ] < > ! ~ a b c d} and the digits)</li>
+ *     <li>a full key name such as {@code GUIDE} or {@code VOL_UP}</li>
+ *     <li>a run of digits such as {@code 123}, one press per digit</li>
+ *     <li>{@code ~N}, a delay of N milliseconds</li>
+ * </ul>
+ * A key may carry one modifier: {@code *N} presses it N times, {@code :holdN} holds it for N repeats and
+ * {@code :holdNs} holds it for N seconds.
+ * <p>
+ * Delays, repeat counts and hold durations are bounded by {@link Limits}, taken from the {@link DeviceProfile}
+ * of the target device where it is known.
+ * <p>
+ * Compiled programs are immutable and kept in a bounded cache keyed by source, default gap and limits, so a
+ * sequence that is sent repeatedly is only parsed once. Syntax errors are reported before anything
+ * is sent, with the position of the offending character.
+ */
+public final class ShorthandCompiler {
+
+    public static final int MAX_LENGTH = 4096;
+    public static final int MAX_REPEAT = 100;
+    public static final int MAX_HOLD_SECONDS = 30;
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final String[] ALIASES = new String[128];
+
+    static {
+        String[] digits = {"ZERO", "ONE", "TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN", "EIGHT", "NINE"};
+        for (int i = 0; i < digits.length; i++) {
+            ALIASES['0' + i] = digits[i];
+        }
+        ALIASES['U'] = "UP";
+        ALIASES['D'] = "DOWN";
+        ALIASES['L'] = "LEFT";
+        ALIASES['R'] = "RIGHT";
+        ALIASES['O'] = "OK";
+        ALIASES['G'] = "GUIDE";
+        ALIASES['M'] = "MENU";
+        ALIASES['X'] = "EXIT";
+        ALIASES['S'] = "SEARCH";
+        ALIASES['I'] = "INFO";
+        ALIASES['P'] = "PLAY";
+        ALIASES['C'] = "REC";
+        ALIASES['['] = "CHDN";
+        ALIASES[']'] = "CHUP";
+        ALIASES['<'] = "PGDN";
+        ALIASES['>'] = "PGUP";
+        ALIASES['~'] = "LAST";
+        ALIASES['!'] = "MUTE";
+        ALIASES['a'] = "A";
+        ALIASES['b'] = "B";
+        ALIASES['c'] = "C";
+        ALIASES['d'] = "D";
+    }
+
+    private static volatile Cache<Key, CommandProgram> cache = newCache(DEFAULT_CACHE_SIZE);
+
+    private ShorthandCompiler() {
+    }
+
+    /**
+     * Replaces the cache of compiled programs with an empty one holding at most {@code size} entries,
+     * irms.shorthand.cacheSize in the application.
+     */
+    public static void setCacheSize(int size) {
+        cache = newCache(size);
+    }
+
+    private static Cache<Key, CommandProgram> newCache(int size) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .build();
+    }
+
+    /**
+     * Bounds of the delays, repeat counts and hold durations a program may contain.
+     */
+    public record Limits(int maxDelayMs, int maxRepeatCount, int maxHoldSeconds) {
+
+        /**
+         * The limits used when the target device is not known.
+         */
+        public static final Limits DEFAULT = new Limits(Remote.MAX_DELAY, MAX_REPEAT, MAX_HOLD_SECONDS);
+
+        /**
+         * The limits of an effective device profile, the defaults for the values it does not set.
+         */
+        public static Limits of(DeviceProfile profile) {
+            if (profile == null) {
+                return DEFAULT;
+            }
+            return new Limits(
+                    profile.getMaxDelayMs() != null ? profile.getMaxDelayMs() : DEFAULT.maxDelayMs,
+                    profile.getMaxRepeatCount() != null ? profile.getMaxRepeatCount() : DEFAULT.maxRepeatCount,
+                    profile.getMaxHoldSeconds() != null ? profile.getMaxHoldSeconds() : DEFAULT.maxHoldSeconds);
+        }
+
+        /**
+         * Checks every step of a program built elsewhere, such as a macro or a script, against these limits.
+         *
+         * @throws IllegalArgumentException naming the first step that exceeds them.
+         */
+        public void check(CommandProgram program) {
+            for (int i = 0; i < program.size(); i++) {
+                int argument = program.argument(i);
+                switch (program.opcode(i)) {
+                    case CommandProgram.DELAY -> {
+                        if (argument > maxDelayMs) {
+                            throw new IllegalArgumentException("Delay " + argument + "ms is above the maximum of " + maxDelayMs + "ms");
+                        }
+                    }
+                    case CommandProgram.HOLD_REPEAT -> {
+                        if (argument > maxRepeatCount) {
+                            throw new IllegalArgumentException("Repeat count " + argument + " of " + program.key(i)
+                                    + " is above the maximum of " + maxRepeatCount);
+                        }
+                    }
+                    case CommandProgram.HOLD_DURATION -> {
+                        if (argument > maxHoldSeconds) {
+                            throw new IllegalArgumentException("Hold of " + argument + "s on " + program.key(i)
+                                    + " is above the maximum of " + maxHoldSeconds + "s");
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles a sequence with no gap between keys.
+     */
+    public static CommandProgram compile(String source) {
+        return compile(source, 0);
+    }
+
+    /**
+     * Compiles a sequence within the default limits, see {@link #compile(String, int, Limits)}.
+     */
+    public static CommandProgram compile(String source, int gapMillis) {
+        return compile(source, gapMillis, Limits.DEFAULT);
+    }
+
+    /**
+     * Compiles a sequence, inserting a delay of {@code gapMillis} after every key that is not
+     * already followed by an explicit delay.
+     *
+     * @throws ShorthandSyntaxException if the sequence cannot be parsed or exceeds the limits.
+     */
+    public static CommandProgram compile(String source, int gapMillis, Limits limits) {
+        if (source == null) {
+            throw new IllegalArgumentException("Shorthand sequence cannot be null");
+        }
+        if (gapMillis < 0 || gapMillis > limits.maxDelayMs()) {
+            throw new IllegalArgumentException("Delay between keys must be 0 >= delay <= " + limits.maxDelayMs());
+        }
+        Key key = new Key(source, gapMillis, limits);
+        Cache<Key, CommandProgram> programs = cache;
+        CommandProgram program = programs.getIfPresent(key);
+        if (program == null) {
+            program = new Parser(source, gapMillis, limits).parse();
+            programs.put(key, program);
+        }
+        return program;
+    }
+
+    /**
+     * Key name for a single character alias, null if the character is not an alias.
+     */
+    public static String alias(char c) {
+        return c < ALIASES.length ? ALIASES[c] : null;
+    }
+
+    private record Key(String source, int gapMillis, Limits limits) {
+    }
+
+    private static final class Parser {
+        private final String src;
+        private final int gap;
+        private final Limits limits;
+        private final CommandProgram.Builder builder = CommandProgram.builder();
+        private int pos;
+        // True when the last step was a key, so the next key needs the default gap in front of it.
+        private boolean pendingGap;
+
+        Parser(String src, int gap, Limits limits) {
+            this.src = src;
+            this.gap = gap;
+            this.limits = limits;
+        }
+
+        CommandProgram parse() {
+            if (src.length() > MAX_LENGTH) {
+                throw error("Sequence longer than " + MAX_LENGTH + " characters", MAX_LENGTH);
+            }
+            while (true) {
+                while (pos < src.length() && isSeparator(src.charAt(pos))) {
+                    pos++;
+                }
+                if (pos == src.length()) {
+                    break;
+                }
+                parseToken();
+            }
+            if (builder.size() == 0) {
+                throw error("Empty sequence", 0);
+            }
+            return builder.build();
+        }
+
+        private void parseToken() {
+            int start = pos;
+            char c = src.charAt(pos);
+            String key;
+            if (c == '~' && pos + 1 < src.length() && isDigit(src.charAt(pos + 1))) {
+                pos++;
+                int delay = number(limits.maxDelayMs(), "Delay");
+                expectEnd();
+                builder.delay(delay);
+                pendingGap = false;
+                return;
+            } else if (isDigit(c)) {
+                while (pos < src.length() && isDigit(src.charAt(pos))) {
+                    pos++;
+                }
+                if (pos - start > 1) {
+                    for (int i = start; i < pos; i++) {
+                        step(CommandProgram.PRESS, ALIASES[src.charAt(i)], 0);
+                    }
+                    expectEnd();
+                    return;
+                }
+                key = ALIASES[c];
+            } else if (isNameStart(c)) {
+                while (pos < src.length() && isNamePart(src.charAt(pos))) {
+                    pos++;
+                }
+                if (pos - start > 1) {
+                    key = src.substring(start, pos);
+                } else if ((key = alias(c)) == null) {
+                    throw error("Unknown key alias '" + c + "'", start);
+                }
+            } else if ((key = alias(c)) != null) {
+                pos++;
+            } else {
+                throw error("Unexpected character '" + c + "'", start);
+            }
+            parseModifier(key);
+            expectEnd();
+        }
+
+        private void parseModifier(String key) {
+            if (pos < src.length() && src.charAt(pos) == '*') {
+                pos++;
+                int start = pos;
+                int count = number(limits.maxRepeatCount(), "Repeat count");
+                if (count < 1) {
+                    throw error("Repeat count must be at least 1", start);
+                }
+                for (int i = 0; i < count; i++) {
+                    step(CommandProgram.PRESS, key, 0);
+                }
+            } else if (src.startsWith(":hold", pos)) {
+                pos += 5;
+                int start = pos;
+                int value = number(Integer.MAX_VALUE, "Hold");
+                if (pos < src.length() && src.charAt(pos) == 's') {
+                    pos++;
+                    if (value > limits.maxHoldSeconds()) {
+                        throw error("Hold duration must be at most " + limits.maxHoldSeconds() + "s", start);
+                    }
+                    step(CommandProgram.HOLD_DURATION, key, value);
+                } else {
+                    if (value > limits.maxRepeatCount()) {
+                        throw error("Hold must be at most " + limits.maxRepeatCount(), start);
+                    }
+                    step(CommandProgram.HOLD_REPEAT, key, value);
+                }
+            } else if (pos < src.length() && src.charAt(pos) == ':') {
+                throw error("Unknown modifier, expected ':holdN' or ':holdNs'", pos);
+            } else {
+                step(CommandProgram.PRESS, key, 0);
+            }
+        }
+
+        private void step(int opcode, String key, int argument) {
+            if (pendingGap && gap > 0) {
+                builder.delay(gap);
+            }
+            builder.add(opcode, key, argument);
+            pendingGap = true;
+        }
+
+        private int number(int max, String what) {
+            int start = pos;
+            while (pos < src.length() && isDigit(src.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("Expected a number", start);
+            }
+            if (pos - start > 9 || Integer.parseInt(src, start, pos, 10) > max) {
+                throw error(what + " must be at most " + max, start);
+            }
+            return Integer.parseInt(src, start, pos, 10);
+        }
+
+        private void expectEnd() {
+            if (pos < src.length() && !isSeparator(src.charAt(pos))) {
+                throw error("Unexpected character '" + src.charAt(pos) + "'", pos);
+            }
+        }
+
+        private ShorthandSyntaxException error(String reason, int position) {
+            return new ShorthandSyntaxException(reason, src, position);
+        }
+
+        private static boolean isSeparator(char c) {
+            return c == ',' || Character.isWhitespace(c);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isNameStart(char c) {
+            return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '_';
+        }
+
+        private static boolean isNamePart(char c) {
+            return isNameStart(c) || isDigit(c) || c == '+' || c == '-';
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.cats.ir.context;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.exception.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Immutable point in time by which a request must complete, measured on the monotonic clock.
+ * Every blocking step (pool borrow, socket read, HTTP call, delay) derives its own timeout
+ * from the time remaining, and work found to be expired is dropped before it reaches hardware.
+ */
+public final class Deadline {
+
+    // A deadline that never expires, used when no request context is attached.
+    public static final Deadline NONE = new Deadline(0, true);
+
+    private final long expiresAtNanos;
+    private final boolean unbounded;
+
+    private Deadline(long expiresAtNanos, boolean unbounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.unbounded = unbounded;
+    }
+
+    /**
+     * Creates a deadline the given number of milliseconds from now.
+     */
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), false);
+    }
+
+    public boolean isUnbounded() {
+        return unbounded;
+    }
+
+    public boolean isExpired() {
+        return !unbounded && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return nanoseconds left, 0 when expired and Long.MAX_VALUE when unbounded.
+     */
+    public long remainingNanos() {
+        if (unbounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, expiresAtNanos - System.nanoTime());
+    }
+
+    /**
+     * @return milliseconds left, 0 when expired and Long.MAX_VALUE when unbounded.
+     */
+    public long remainingMillis() {
+        return unbounded ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    /**
+     * Derives a per-step timeout from the time remaining.
+     *
+     * @param stepTimeoutMillis the timeout the step would use on its own.
+     * @return the smaller of the step timeout and the time remaining, never less than 1ms.
+     * @throws DeadlineExceededException if the deadline has already passed.
+     */
+    public int timeoutMillis(int stepTimeoutMillis) {
+        if (unbounded) {
+            return stepTimeoutMillis;
+        }
+        long remaining = remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+        return (int) Math.max(1, Math.min(stepTimeoutMillis, remaining));
+    }
+
+    /**
+     * Throws if the deadline has passed, so that expired work is not sent to hardware.
+     *
+     * @param step description of the step about to run, used in the exception message.
+     */
+    public void check(String step) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + step);
+        }
+    }
+
+    /**
+     * Sleeps for the given delay, cut short if the deadline passes first.
+     * The next {@link #check(String)} drops the remaining work in that case.
+     *
+     * @throws DeadlineExceededException if the thread is interrupted while sleeping, with its interrupt
+     *                                   flag left set, so that a cancelled request sends nothing more.
+     */
+    public void pause(long millis) {
+        if (millis > 0) {
+            pauseNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    /**
+     * Nanosecond variant of {@link #pause(long)}, used when waiting for a scheduled target time.
+     */
+    public void pauseNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long pauseNanos = Math.min(nanos, remainingNanos());
+        long until = System.nanoTime() + pauseNanos;
+        long left;
+        while ((left = until - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(left);
+            if (Thread.currentThread().isInterrupted()) {
+                // parkNanos leaves the flag set, callers further up still see the interrupt.
+                throw new DeadlineExceededException("Request interrupted while waiting");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return unbounded ? "Deadline[none]" : "Deadline[" + remainingMillis() + "ms left]";
+    }
+}
@@ -0,0 +1,166 @@
+package com.cats.ir.context;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Per-request state carried from the REST resources down to the hardware I/O.
+ * The context is bound to the handling thread; work handed to another thread must
+ * re-attach it with {@link #attach()}.
+ */
+public final class RequestContext {
+
+    // Client id of work the service does on its own behalf.
+    public static final String SYSTEM_CLIENT = "system";
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    // Context seen by code running outside of a request, such as health checks and start up.
+    private static final RequestContext NONE = new RequestContext(Deadline.NONE, RequestTiming.DISABLED,
+            SchedulingClass.MAINTENANCE);
+
+    private final Deadline deadline;
+    private final RequestTiming timing;
+    // Set once the endpoint is known, see Scheduling.
+    private volatile SchedulingClass schedulingClass;
+    // Client the request is made for, see FairShare.
+    private volatile String clientId = SYSTEM_CLIENT;
+
+    public RequestContext(Deadline deadline) {
+        this(deadline, new RequestTiming());
+    }
+
+    public RequestContext(Deadline deadline, RequestTiming timing) {
+        this(deadline, timing, SchedulingClass.INTERACTIVE);
+    }
+
+    private RequestContext(Deadline deadline, RequestTiming timing, SchedulingClass schedulingClass) {
+        this.deadline = deadline;
+        this.timing = timing;
+        this.schedulingClass = schedulingClass;
+    }
+
+    /**
+     * @return the context bound to the current thread, never null.
+     */
+    public static RequestContext current() {
+        RequestContext context = CURRENT.get();
+        return context != null ? context : NONE;
+    }
+
+    /**
+     * Binds this context to the current thread until the returned scope is closed.
+     */
+    public Scope attach() {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public RequestTiming getTiming() {
+        return timing;
+    }
+
+    public SchedulingClass getSchedulingClass() {
+        return schedulingClass;
+    }
+
+    /**
+     * Sets the scheduling class of this request. Ignored for the context outside of requests.
+     */
+    public void setSchedulingClass(SchedulingClass schedulingClass) {
+        if (this != NONE && schedulingClass != null) {
+            this.schedulingClass = schedulingClass;
+        }
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Sets the client the request is made for. Ignored for the context outside of requests.
+     */
+    public void setClientId(String clientId) {
+        if (this != NONE && clientId != null) {
+            this.clientId = clientId;
+        }
+    }
+
+    /**
+     * Waits for a command delay, bounded by the deadline and recorded as a delay stage.
+     */
+    public void pause(long millis) {
+        pause(RequestTiming.DELAY, millis);
+    }
+
+    /**
+     * Waits for the given time, bounded by the deadline and recorded under the given stage.
+     */
+    public void pause(String stage, long millis) {
+        if (millis > 0) {
+            long start = System.nanoTime();
+            deadline.pause(millis);
+            timing.record(stage, start);
+        }
+    }
+
+    /**
+     * Waits until the given {@link System#nanoTime()} target, bounded by the deadline and recorded
+     * as a delay stage. Returns at once if the target has already passed.
+     */
+    public void pauseUntil(long targetNanos) {
+        pauseUntil(RequestTiming.DELAY, targetNanos);
+    }
+
+    /**
+     * Waits until the given {@link System#nanoTime()} target, bounded by the deadline and recorded
+     * under the given stage.
+     */
+    public void pauseUntil(String stage, long targetNanos) {
+        long start = System.nanoTime();
+        if (targetNanos - start > 0) {
+            deadline.pauseNanos(targetNanos - start);
+            timing.record(stage, start);
+        }
+    }
+
+    /**
+     * Restores the previously bound context when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final RequestContext previous;
+
+        private Scope(RequestContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
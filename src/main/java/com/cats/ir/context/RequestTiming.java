@@ -0,0 +1,263 @@
+package com.cats.ir.context;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the timing of every stage of a request (queue wait, pool borrow, each hub or HTTP
+ * round trip and each delay) using {@link System#nanoTime()}, and renders it as a Server-Timing
+ * header plus the HW-Command-* headers once the response is written.
+ * <p>
+ * Recording is a couple of array stores per stage; all formatting is deferred to the header write.
+ */
+public final class RequestTiming {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+    public static final String HW_COMMAND_REQUEST_TIME_HEADER = "HW-Command-Request-Time";
+    public static final String HW_COMMAND_RESPONSE_TIME_HEADER = "HW-Command-Response-Time";
+    public static final String HW_COMMAND_DURATION_HEADER = "HW-Command-Duration-Ms";
+
+    // Stage names used in the Server-Timing header.
+    public static final String ADMISSION = "admission";
+    public static final String QUEUE = "queue";
+    public static final String POOL = "pool";
+    public static final String HUB = "hub";
+    public static final String HTTP = "http";
+    public static final String DELAY = "delay";
+    public static final String GOVERNOR = "governor";
+    public static final String RETRY_WAIT = "retry-wait";
+    public static final String ESTIMATE = "estimate";
+
+    // Upper bound on recorded stages so a long script cannot grow the header without limit.
+    private static final int MAX_STAGES = 256;
+
+    // Timing that records nothing, used outside of a request.
+    static final RequestTiming DISABLED = new RequestTiming(false, null);
+
+    private final boolean enabled;
+    private final StageListener listener;
+    private final long startNanos;
+    private final long startEpochMillis;
+
+    private String[] stages = new String[8];
+    private long[] durations = new long[8];
+    private int count;
+    private int dropped;
+
+    // Window covering all hardware round trips of the request.
+    private long firstHardwareNanos = -1;
+    private long lastHardwareNanos;
+    private long hardwareNanos;
+
+    // Hardware timing reported by a downstream service (GC Dispatcher) rather than measured here.
+    private String reportedRequestTime;
+    private String reportedResponseTime;
+    private String reportedDuration;
+
+    public RequestTiming() {
+        this(true, null);
+    }
+
+    /**
+     * Timing that also reports every recorded stage to a listener, for callers following progress live.
+     */
+    public RequestTiming(StageListener listener) {
+        this(true, listener);
+    }
+
+    private RequestTiming(boolean enabled, StageListener listener) {
+        this.enabled = enabled;
+        this.listener = listener;
+        this.startNanos = System.nanoTime();
+        this.startEpochMillis = System.currentTimeMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a stage that started at the given {@link System#nanoTime()} and ends now.
+     *
+     * @return the measured duration in nanoseconds.
+     */
+    public long record(String stage, long stageStartNanos) {
+        long end = System.nanoTime();
+        long duration = end - stageStartNanos;
+        if (enabled) {
+            add(stage, stageStartNanos, end, duration);
+            if (listener != null) {
+                listener.onStage(stage, duration);
+            }
+        }
+        return duration;
+    }
+
+    /**
+     * Records the estimated duration of a program about to run, reported next to the measured stages.
+     */
+    public void recordEstimate(long millis) {
+        if (enabled) {
+            add(ESTIMATE, 0, 0, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    private synchronized void add(String stage, long start, long end, long duration) {
+        if (HUB.equals(stage) || HTTP.equals(stage)) {
+            if (firstHardwareNanos < 0) {
+                firstHardwareNanos = start;
+            }
+            lastHardwareNanos = end;
+            hardwareNanos += duration;
+        }
+        if (count == MAX_STAGES) {
+            dropped++;
+            return;
+        }
+        if (count == stages.length) {
+            stages = Arrays.copyOf(stages, count * 2);
+            durations = Arrays.copyOf(durations, count * 2);
+        }
+        stages[count] = stage;
+        durations[count] = duration;
+        count++;
+    }
+
+    /**
+     * Keeps the hardware timing headers reported by a downstream service.
+     */
+    public synchronized void reportHardwareTiming(String requestTime, String responseTime, String durationMs) {
+        if (enabled) {
+            this.reportedRequestTime = requestTime;
+            this.reportedResponseTime = responseTime;
+            this.reportedDuration = durationMs;
+        }
+    }
+
+    /**
+     * @return the Server-Timing header value listing every recorded stage and the total so far.
+     */
+    public synchronized String serverTimingHeader() {
+        StringBuilder header = new StringBuilder(32 + count * 20);
+        for (int i = 0; i < count; i++) {
+            appendMetric(header, stages[i], durations[i]);
+            header.append(", ");
+        }
+        if (dropped > 0) {
+            header.append("dropped;desc=\"").append(dropped).append(" stages\", ");
+        }
+        appendMetric(header, "total", System.nanoTime() - startNanos);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+
+    /**
+     * @return every recorded stage in order, without the estimate.
+     */
+    public synchronized List<Stage> getStages() {
+        List<Stage> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (!ESTIMATE.equals(stages[i])) {
+                result.add(new Stage(stages[i], durations[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the estimated program duration in milliseconds, or null if none was recorded.
+     */
+    public synchronized Long getEstimateMillis() {
+        for (int i = count - 1; i >= 0; i--) {
+            if (ESTIMATE.equals(stages[i])) {
+                return TimeUnit.NANOSECONDS.toMillis(durations[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return stages not kept because the request recorded more than the limit.
+     */
+    public synchronized int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return nanoseconds since the request started.
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return true if any hardware timing has been measured or reported.
+     */
+    public synchronized boolean hasHardwareTiming() {
+        return firstHardwareNanos >= 0 || reportedDuration != null;
+    }
+
+    public synchronized String hardwareRequestTime() {
+        if (reportedRequestTime != null) {
+            return reportedRequestTime;
+        }
+        return firstHardwareNanos < 0 ? null : toInstant(firstHardwareNanos).toString();
+    }
+
+    public synchronized String hardwareResponseTime() {
+        if (reportedResponseTime != null) {
+            return reportedResponseTime;
+        }
+        return firstHardwareNanos < 0 ? null : toInstant(lastHardwareNanos).toString();
+    }
+
+    public synchronized String hardwareDurationMillis() {
+        if (reportedDuration != null) {
+            return reportedDuration;
+        }
+        return firstHardwareNanos < 0 ? null : String.valueOf(hardwareNanos / 1_000_000);
+    }
+
+    private Instant toInstant(long nanos) {
+        return Instant.ofEpochMilli(startEpochMillis + (nanos - startNanos) / 1_000_000);
+    }
+
+    /**
+     * A recorded stage.
+     */
+    public record Stage(String name, long durationNanos) {
+    }
+
+    /**
+     * Receives each stage as it is recorded, on the recording thread.
+     */
+    @FunctionalInterface
+    public interface StageListener {
+        void onStage(String stage, long durationNanos);
+    }
+}
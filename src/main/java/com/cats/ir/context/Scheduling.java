@@ -1,4 +1,4 @@
-package com.cats.service;
+package com.cats.ir.context;
 
 /*
  * Copyright 2021 Comcast Cable Communications Management, LLC
@@ -18,12 +18,19 @@ package com.cats.service;
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-@Target(ElementType.METHOD)
+/**
+ * Default {@link SchedulingClass} of an endpoint, or of every endpoint of a resource when placed on the class.
+ * A X-Scheduling-Class header sent by the client takes precedence.
+ */
+@Documented
 @Retention(RetentionPolicy.RUNTIME)
-public @interface MeasureTime {
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Scheduling {
+    SchedulingClass value();
 }
@@ -0,0 +1,54 @@
+package com.cats.ir.context;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Scheduling class of a request. Waiters for a port, a device or a hub connection are served in
+ * class order, interactive first, with aging so lower classes are not starved, see
+ * {@link com.cats.ir.admission.PrioritySemaphore}.
+ * <p>
+ * The class is taken from the X-Scheduling-Class header, otherwise from the {@link Scheduling}
+ * annotation of the endpoint, otherwise it is {@link #INTERACTIVE}.
+ */
+public enum SchedulingClass {
+    // Single key presses and other short requests a user is waiting on.
+    INTERACTIVE,
+    // Long holds, scripts, macros and batches.
+    BATCH,
+    // Health checks and other background work.
+    MAINTENANCE;
+
+    public static final String HEADER = "X-Scheduling-Class";
+
+    /**
+     * Parses a class name, case insensitive.
+     *
+     * @return the class, or null if the value is blank or unknown.
+     */
+    public static SchedulingClass parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
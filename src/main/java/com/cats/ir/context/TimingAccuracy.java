@@ -0,0 +1,149 @@
+package com.cats.ir.context;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accuracy of scheduled key steps: for every step sent at a planned offset from its sequence anchor,
+ * the difference between the requested and the actual offset. Kept per port and overall, with a
+ * millisecond histogram of the absolute error for percentiles.
+ */
+public final class TimingAccuracy {
+
+    public static final String ALL = "all";
+
+    // Histogram covers 0..MAX_BUCKET ms of absolute error, larger errors land in the last bucket.
+    private static final int MAX_BUCKET = 1000;
+
+    private static final Map<String, TimingAccuracy> PORTS = new ConcurrentHashMap<>();
+    private static final TimingAccuracy OVERALL = new TimingAccuracy();
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errorMicros = new LongAdder();
+    private final LongAdder absErrorMicros = new LongAdder();
+    private final LongAccumulator maxLateMicros = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxEarlyMicros = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(MAX_BUCKET + 1);
+
+    private TimingAccuracy() {
+    }
+
+    /**
+     * Records one scheduled step.
+     *
+     * @param port           port the step was sent on.
+     * @param requestedNanos planned offset from the anchor.
+     * @param actualNanos    measured offset from the anchor.
+     */
+    public static void record(String port, long requestedNanos, long actualNanos) {
+        long error = TimeUnit.NANOSECONDS.toMicros(actualNanos - requestedNanos);
+        OVERALL.add(error);
+        PORTS.computeIfAbsent(port, p -> new TimingAccuracy()).add(error);
+    }
+
+    private void add(long errorMicros) {
+        count.increment();
+        this.errorMicros.add(errorMicros);
+        long abs = Math.abs(errorMicros);
+        absErrorMicros.add(abs);
+        if (errorMicros >= 0) {
+            maxLateMicros.accumulate(errorMicros);
+        } else {
+            maxEarlyMicros.accumulate(-errorMicros);
+        }
+        histogram.incrementAndGet((int) Math.min(MAX_BUCKET, abs / 1000));
+    }
+
+    /**
+     * @return stats for every port plus the overall stats under {@link #ALL}.
+     */
+    public static Map<String, Stats> snapshot() {
+        Map<String, Stats> stats = new TreeMap<>();
+        PORTS.forEach((port, accuracy) -> stats.put(port, accuracy.stats()));
+        stats.put(ALL, OVERALL.stats());
+        return stats;
+    }
+
+    /**
+     * Clears all recorded stats, for example before a tuning run.
+     */
+    public static void reset() {
+        PORTS.clear();
+        OVERALL.clear();
+    }
+
+    private void clear() {
+        count.reset();
+        errorMicros.reset();
+        absErrorMicros.reset();
+        maxLateMicros.reset();
+        maxEarlyMicros.reset();
+        for (int i = 0; i <= MAX_BUCKET; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    private Stats stats() {
+        long n = count.sum();
+        if (n == 0) {
+            return new Stats(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] buckets = new long[MAX_BUCKET + 1];
+        long total = 0;
+        for (int i = 0; i <= MAX_BUCKET; i++) {
+            buckets[i] = histogram.get(i);
+            total += buckets[i];
+        }
+        return new Stats(n,
+                errorMicros.sum() / (double) n / 1000,
+                absErrorMicros.sum() / (double) n / 1000,
+                percentile(buckets, total, 0.50),
+                percentile(buckets, total, 0.95),
+                percentile(buckets, total, 0.99),
+                maxLateMicros.get() / 1000.0,
+                maxEarlyMicros.get() / 1000.0);
+    }
+
+    // Upper bound in ms of the bucket holding the given fraction of samples.
+    private static long percentile(long[] buckets, long total, double fraction) {
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return i + 1;
+            }
+        }
+        return MAX_BUCKET;
+    }
+
+    /**
+     * Accuracy summary. Errors are in milliseconds, positive when the step was late.
+     */
+    public record Stats(long steps, double meanErrorMs, double meanAbsErrorMs, long p50AbsErrorMs,
+                        long p95AbsErrorMs, long p99AbsErrorMs, double maxLateMs, double maxEarlyMs) {
+    }
+}
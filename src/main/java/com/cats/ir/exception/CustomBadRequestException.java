@@ -24,6 +24,8 @@ import jakarta.ws.rs.core.Response;
 
 public class CustomBadRequestException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Create a HTTP 400 (Bad Request) exception
      */
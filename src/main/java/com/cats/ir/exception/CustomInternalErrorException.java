@@ -23,6 +23,8 @@ import jakarta.ws.rs.core.Response;
 
 public class CustomInternalErrorException extends WebApplicationException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Create a HTTP 500 (Internal Server Error) exception
      */
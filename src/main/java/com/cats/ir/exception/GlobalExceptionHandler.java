@@ -21,7 +21,9 @@ package com.cats.ir.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -52,6 +54,23 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ResponseStatus(code = HttpStatus.GATEWAY_TIMEOUT)
+    @ExceptionHandler(value = DeadlineExceededException.class)
+    public String handleDeadlineExceededException(DeadlineExceededException e) {
+        logger.warn("Exception Caught : " + e.getMessage());
+        return e.getMessage();
+    }
+
+
+    @ExceptionHandler(value = TooManyRequestsException.class)
+    public ResponseEntity<String> handleTooManyRequestsException(TooManyRequestsException e) {
+        logger.warn("Exception Caught : " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+
     @ResponseStatus(code = HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(value = Exception.class)
     public String handleException(Exception e) {
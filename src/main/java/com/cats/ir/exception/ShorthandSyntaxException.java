@@ -0,0 +1,39 @@
+package com.cats.ir.exception;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Thrown when a shorthand key sequence cannot be parsed. Carries the zero based
+ * position of the offending character so callers can point at it.
+ */
+public class ShorthandSyntaxException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int position;
+
+    public ShorthandSyntaxException(String reason, String source, int position) {
+        super(reason + " at position " + position + " in '" + source + "'");
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
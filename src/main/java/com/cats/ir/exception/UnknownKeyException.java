@@ -0,0 +1,41 @@
+package com.cats.ir.exception;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+
+/**
+ * Thrown when a request names a keyset or key the hub does not know.
+ * Mapped to HTTP 400 (Bad Request), the message lists the closest known names.
+ */
+public class UnknownKeyException extends CustomBadRequestException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> suggestions;
+
+    public UnknownKeyException(String message, List<String> suggestions) {
+        super(suggestions.isEmpty() ? message : message + " Did you mean: " + String.join(", ", suggestions) + "?");
+        this.suggestions = suggestions;
+    }
+
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+}
@@ -19,11 +19,7 @@ package com.cats.ir.gc;
  */
 
 import com.cats.ir.IRDevicePort;
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.DelayCommand;
-import com.cats.ir.commands.IrCommand;
-import com.cats.ir.commands.PressKeyCommand;
-import com.cats.ir.exception.IRCommunicatorNotInitializedException;
+import com.cats.ir.commands.CommandProgram;
 import com.cats.ir.exception.IRFailureException;
 import com.cats.configuration.CustomApplicationContext;
 import com.cats.utils.GCDispatcherUtil;
@@ -44,52 +40,22 @@ public abstract class GCDevicePort extends IRDevicePort {
 
     private static final String PRESSKEY_EXPECTED_RESULT = "success";
 
+    // Looked up once on first use instead of on every command.
+    private GCDispatcherUtil httpUtil;
+
     public GCDevicePort(GCDevice gcDevice) {
         this.device = gcDevice;
     }
 
     @Override
-    public Boolean sendCommand(CatsCommand catsCommand) throws IRFailureException, IRCommunicatorNotInitializedException {
-        Boolean retVal = true;
-        String commandString = null;
-        String expectedResult = null;
-
-        logger.debug("sendCommand() CatsCommand " + catsCommand);
-
-
-        if (catsCommand != null) {
-            while (catsCommand.hasNext()) {
-                CatsCommand command = catsCommand.next();
-                if (command instanceof DelayCommand) {
-                    logger.debug("Its a DelayCommand() " + command);
-                    try {
-                        Thread.sleep(((DelayCommand) command).getDelay());
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-
-                } else if (command instanceof IrCommand) {
-                    logger.debug("sendCommand() catsCommand.next() " + command);
-                    commandString = getDeviceUnderstandablePressKeyCommand(command);
-                    expectedResult = getExpectedResult(command);
-                    logger.debug("commandString " + commandString + " expectedResult  " + expectedResult);
-                    if (commandString != null) {
-                        retVal = sendCommand(commandString, expectedResult);
-                    } else {
-                        throw new IRFailureException("IrNetBoxPro does not know how to handle this command :"
-                                + commandString);
-
-                    }
-                } else {
-                    logger.debug("Got an CatsCommand which has no implementation : {} ", command);
-                }
-
-            }
-        } else {
-            throw new IRFailureException("Command is null");
+    protected Boolean emit(int opcode, String keySet, String key, int argument) throws IRFailureException {
+        String commandString = getDeviceUnderstandableCommand(opcode, keySet, key, argument);
+        logger.debug("commandString " + commandString);
+        if (commandString == null) {
+            throw new IRFailureException(getClass().getSimpleName() + " does not know how to handle "
+                    + CommandProgram.opcodeName(opcode) + " " + key);
         }
-
-        return retVal;
+        return sendCommand(commandString, PRESSKEY_EXPECTED_RESULT);
     }
 
     @Override
@@ -108,30 +74,24 @@ public abstract class GCDevicePort extends IRDevicePort {
         return isEqual;
     }
 
-    private String getExpectedResult(CatsCommand command) {
-        String expectedResult = null;
-
-        if (command instanceof PressKeyCommand) {
-            expectedResult = PRESSKEY_EXPECTED_RESULT;
-        }
-
-        return expectedResult;
-    }
-
-
     /**
-     * Gets the device understandable press key command.
+     * Gets the device understandable command for a single program step.
      *
-     * @param command the command
-     * @return the device understandable press key command
+     * @param opcode   the {@link CommandProgram} opcode
+     * @param keySet   the keyset
+     * @param key      the key
+     * @param argument repeat count or duration in seconds for holds
+     * @return the device understandable command
      */
-    protected abstract String getDeviceUnderstandablePressKeyCommand(CatsCommand command);
+    protected abstract String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument);
 
     private Boolean sendCommand(String commandString, String expectedResult) throws IRFailureException {
         boolean retVal;
         String gcdispatcherApiBase = ((GCDevice) device).getGetGcDispatcherApiBase();
         String urlEndpoint = String.format(gcdispatcherApiBase + "/press_key");
-        GCDispatcherUtil httpUtil = CustomApplicationContext.getBean(GCDispatcherUtil.class);
+        if (httpUtil == null) {
+            httpUtil = CustomApplicationContext.getBean(GCDispatcherUtil.class);
+        }
         return httpUtil.sendCommand(commandString,expectedResult, urlEndpoint);
     }
 }
\ No newline at end of file
@@ -19,51 +19,153 @@ package com.cats.ir.gc;
  */
 
 import com.cats.ir.gchealth.GCDispatcherHealthBean;
-import com.cats.configuration.IRConfiguration;
+import com.cats.service.DependencyHealthCheck;
+import com.cats.service.TopologyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The Class GCDispatcherService.
  * It represents a service to communicate with the GC Dispatcher
- * to retrieve its health status
+ * to retrieve its health status.
+ * <p>
+ * The last health response is cached and refreshed in the background, so callers
+ * are served instantly. Stale data is returned while a refresh is in flight.
  */
 @Slf4j
 @Service
 public class GCDispatcherService {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    TopologyService topologyService;
+
     @Autowired
-    IRConfiguration irConfiguration;
+    DependencyHealthCheck dependencyHealthCheck;
+
+    // Connect and read timeout for the health call, so a hung dispatcher cannot hold a thread.
+    @Value("${gcdispatcher.health.timeoutMs:5000}")
+    int timeoutMs;
+
+    // Age after which the cached health is considered stale and a refresh is triggered.
+    @Value("${gcdispatcher.health.maxAgeMs:60000}")
+    long maxAgeMs;
+
+    private volatile CachedHealth cached;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
 
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("gc-health-refresh-%d").setDaemon(true).build());
+
+    /**
+     * Returns the cached GC Dispatcher health. If the cached value is stale a background refresh is
+     * triggered and the stale value is returned. Only the very first call blocks on the dispatcher.
+     */
     public GCDispatcherHealthBean getHealth() {
+        CachedHealth current = cached;
+        if (current == null) {
+            return refresh();
+        }
+        if (System.currentTimeMillis() - current.fetchedAt > maxAgeMs) {
+            refreshAsync();
+        }
+        return current.health;
+    }
+
+    /**
+     * Periodic refresh so the cache stays warm between health requests.
+     */
+    @Scheduled(fixedDelayString = "${gcdispatcher.health.refreshIntervalMs:30000}")
+    public void scheduledRefresh() {
+        if (dependencyHealthCheck.checkGCDispatcherHealth()) {
+            refreshAsync();
+        }
+    }
+
+    /**
+     * Fetches the health from the GC Dispatcher and updates the cache.
+     */
+    public GCDispatcherHealthBean refresh() {
+        GCDispatcherHealthBean health = fetchHealth();
+        cached = new CachedHealth(health, System.currentTimeMillis());
+        return health;
+    }
+
+    private void refreshAsync() {
+        if (refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    private GCDispatcherHealthBean fetchHealth() {
         GCDispatcherHealthBean gcDispatcherHealth = new GCDispatcherHealthBean();
+        HttpURLConnection connection = null;
 
         try {
-            URL url = new URL(irConfiguration.gcDispatcherApiBase + "/health");
-            log.info("Attempting to get health: {}", url);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            URL url = new URL(topologyService.current().getGcDispatcherApiBase() + "/health");
+            log.debug("Attempting to get health: {}", url);
+            connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
             connection.connect();
 
-            String response = IOUtils.toString(connection.getInputStream(), StandardCharsets.UTF_8);
+            String response;
+            try (InputStream in = connection.getInputStream()) {
+                response = IOUtils.toString(in, StandardCharsets.UTF_8);
+            }
 
             if (StringUtils.isNotBlank(response)) {
-                gcDispatcherHealth = new ObjectMapper().readValue(response, GCDispatcherHealthBean.class);
+                gcDispatcherHealth = MAPPER.readValue(response, GCDispatcherHealthBean.class);
             }
         } catch (IOException e) {
-            e.printStackTrace();
             log.error("Error while getting health of GC Dispatcher: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
         }
 
         return gcDispatcherHealth;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static final class CachedHealth {
+        final GCDispatcherHealthBean health;
+        final long fetchedAt;
+
+        CachedHealth(GCDispatcherHealthBean health, long fetchedAt) {
+            this.health = health;
+            this.fetchedAt = fetchedAt;
+        }
+    }
 }
@@ -18,9 +18,7 @@ package com.cats.ir.gc.gc100;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.PressKeyAndHoldCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import com.cats.ir.commands.CommandProgram;
 import com.cats.ir.gc.GCCommands;
 import com.cats.ir.redrat.RedRatCommands;
 import com.cats.ir.IRCommunicator;
@@ -45,29 +43,22 @@ public class GC100Port extends GCDevicePort {
     }
 
 
-    protected String getDeviceUnderstandablePressKeyCommand(CatsCommand command) {
-        String commandString = null;
+    @Override
+    protected String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument) {
+        String commandString = GCCommands.SEND_COMMAND.replace(GCCommands.MODULE_ARGUMENT, device.getDeviceModule());
 
-        if (command instanceof PressKeyCommand) {
-            PressKeyCommand pressKeyCommand = (PressKeyCommand) command;
-            commandString = GCCommands.SEND_COMMAND.replace(GCCommands.MODULE_ARGUMENT, device.getDeviceModule());
-
-            String key = pressKeyCommand.getRemoteCommand().toString();
-            if (command instanceof PressKeyAndHoldCommand) {
-                if (((PressKeyAndHoldCommand) command).getMode() == PressKeyAndHoldCommand.REPEAT_MODE) {
-                    logger.debug("PressKeyAndHoldCommand.REPEAT_MODE ");
-                    commandString = commandString.concat(RedRatCommands.IRNETBOX_REPEAT_COMMAND_APPEND).replace(RedRatCommands.REPEAT_ARGUMENT,
-                            ((PressKeyAndHoldCommand) command).getCount().toString());
-                } else if (((PressKeyAndHoldCommand) command).getMode() == PressKeyAndHoldCommand.DURATION_MODE) {
-                    logger.debug("PressKeyAndHoldCommand.DURATION_MODE");
-                    commandString = commandString.concat(RedRatCommands.IRNETBOX_DURATION_COMMAND_APPEND).replace(
-                            RedRatCommands.DURATION_ARGUMENT, "" + (((PressKeyAndHoldCommand) command).getDuration() * 1000));
-                    logger.info("PressKeyAndHoldCommand.DURATION_MODE commandString " + commandString);
-                }
-            }
-            commandString = commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
-            logger.debug("Sending command[{}]  to device[{}]", commandString, device);
+        if (opcode == CommandProgram.HOLD_REPEAT) {
+            logger.debug("PressKeyAndHoldCommand.REPEAT_MODE ");
+            commandString = commandString.concat(RedRatCommands.IRNETBOX_REPEAT_COMMAND_APPEND).replace(RedRatCommands.REPEAT_ARGUMENT,
+                    String.valueOf(argument));
+        } else if (opcode == CommandProgram.HOLD_DURATION) {
+            logger.debug("PressKeyAndHoldCommand.DURATION_MODE");
+            commandString = commandString.concat(RedRatCommands.IRNETBOX_DURATION_COMMAND_APPEND).replace(
+                    RedRatCommands.DURATION_ARGUMENT, "" + (argument * 1000));
+            logger.info("PressKeyAndHoldCommand.DURATION_MODE commandString " + commandString);
         }
+        commandString = commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
+        logger.debug("Sending command[{}]  to device[{}]", commandString, device);
         return commandString;
     }
 }
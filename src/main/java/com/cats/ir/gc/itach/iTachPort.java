@@ -18,9 +18,7 @@ package com.cats.ir.gc.itach;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.PressKeyAndHoldCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import com.cats.ir.commands.CommandProgram;
 import com.cats.ir.gc.GCCommands;
 import com.cats.ir.gc.GCDevicePort;
 import org.slf4j.Logger;
@@ -42,34 +40,28 @@ public class iTachPort extends GCDevicePort {
     }
 
     /**
-     * Gets the device understandable press key command.
+     * Gets the device understandable command for a single program step.
      *
-     * @param command the command
-     * @return the device understandable press key command
+     * @param opcode the command program opcode
+     * @param keySet the keyset
+     * @param key the key
+     * @param argument repeat count or duration in seconds
+     * @return the device understandable command
      */
     @Override
-    protected String getDeviceUnderstandablePressKeyCommand(CatsCommand command) {
-        String commandStr = null;
+    protected String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument) {
+        String commandStr = GCCommands.PRESS_KEY_COMMAND
+                .replace( GCCommands.ID_ARGUMENT, device.getDeviceIp() )
+                .replace( GCCommands.PORT_ARGUMENT, String.valueOf(portNumber) )
+                .replace( GCCommands.KEYSET_ARGUMENT, keySet.toUpperCase() )
+                .replace( GCCommands.KEY_ARGUMENT, key.replace(" ","_").toUpperCase() );
 
-        if(command instanceof PressKeyCommand){
-            PressKeyCommand pressKeyCommand = (PressKeyCommand) command;
-            String key = pressKeyCommand.getRemoteCommand().replace(" ","_").toUpperCase();
-
-            commandStr = GCCommands.PRESS_KEY_COMMAND
-                    .replace( GCCommands.ID_ARGUMENT, device.getDeviceIp() )
-                    .replace( GCCommands.PORT_ARGUMENT, String.valueOf(portNumber) )
-                    .replace( GCCommands.KEYSET_ARGUMENT, pressKeyCommand.getIrKeySet().toUpperCase() )
-                    .replace( GCCommands.KEY_ARGUMENT, key );
-
-            if(command instanceof PressKeyAndHoldCommand){
-                if (((PressKeyAndHoldCommand) command).getMode().equals(PressKeyAndHoldCommand.REPEAT_MODE)) {
-                    commandStr = handleRepeats(( ( PressKeyAndHoldCommand ) command ).getCount(), commandStr);
-                }
-                else if (((PressKeyAndHoldCommand) command).getMode().equals(PressKeyAndHoldCommand.DURATION_MODE))
-                {
-                    commandStr = handleDuration(( ( PressKeyAndHoldCommand ) command ).getDuration(), commandStr);
-                }
-            }
+        if (opcode == CommandProgram.HOLD_REPEAT) {
+            commandStr = handleRepeats(argument, commandStr);
+        }
+        else if (opcode == CommandProgram.HOLD_DURATION)
+        {
+            commandStr = handleDuration(argument, commandStr);
         }
         return commandStr;
     }
@@ -106,4 +98,12 @@ public class iTachPort extends GCDevicePort {
 
         return commandString;
     }
+
+    /**
+     * Identical presses can be sent as one command with a repeat count.
+     */
+    @Override
+    protected boolean supportsRepeatFolding() {
+        return true;
+    }
 }
@@ -0,0 +1,149 @@
+package com.cats.ir.hubhealth;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What changed between two health snapshots. {@code version} is the snapshot the diff leads to and
+ * {@code fromVersion} the one it starts from, so applying diffs in version order rebuilds the latest health.
+ */
+public record HealthDiff(long fromVersion, long version, Instant takenAt, List<Change> changes) {
+
+    public static final String HUB = "RedRatHub";
+    public static final String GC_DISPATCHER = "GC Dispatcher Service";
+
+    public enum Kind {
+        DEVICE_ADDED, DEVICE_REMOVED, STATUS_CHANGED, FIRMWARE_CHANGED, HARDWARE_TYPE_CHANGED,
+        KEYSET_ADDED, KEYSET_REMOVED, HUB_UP_CHANGED, GC_DISPATCHER_CHANGED
+    }
+
+    /**
+     * One change. {@code subject} is the device ip, the keyset name, or {@link #HUB} / {@link #GC_DISPATCHER}.
+     */
+    public record Change(Kind kind, String subject, String before, String after) {
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Compares two snapshots. A null previous snapshot yields an empty diff.
+     */
+    public static HealthDiff between(HealthSnapshots.HealthSnapshot previous, HealthSnapshots.HealthSnapshot next) {
+        if (previous == null) {
+            return new HealthDiff(0, next.version(), next.takenAt(), List.of());
+        }
+        List<Change> changes = new ArrayList<>();
+        compareHub(previous.hub(), next.hub(), changes);
+        compareGcDispatcher(previous.gcDispatcher(), next.gcDispatcher(), changes);
+        return new HealthDiff(previous.version(), next.version(), next.takenAt(), Collections.unmodifiableList(changes));
+    }
+
+    private static void compareHub(HubHealthBean before, HubHealthBean after, List<Change> changes) {
+        String hubUpBefore = before == null ? null : String.valueOf(before.getHubUp());
+        String hubUpAfter = after == null ? null : String.valueOf(after.getHubUp());
+        if (!Objects.equals(hubUpBefore, hubUpAfter)) {
+            changes.add(new Change(Kind.HUB_UP_CHANGED, HUB, hubUpBefore, hubUpAfter));
+        }
+
+        Map<String, RedRatDeviceBean> devicesBefore = devicesByIp(before);
+        Map<String, RedRatDeviceBean> devicesAfter = devicesByIp(after);
+        for (RedRatDeviceBean device : devicesBefore.values()) {
+            if (!devicesAfter.containsKey(device.getIp())) {
+                changes.add(new Change(Kind.DEVICE_REMOVED, device.getIp(), device.getStatus(), null));
+            }
+        }
+        for (RedRatDeviceBean device : devicesAfter.values()) {
+            RedRatDeviceBean old = devicesBefore.get(device.getIp());
+            if (old == null) {
+                changes.add(new Change(Kind.DEVICE_ADDED, device.getIp(), null, device.getStatus()));
+                continue;
+            }
+            compare(Kind.STATUS_CHANGED, device.getIp(), old.getStatus(), device.getStatus(), changes);
+            // Details are only known for connected devices, a device going away or coming back is reported by its status.
+            if (old.getFirmwareVersion() != null && device.getFirmwareVersion() != null) {
+                compare(Kind.FIRMWARE_CHANGED, device.getIp(), old.getFirmwareVersion(), device.getFirmwareVersion(), changes);
+            }
+            if (old.getHardwareType() != null && device.getHardwareType() != null) {
+                compare(Kind.HARDWARE_TYPE_CHANGED, device.getIp(), old.getHardwareType(), device.getHardwareType(), changes);
+            }
+        }
+
+        Set<String> keysetsBefore = keysets(before);
+        Set<String> keysetsAfter = keysets(after);
+        if (keysetsBefore == null || keysetsAfter == null) {
+            return;
+        }
+        for (String keyset : keysetsBefore) {
+            if (!keysetsAfter.contains(keyset)) {
+                changes.add(new Change(Kind.KEYSET_REMOVED, keyset, keyset, null));
+            }
+        }
+        for (String keyset : keysetsAfter) {
+            if (!keysetsBefore.contains(keyset)) {
+                changes.add(new Change(Kind.KEYSET_ADDED, keyset, null, keyset));
+            }
+        }
+    }
+
+    private static void compareGcDispatcher(GCDispatcherHealthBean before, GCDispatcherHealthBean after,
+            List<Change> changes) {
+        String healthyBefore = before == null ? null : String.valueOf(before.getIsHealthy());
+        String healthyAfter = after == null ? null : String.valueOf(after.getIsHealthy());
+        compare(Kind.GC_DISPATCHER_CHANGED, GC_DISPATCHER, healthyBefore, healthyAfter, changes);
+    }
+
+    private static void compare(Kind kind, String subject, String before, String after, List<Change> changes) {
+        if (!Objects.equals(before, after)) {
+            changes.add(new Change(kind, subject, before, after));
+        }
+    }
+
+    private static Map<String, RedRatDeviceBean> devicesByIp(HubHealthBean bean) {
+        Map<String, RedRatDeviceBean> devices = new LinkedHashMap<>();
+        if (bean != null && bean.getDevices() != null) {
+            bean.getDevices().forEach(device -> devices.put(device.getIp(), device));
+        }
+        return devices;
+    }
+
+    /**
+     * Keysets of a snapshot, null when unknown. A probe that timed out on the keyset query reports none,
+     * which must not read as every keyset removed.
+     */
+    private static Set<String> keysets(HubHealthBean bean) {
+        if (bean == null || bean.getKeysets() == null
+                || (bean.getKeysets().isEmpty() && !Boolean.TRUE.equals(bean.getComplete()))) {
+            return null;
+        }
+        return new LinkedHashSet<>(bean.getKeysets());
+    }
+}
@@ -36,6 +36,8 @@ import java.util.Map;
 @Data
 @Slf4j
 public class HealthReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     String deviceId;
     String entity;
     Boolean isHealthy;
@@ -91,8 +93,7 @@ public class HealthReport {
 
     public String objectToString(Object object) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.writeValueAsString(object);
+            return MAPPER.writeValueAsString(object);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
             return "Could not process object";
@@ -0,0 +1,184 @@
+package com.cats.ir.hubhealth;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+import com.cats.utils.SseOutbox;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Latest health of the hub, its devices and the GC Dispatcher, refreshed in the background by
+ * {@link com.cats.jobs.HealthSnapshotJob}. Reading it never touches hardware.
+ * <p>
+ * Each refresh that changes something is published as a {@link HealthDiff} to the subscribed
+ * server-sent event streams, with the snapshot version as event id. The last diffs are kept so a
+ * client reconnecting with {@code Last-Event-ID} only receives what it missed. Events are queued per
+ * subscriber and sent on a separate executor, see {@link SseOutbox}; a subscriber that falls too far
+ * behind is disconnected and catches up when it reconnects.
+ */
+@Service
+public class HealthSnapshots {
+    private static final Logger logger = LoggerFactory.getLogger(HealthSnapshots.class);
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String DIFF_EVENT = "diff";
+
+    @Autowired
+    HubHealthCheck hubHealthCheck;
+
+    // Diffs kept for reconnecting clients.
+    @Value("${irms.health.eventHistory:64}")
+    int eventHistory;
+
+    // Lifetime of an event stream, clients reconnect with Last-Event-ID after it.
+    @Value("${irms.health.eventTimeoutMs:1800000}")
+    long eventTimeoutMs;
+
+    // Events queued for one subscriber before it is disconnected.
+    @Value("${irms.health.eventBuffer:64}")
+    int eventBuffer;
+
+    private volatile HealthSnapshot current;
+
+    // Latest diffs, oldest first. Guarded by this.
+    private final Deque<HealthDiff> history = new ArrayDeque<>();
+
+    // Every change after this version is in the history. Guarded by this.
+    private long historyFrom = 1;
+
+    private final List<SseOutbox> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService eventSender = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("health-events-%d").setDaemon(true).build());
+
+    @PostConstruct
+    public void init() {
+        // the hub was probed once at start up, serve that until the first job run.
+        publish(hubHealthCheck.getHealthBean(), null);
+    }
+
+    public HealthSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Replaces the snapshot with one built from the given health, with the next version number, and
+     * streams the diff to the previous snapshot if anything changed.
+     */
+    public synchronized HealthSnapshot publish(HubHealthBean hub, GCDispatcherHealthBean gcDispatcher) {
+        HealthSnapshot previous = current;
+        long version = previous == null ? 1 : previous.version() + 1;
+        Instant takenAt = Instant.now();
+        HealthStatusBean status = new HealthStatusBean(hub, gcDispatcher);
+        status.setSnapshotVersion(version);
+        status.setSnapshotTime(takenAt.toString());
+        current = new HealthSnapshot(version, takenAt, hub, gcDispatcher, status);
+
+        HealthDiff diff = HealthDiff.between(previous, current);
+        if (!diff.isEmpty()) {
+            history.addLast(diff);
+            while (history.size() > eventHistory) {
+                historyFrom = history.removeFirst().version();
+            }
+            logger.info("Health snapshot {}: {} changes", version, diff.changes().size());
+            for (SseOutbox subscriber : subscribers) {
+                subscriber.send(event(DIFF_EVENT, version, diff));
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Opens a change stream. A client that already holds the snapshot with version {@code lastEventId}
+     * receives the diffs it missed, if they are still kept, otherwise the current snapshot; then one
+     * {@code diff} event per change.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(eventTimeoutMs);
+        SseOutbox subscriber = new SseOutbox(emitter, eventSender, eventBuffer);
+        Runnable unsubscribe = () -> {
+            subscribers.remove(subscriber);
+            subscriber.close();
+        };
+        subscriber.onClose(unsubscribe);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        // Catch up and join under the publish lock, so no diff is sent twice or missed.
+        synchronized (this) {
+            List<HealthDiff> missed = missedSince(lastEventId);
+            if (missed == null) {
+                subscriber.send(event(SNAPSHOT_EVENT, current.version(), current.status()));
+            } else {
+                missed.forEach(diff -> subscriber.send(event(DIFF_EVENT, diff.version(), diff)));
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Diffs after the given version, null if the client has to start over from a full snapshot.
+     */
+    private List<HealthDiff> missedSince(Long lastEventId) {
+        if (lastEventId == null || lastEventId < historyFrom || lastEventId > current.version()) {
+            return null;
+        }
+        List<HealthDiff> missed = new ArrayList<>();
+        for (HealthDiff diff : history) {
+            if (diff.version() > lastEventId) {
+                missed.add(diff);
+            }
+        }
+        return missed;
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, long version, Object data) {
+        return SseEmitter.event().id(String.valueOf(version)).name(name).data(data);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventSender.shutdownNow();
+    }
+
+    /**
+     * Health as of one refresh. The beans are not changed once published.
+     */
+    public record HealthSnapshot(long version, Instant takenAt, HubHealthBean hub,
+                                 GCDispatcherHealthBean gcDispatcher, HealthStatusBean status) {
+    }
+}
@@ -52,6 +52,12 @@ public class HealthStatusBean {
     // The health status of the dependencies.
     List<HealthReport> dependenciesHealthStatus;
 
+    // Version of the health snapshot, increases with every refresh.
+    Long snapshotVersion;
+
+    // When the snapshot was taken, ISO-8601.
+    String snapshotTime;
+
     public HealthStatusBean(HubHealthBean hubHealthBean, GCDispatcherHealthBean gcDispatcherHealthBean) {
         this.version.put("MS_VERSION", getMicroServiceVersion());
         this.hwDevicesHealthStatus = new ArrayList<>();
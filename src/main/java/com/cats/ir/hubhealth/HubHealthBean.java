@@ -40,6 +40,12 @@ public class HubHealthBean {
     // Indicates whether the RedRatHub is up.
     private Boolean hubUp;
 
+    // False when the probe ran out of time and some details are missing.
+    private Boolean complete;
+
+    // How long the probe took.
+    private Long probeMs;
+
     public String getVersion() {
         return version;
     }
@@ -80,5 +86,21 @@ public class HubHealthBean {
         this.hubUp = hubUp;
     }
 
+    public Boolean getComplete() {
+        return complete;
+    }
+
+    public void setComplete(Boolean complete) {
+        this.complete = complete;
+    }
+
+    public Long getProbeMs() {
+        return probeMs;
+    }
+
+    public void setProbeMs(Long probeMs) {
+        this.probeMs = probeMs;
+    }
+
 
 }
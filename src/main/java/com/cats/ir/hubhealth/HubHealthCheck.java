@@ -20,28 +20,38 @@ package com.cats.ir.hubhealth;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.cats.ir.IRCommunicator;
-import com.cats.ir.IRHardwareEnum;
-import com.cats.ir.Remote;
-import com.cats.ir.RemoteFactory;
 import com.cats.ir.*;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.SchedulingClass;
 import com.cats.ir.manager.LocalIRCommunicatorManager;
 import com.cats.ir.redrathub.HubConnectionPool;
 import com.cats.service.DependencyHealthCheck;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.cats.ir.redrat.RedRatCommands;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Slf4j
 @Service
@@ -51,6 +61,11 @@ public class HubHealthCheck {
 
     HubConnectionPool hcp;
 
+    // Parsers for the hub responses, compiled once.
+    private static final Pattern LINES = Pattern.compile("\\n");
+    private static final Pattern DEVICE_LINE = Pattern.compile("(\\[.+\\]).+(\\(.+\\))\\sat\\s(.+)");
+    private static final Pattern IP_WITH_STATUS = Pattern.compile("(.+)\\s(\\(.+\\))");
+
     static HashMap<String, String> redRatCommands;
     static HashMap<String, String> endChars;
     AtomicLong connectionCloseCount;
@@ -60,7 +75,24 @@ public class HubHealthCheck {
     @Autowired
     DependencyHealthCheck dependencyHealthCheck;
     @Getter
-    HubHealthBean healthBean;
+    volatile HubHealthBean healthBean;
+
+    // Hub queries that may run at the same time during a probe.
+    @Value("${irms.health.probeThreads:2}")
+    int probeThreads;
+
+    // Time allowed for a whole probe before a partial result is kept.
+    @Value("${irms.health.probeTimeoutMs:10000}")
+    long probeTimeoutMs;
+
+    // Every this many probes, details of all connected devices are queried again, not only of changed ones.
+    @Value("${irms.health.fullProbeEvery:10}")
+    int fullProbeEvery;
+
+    private ExecutorService probeExecutor;
+
+    // Probes since the last full one. Guarded by this.
+    private int probesSinceFull;
 
     static {
         redRatCommands = new HashMap<String, String>();
@@ -69,10 +101,12 @@ public class HubHealthCheck {
         redRatCommands.put("keysets", RedRatCommands.LIST_DATASETS);
         redRatCommands.put("firmwareVersion", "hardwareQuery=\"firmware version\" ip=\"");
         redRatCommands.put("hardwareType", "hardwareQuery=\"hardware type\" ip=\"");
+        redRatCommands.put("signals", "hubQuery=\"list signals\" dataset=\"");
 
         endChars = new HashMap<>();
         endChars.put("listRedRats", "}");
         endChars.put("keysets", "}");
+        endChars.put("signals", "}");
         endChars.put("hubVersion", ")");
         //Define a shortcut pattern to only read single line.
         endChars.put("firmwareVersion", "LINE");
@@ -83,49 +117,150 @@ public class HubHealthCheck {
     @PostConstruct
     public void init() {
         if (dependencyHealthCheck.checkHubHealth()) {
-            this.hcp = localIRCommunicatorManager.hubConnectionPool;
+            this.hcp = localIRCommunicatorManager.healthConnectionPool;
         }
         this.connectionCloseCount = new AtomicLong(0);
+        this.probeExecutor = Executors.newFixedThreadPool(probeThreads,
+                new ThreadFactoryBuilder().setNameFormat("hub-health-%d").setDaemon(true).build());
         process();
     }
 
-    public void process() {
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+
+    /**
+     * Probes the hub and its devices and replaces the health bean.
+     * <p>
+     * Hub queries and the per device queries run in parallel on up to {@code irms.health.probeThreads}
+     * connections. The whole probe is bounded by {@code irms.health.probeTimeoutMs}: queries still
+     * running then are cancelled, their details are left empty and the bean is marked incomplete.
+     * <p>
+     * Firmware version and hardware type are only queried for devices that are new or whose status
+     * changed since the last probe; the others keep their details. Every {@code irms.health.fullProbeEvery}
+     * probes all connected devices are queried.
+     */
+    public synchronized void process() {
         if (this.hcp == null) {
             healthBean = null;
             return;
         }
-        healthBean = new HubHealthBean();
+        long start = System.nanoTime();
+        Deadline deadline = Deadline.afterMillis(probeTimeoutMs);
+        HubHealthBean bean = new HubHealthBean();
+        boolean complete = true;
+        Map<String, RedRatDeviceBean> known = reusableDevices();
         try {
-            String hubVersionResult = sendCommand("hubVersion");
-            Map<String, String> hubVersion = parseHubVersion(hubVersionResult);
-            healthBean.setHubVersion(hubVersion);
-
-            // Retrieve keys
-            String keysetResult = sendCommand("keysets");
-            List<String> keysets = parseKeysets(keysetResult);
-            healthBean.setKeysets(keysets);
-
-            // Retrieve red rat devices.
-            String listRedRatDevicesResult = sendCommand("listRedRats");
+            Future<String> hubVersionResult = probe(deadline, () -> sendCommand("hubVersion"));
+            Future<String> keysetResult = probe(deadline, () -> sendCommand("keysets"));
+            // Retrieve red rat devices, without them there is nothing else to report.
+            String listRedRatDevicesResult = await(probe(deadline, () -> sendCommand("listRedRats")), deadline);
             List<RedRatDeviceBean> devices = parseRedRatDeviceList(listRedRatDevicesResult);
 
-            // For each device in devices...
+            Map<RedRatDeviceBean, Future<String[]>> deviceResults = new LinkedHashMap<>();
             for (RedRatDeviceBean device : devices) {
-                String deviceIp = device.getIp();
                 //Only try to query connected irNetBox devices.
                 if (device.getStatus().equalsIgnoreCase("connected")) {
-                    String firmwareVersion = sendCommandWithIp("firmwareVersion", deviceIp);
-                    device.setFirmwareVersion(firmwareVersion);
-                    String hardwareType = sendCommandWithIp("hardwareType", deviceIp);
-                    device.setHardwareType(hardwareType);
+                    RedRatDeviceBean previous = known.get(device.getIp());
+                    if (previous != null) {
+                        device.setFirmwareVersion(previous.getFirmwareVersion());
+                        device.setHardwareType(previous.getHardwareType());
+                        continue;
+                    }
+                    String deviceIp = device.getIp();
+                    deviceResults.put(device, probe(deadline, () -> new String[] {
+                            sendCommandWithIp("firmwareVersion", deviceIp), sendCommandWithIp("hardwareType", deviceIp)}));
+                }
+            }
+
+            try {
+                bean.setHubVersion(parseHubVersion(await(hubVersionResult, deadline)));
+            } catch (TimeoutException | ExecutionException e) {
+                complete = false;
+                bean.setHubVersion(new HashMap<>());
+            }
+            try {
+                bean.setKeysets(parseKeysets(await(keysetResult, deadline)));
+            } catch (TimeoutException | ExecutionException e) {
+                complete = false;
+                bean.setKeysets(new ArrayList<>());
+            }
+            for (Map.Entry<RedRatDeviceBean, Future<String[]>> entry : deviceResults.entrySet()) {
+                try {
+                    String[] details = await(entry.getValue(), deadline);
+                    entry.getKey().setFirmwareVersion(details[0]);
+                    entry.getKey().setHardwareType(details[1]);
+                } catch (TimeoutException | ExecutionException e) {
+                    logger.warn("Health probe of {} did not complete: {}", entry.getKey().getIp(), e.getMessage());
+                    complete = false;
                 }
             }
-            healthBean.setDevices(devices);
+            bean.setDevices(devices);
             //hubUp.set(1);
-            healthBean.setHubUp(true);
+            bean.setHubUp(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            bean.setDevices(new ArrayList<>());
+            bean.setHubUp(false);
         } catch (Exception e) {
             //hubUp.set(0);
-            healthBean.setHubUp(false);
+            bean.setDevices(new ArrayList<>());
+            bean.setHubUp(false);
+        }
+        bean.setComplete(complete);
+        bean.setProbeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Hub health probe took {}ms, complete {}", bean.getProbeMs(), complete);
+        healthBean = bean;
+    }
+
+    /**
+     * Connected devices of the last probe with complete details, by ip, or none when a full probe is due.
+     */
+    private Map<String, RedRatDeviceBean> reusableDevices() {
+        Map<String, RedRatDeviceBean> devices = new HashMap<>();
+        HubHealthBean previous = healthBean;
+        if (++probesSinceFull >= fullProbeEvery || previous == null || previous.getDevices() == null) {
+            probesSinceFull = 0;
+            return devices;
+        }
+        for (RedRatDeviceBean device : previous.getDevices()) {
+            if (device.getStatus().equalsIgnoreCase("connected")
+                    && hasText(device.getFirmwareVersion()) && hasText(device.getHardwareType())) {
+                devices.put(device.getIp(), device);
+            }
+        }
+        return devices;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Runs a hub query on the probe executor, bounded by the probe deadline.
+     */
+    private <T> Future<T> probe(Deadline deadline, Callable<T> query) {
+        return probeExecutor.submit(() -> {
+            RequestContext context = new RequestContext(deadline);
+            context.setSchedulingClass(SchedulingClass.MAINTENANCE);
+            RequestContext.Scope scope = context.attach();
+            try (scope) {
+                return query.call();
+            }
+        });
+    }
+
+    /**
+     * Waits for a query until the probe deadline, cancelling it if it is still running then.
+     */
+    private static <T> T await(Future<T> future, Deadline deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
         }
     }
 
@@ -145,6 +280,7 @@ public class HubHealthCheck {
         String command = redRatCommands.get(request);
         IRCommunicator comm = null;
         String result = "";
+        boolean clean = false;
         try {
             comm = hcp.getConnection();
             if (comm == null) {
@@ -158,17 +294,31 @@ public class HubHealthCheck {
                 } else {
                     result = comm.sendCommand(command); // Use default prompt/end character.
                 }
+                clean = result != null && !Thread.currentThread().isInterrupted();
             } else {
                 logger.warn("sendCommand(): IRCommunicator NOT Connected");
             }
         } catch (Exception e) {
-            logger.error("HubHealthCheck.sendCommand(): Could not connect to hub[{}:{}] Message[{}]", hcp.getConnection().getHost(), hcp.getConnection().getPort(), e.getLocalizedMessage());
+            logger.error("HubHealthCheck.sendCommand({}): Could not connect to hub[{}:{}] Message[{}]", request, hcp.getHubIp(), hcp.getHubPort(), e.getLocalizedMessage());
         }
-        hcp.releaseConnection(comm);
+        release(comm, clean);
         logger.info("Complete sendCommand({}) with Response[{}]", request, result);
         return result;
     }
 
+    /**
+     * Returns a connection to the health pool. One whose query failed, timed out or was cancelled by the
+     * probe deadline may still have a reply on its way, so it is closed first; the pool reconnects it on
+     * the next borrow.
+     */
+    private void release(IRCommunicator comm, boolean clean) {
+        if (comm != null && !clean) {
+            comm.closeConnection();
+            connectionCloseCount.incrementAndGet();
+        }
+        hcp.releaseConnection(comm);
+    }
+
     /**
      * Handles commands to RedRatHub that require IP address to retrieve health status.
      *
@@ -184,6 +334,7 @@ public class HubHealthCheck {
         String command = redRatCommands.get(request);
         IRCommunicator comm = null;
         String result = "";
+        boolean clean = false;
         try {
             comm = hcp.getConnection();
             if (comm == null) {
@@ -197,23 +348,36 @@ public class HubHealthCheck {
                 } else {
                     result = comm.sendCommand(command + ip + "\"");
                 }
+                clean = result != null && !Thread.currentThread().isInterrupted();
             } else {
                 logger.warn("sendCommandWithIp(): IRCommunictor NOT Connected");
             }
         } catch (Exception e) {
             logger.error("HubHealthCheck.sendCommandWithIp(): Exception while proessing command", e);
         }
-        hcp.releaseConnection(comm);
+        release(comm, clean);
         logger.info("HubHealthCheck.sendCommandWithIp({},{}) Response[{}]", request, ip, result);
         return result;
     }
 
+    /**
+     * Lists the signal names of a dataset, in the same braced list format as the datasets.
+     *
+     * @param dataset The dataset name.
+     * @return The response from RedRatHub, empty string if the hub could not be queried.
+     */
+    public String listSignals(String dataset) {
+        return sendCommandWithIp("signals", dataset);
+    }
+
     public void stats() {
-        logger.info("HubConnectionPool Active[{}]", hcp.getActive());
+        logger.info("HubConnectionPool Active[{}]", localIRCommunicatorManager.hubConnectionPool.getActive());
+        logger.info("Health HubConnectionPool Active[{}]", hcp.getActive());
         logger.info("Connection Close Count [{}]", this.connectionCloseCount.get());
     }
 
     public void restart() {
+        localIRCommunicatorManager.hubConnectionPool.init();
         hcp.init();
     }
 
@@ -228,7 +392,7 @@ public class HubHealthCheck {
      * @return A list of keysets this hub accepts.
      */
     public static ArrayList<String> parseKeysets(String rawKeysets) {
-        String[] keysets = rawKeysets.split("\\n");
+        String[] keysets = LINES.split(rawKeysets);
 
         // Handles case where rawKeysets was {} , no keysets.
         if (keysets.length == 1) {
@@ -276,16 +440,14 @@ public class HubHealthCheck {
     public static List<RedRatDeviceBean> parseRedRatDeviceList(String rawRedRatDeviceList) {
         List<RedRatDeviceBean> devices = new ArrayList<>();
 
-        String[] splitDevices = rawRedRatDeviceList.split("\\n"); // Holds the strings of details about individual devices
+        String[] splitDevices = LINES.split(rawRedRatDeviceList); // Holds the strings of details about individual devices
         // For each device string, split into its details.
         for (int i = 0; i < splitDevices.length; i++) {
             if (splitDevices[i].startsWith("{") || splitDevices[i].startsWith("}")) {
                 //Ignore JSON like syntax.
                 continue;
             }
-            String patternRegex = "(\\[.+\\]).+(\\(.+\\))\\sat\\s(.+)";
-            Pattern pattern = Pattern.compile(patternRegex);
-            Matcher matcher = pattern.matcher(splitDevices[i]);
+            Matcher matcher = DEVICE_LINE.matcher(splitDevices[i]);
             if (matcher.find()) {
                 String type = matcher.group(1);
                 type = type.substring(1, type.length() - 1); // Removes brackets around type.
@@ -294,7 +456,7 @@ public class HubHealthCheck {
                 mac = mac.replace("-", ":");
                 String ip = matcher.group(3);
                 String status = "";
-                if (ip.matches("(.+)\\s(\\(.+\\))")) { // The device string contains a status.
+                if (IP_WITH_STATUS.matcher(ip).matches()) { // The device string contains a status.
                     String[] ipAndStatus = ip.split(" ");
                     ip = ipAndStatus[0];
                     status = ipAndStatus[1].substring(1, ipAndStatus[1].length() - 1); // Removes paretheses around status
@@ -308,22 +470,4 @@ public class HubHealthCheck {
         return devices;
     }
 
-    public boolean isHubHealthOutdated(List<RedRatDeviceBean> hubDevices, RemoteFactory factory) {
-        boolean isHealthOutdated = false;
-
-        try {
-            for (RedRatDeviceBean deviceBean : hubDevices) {
-                if (!deviceBean.getStatus().equalsIgnoreCase("connected")) {
-                    //Sending a command to the 1st port of each Device to reset connection.
-                    Remote remote = factory.getRemote(IRHardwareEnum.IRNETBOXPRO3, deviceBean.getIp(), "PC_REMOTE", 1);
-                    isHealthOutdated = remote.pressKey("VOLUP");
-                }
-            }
-        } catch (Exception exception) {
-            log.warn(exception.getMessage());
-        }
-
-        return isHealthOutdated;
-    }
-
 }
@@ -21,7 +21,7 @@ package com.cats.ir.hubhealth;
 /**
  * Represents RedRat devices.
  */
-public class RedRatDeviceBean implements Comparable {
+public class RedRatDeviceBean implements Comparable<RedRatDeviceBean> {
 
     // The type of the RedRat device.
     private String type;
@@ -100,11 +100,7 @@ public class RedRatDeviceBean implements Comparable {
      * Used to sort lists of RedRatDeviceBean by ascending IP address.
      */
     @Override
-    public int compareTo(Object o) {
-        if (o instanceof RedRatDeviceBean deviceBean) {
-            return (this.ip).compareTo(deviceBean.getIp());
-        }
-
-        return -1;
+    public int compareTo(RedRatDeviceBean deviceBean) {
+        return (this.ip).compareTo(deviceBean.getIp());
     }
 }
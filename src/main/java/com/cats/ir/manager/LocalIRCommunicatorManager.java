@@ -22,17 +22,22 @@ package com.cats.ir.manager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.cats.configuration.IRConfiguration;
+import com.cats.configuration.Topology;
+import com.cats.ir.admission.FairShare;
 import com.cats.ir.redrathub.HubConnectionPool;
 import com.cats.ir.IRCommunicator;
 import com.cats.ir.IRCommunicatorManager;
 import com.cats.ir.IRDevice;
 import com.cats.ir.IRHardwareEnum;
+import com.cats.service.TopologyService;
 
 import jakarta.annotation.PostConstruct;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The local implementation for the communicator manager. This implementation assumes that there is a RedRathub running locally and,
  * all the redrat device are controlled by it.
@@ -41,14 +46,51 @@ import jakarta.annotation.PostConstruct;
 public class LocalIRCommunicatorManager implements IRCommunicatorManager {
     private static Logger logger = LoggerFactory.getLogger(LocalIRCommunicatorManager.class);
     public HubConnectionPool hubConnectionPool;
+    /**
+     * Separate connections for health and maintenance queries, so probes and key presses never wait on each other.
+     */
+    public HubConnectionPool healthConnectionPool;
+
+    // Connections kept for health queries.
+    @Value("${irms.health.pool.size:2}")
+    int healthPoolSize;
+
+    // Longest wait for a free health connection.
+    @Value("${irms.health.pool.borrowTimeoutMs:5000}")
+    long healthBorrowTimeoutMs;
+
+    // Socket read timeout of the health connections.
+    @Value("${irms.health.pool.readTimeoutMs:5000}")
+    int healthReadTimeoutMs;
+
+    // Wait after which a request of a lower scheduling class ranks like one of the class above.
+    @Value("${irms.scheduling.agingMs:2000}")
+    long agingMs;
 
     @Autowired
-    IRConfiguration irConfiguration;
+    TopologyService topologyService;
+
+    @Autowired
+    FairShare fairShare;
 
     @PostConstruct
     public void init() {
-        String ip = irConfiguration.getRedRatHubHost();
-        hubConnectionPool = new HubConnectionPool(ip, Integer.parseInt(irConfiguration.getRedRatHubPort()));
+        Topology topology = topologyService.current();
+        String ip = topology.getRedRatHubHost();
+        long agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMs);
+        hubConnectionPool = new HubConnectionPool(ip, Integer.parseInt(topology.getRedRatHubPort()), agingNanos);
+        hubConnectionPool.setFairShare(fairShare);
+        healthConnectionPool = new HubConnectionPool("health", ip, Integer.parseInt(topology.getRedRatHubPort()),
+                healthPoolSize, healthBorrowTimeoutMs, healthReadTimeoutMs, agingNanos);
+    }
+
+    /**
+     * Moves both pools to the hub of the given topology. Commands in flight finish on the old hub.
+     */
+    public void retarget(Topology topology) {
+        Integer port = Integer.parseInt(topology.getRedRatHubPort());
+        hubConnectionPool.retarget(topology.getRedRatHubHost(), port);
+        healthConnectionPool.retarget(topology.getRedRatHubHost(), port);
     }
 
     @Override
@@ -61,7 +103,7 @@ public class LocalIRCommunicatorManager implements IRCommunicatorManager {
             case REDRAT3:
                 logger.info("Going to instantiate IRNETBOXPRO3 communicator");
 
-                communicator = hubConnectionPool.getConnection();
+                communicator = hubConnectionPool.getConnection(irDevice.getProfile().getPoolWaitMs());
                 break;
             case GC100:
             case GC100_12:
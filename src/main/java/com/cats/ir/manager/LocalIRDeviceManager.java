@@ -19,7 +19,8 @@ package com.cats.ir.manager;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.configuration.IRConfiguration;
+import com.cats.ir.admission.AdmissionControl;
+import com.cats.ir.admission.EmitterGovernor;
 import com.cats.ir.IRCommunicatorManager;
 import com.cats.ir.IRDevice;
 import com.cats.ir.IRDeviceManager;
@@ -28,6 +29,8 @@ import com.cats.ir.gc.gc100.GC100;
 import com.cats.ir.gc.itach.iTach;
 import com.cats.ir.redrat.IrNetBoxPro;
 import com.cats.ir.redrat.RedRat3;
+import com.cats.service.KeysetCatalog;
+import com.cats.service.TopologyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,7 +39,8 @@ import org.springframework.stereotype.Service;
 import jakarta.inject.Inject;
 import java.net.URI;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * IRDevice manager responsible for Local instance of IRLibrary
@@ -46,12 +50,18 @@ public class LocalIRDeviceManager implements IRDeviceManager {
     @Autowired
     protected IRCommunicatorManager irCommManager;
     @Autowired
-    IRConfiguration irConfiguration;
-    private HashMap<String, IRDevice> deviceMap;
+    TopologyService topologyService;
+    @Autowired
+    AdmissionControl admissionControl;
+    @Autowired
+    EmitterGovernor emitterGovernor;
+    @Autowired
+    KeysetCatalog keysetCatalog;
+    private Map<String, IRDevice> deviceMap;
     Logger logger = LoggerFactory.getLogger(LocalIRDeviceManager.class);
 
     private LocalIRDeviceManager() {
-        deviceMap = new HashMap<String, IRDevice>(10);
+        deviceMap = new ConcurrentHashMap<String, IRDevice>(10);
     }
 
     @Inject
@@ -105,26 +115,46 @@ public class LocalIRDeviceManager implements IRDeviceManager {
                 case GC100:
                 case GC100_6:
                 case GC100_12:
-                    device = new GC100(deviceHostIP, deviceHostIP, irConfiguration.gcDispatcherApiBase);
+                    device = new GC100(deviceHostIP, deviceHostIP, topologyService.current().getGcDispatcherApiBase());
+                    device.setAdmissionControl(admissionControl);
+                    device.setEmitterGovernor(emitterGovernor);
+                    device.setTopologyService(topologyService);
+                    device.setKeysetCatalog(keysetCatalog);
                     deviceMap.put(deviceHostIP, device);
                     logger.info("Instatiated GC device:{}", deviceHostIP);
                     break;
                 case ITACH:
-                    device = new iTach(deviceHostIP, deviceHostIP, irConfiguration.gcDispatcherApiBase);
+                    device = new iTach(deviceHostIP, deviceHostIP, topologyService.current().getGcDispatcherApiBase());
+                    device.setAdmissionControl(admissionControl);
+                    device.setEmitterGovernor(emitterGovernor);
+                    device.setTopologyService(topologyService);
+                    device.setKeysetCatalog(keysetCatalog);
                     deviceMap.put(deviceHostIP, device);
                     logger.info("Instatiated iTach device:{}", deviceHostIP);
                     break;
                 case IRNETBOXPRO3:
                     device = new IrNetBoxPro(deviceHostIP, deviceHostIP, irCommManager);
+                    device.setAdmissionControl(admissionControl);
+                    device.setEmitterGovernor(emitterGovernor);
+                    device.setTopologyService(topologyService);
+                    device.setKeysetCatalog(keysetCatalog);
                     deviceMap.put(deviceHostIP, device);
                     logger.info("Instatiated IrNetBoxPro device:{}", deviceHostIP);
                     break;
                 case REDRAT3:
                     if (deviceName == null || deviceName.isEmpty()) {
                         device = new RedRat3(deviceHostIP, deviceHostIP, irCommManager);
+                        device.setAdmissionControl(admissionControl);
+                        device.setEmitterGovernor(emitterGovernor);
+                        device.setTopologyService(topologyService);
+                        device.setKeysetCatalog(keysetCatalog);
                         deviceMap.put(deviceHostIP, device);
                     } else {
                         device = new RedRat3(deviceName, deviceHostIP, deviceHostIP, irCommManager);
+                        device.setAdmissionControl(admissionControl);
+                        device.setEmitterGovernor(emitterGovernor);
+                        device.setTopologyService(topologyService);
+                        device.setKeysetCatalog(keysetCatalog);
                         deviceMap.put(deviceName, device);
                     }
                     logger.info("Instatiated RedRat3 device:{}", deviceHostIP);
@@ -152,6 +182,16 @@ public class LocalIRDeviceManager implements IRDeviceManager {
         return dev;
     }
 
+    /**
+     * Forgets a device so the next request creates it from the current topology. Requests already
+     * holding one of its ports finish on it.
+     */
+    public void retireDevice(String hostOrName) {
+        if (deviceMap.remove(hostOrName) != null) {
+            logger.info("Retired IR device:{}", hostOrName);
+        }
+    }
+
     @Override
     public Collection<IRDevice> getAllAvailableDevices() {
         return deviceMap.values();
@@ -24,9 +24,7 @@ import static com.cats.ir.redrat.RedRatCommands.IRNETBOX_DURATION_COMMAND_APPEND
 import static com.cats.ir.redrat.RedRatCommands.IRNETBOX_REPEAT_COMMAND_APPEND;
 import static com.cats.ir.redrat.RedRatCommands.REPEAT_ARGUMENT;
 
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.PressKeyAndHoldCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import com.cats.ir.commands.CommandProgram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,33 +42,33 @@ public class IrNetBoxProPort extends RedRatDevicePort {
         this.portNumber = portNumber;
     }
 
-    protected String getDeviceUnderstandablePressKeyCommand(CatsCommand command) {
-        String commandString = null;
+    @Override
+    protected String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument) {
+        String commandString = RedRatCommands.IRNETBOX_IR_COMMAND
+                .replace(RedRatCommands.IPADDRESS_ARGUMENT, device.getDeviceIp())
+                .replace(RedRatCommands.KEYSET_ARGUMENT, keySet)
+                .replace(RedRatCommands.PORT_ARGUMENT, String.valueOf(portNumber));
 
-        if (command instanceof PressKeyCommand) {
-            PressKeyCommand pressKeyCommand = (PressKeyCommand) command;
-            commandString = RedRatCommands.IRNETBOX_IR_COMMAND
-                    .replace(RedRatCommands.IPADDRESS_ARGUMENT, device.getDeviceIp())
-                    .replace(RedRatCommands.KEYSET_ARGUMENT, pressKeyCommand.getIrKeySet())
-                    .replace(RedRatCommands.PORT_ARGUMENT, String.valueOf(portNumber));
-
-            String key = pressKeyCommand.getRemoteCommand().toString();
-            if (command instanceof PressKeyAndHoldCommand) {
-                if (((PressKeyAndHoldCommand) command).getMode() == PressKeyAndHoldCommand.REPEAT_MODE) {
-                    logger.debug("PressKeyAndHoldCommand.REPEAT_MODE ");
-                    commandString = commandString.concat(IRNETBOX_REPEAT_COMMAND_APPEND).replace(REPEAT_ARGUMENT,
-                            ((PressKeyAndHoldCommand) command).getCount().toString());
-                } else if (((PressKeyAndHoldCommand) command).getMode() == PressKeyAndHoldCommand.DURATION_MODE) {
-                    logger.debug("PressKeyAndHoldCommand.DURATION_MODE");
-                    commandString = commandString.concat(IRNETBOX_DURATION_COMMAND_APPEND).replace(
-                            DURATION_ARGUMENT, "" + (((PressKeyAndHoldCommand) command).getDuration() * 1000));
-                    logger.info("PressKeyAndHoldCommand.DURATION_MODE commandString " + commandString);
-                }
-            }
-            commandString = commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
-            logger.debug("Sending command[{}]  to device[{}]", commandString, device);
+        if (opcode == CommandProgram.HOLD_REPEAT) {
+            logger.debug("PressKeyAndHoldCommand.REPEAT_MODE ");
+            commandString = commandString.concat(IRNETBOX_REPEAT_COMMAND_APPEND).replace(REPEAT_ARGUMENT,
+                    String.valueOf(argument));
+        } else if (opcode == CommandProgram.HOLD_DURATION) {
+            logger.debug("PressKeyAndHoldCommand.DURATION_MODE");
+            commandString = commandString.concat(IRNETBOX_DURATION_COMMAND_APPEND).replace(
+                    DURATION_ARGUMENT, "" + (argument * 1000));
+            logger.info("PressKeyAndHoldCommand.DURATION_MODE commandString " + commandString);
         }
+        commandString = commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
+        logger.debug("Sending command[{}]  to device[{}]", commandString, device);
         return commandString;
     }
 
+    /**
+     * Identical presses can be sent as one command with a repeat count.
+     */
+    @Override
+    protected boolean supportsRepeatFolding() {
+        return true;
+    }
 }
@@ -20,9 +20,7 @@ package com.cats.ir.redrat;
  */
 
 
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.PressKeyAndHoldCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import com.cats.ir.commands.CommandProgram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,21 +40,16 @@ public class RedRat3Port extends RedRatDevicePort {
         logger.info("Set the name of the RedRat3 device to :{}", irDevice.getDeviceIp());
     }
 
-    protected String getDeviceUnderstandablePressKeyCommand(CatsCommand command) {
-        String commandString = null;
-        if (command instanceof PressKeyCommand) {
-            PressKeyCommand pressKeyCommand = (PressKeyCommand) command;
-            //changing the deviceIP to deviceName so that multiple devices can be accessed at once
-            commandString = RedRatCommands.REDRAT3_IR_COMMAND.replace(RedRatCommands.NAME_ARGUMENT, ((RedRat3) device).getDeviceName())
-                    .replace(RedRatCommands.KEYSET_ARGUMENT, pressKeyCommand.getIrKeySet());
-
-            String key = pressKeyCommand.getRemoteCommand().toString();
-            if (command instanceof PressKeyAndHoldCommand) {
-                key = key.concat(repeatCountFormat);
-            }
-            commandString = commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
+    @Override
+    protected String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument) {
+        //changing the deviceIP to deviceName so that multiple devices can be accessed at once
+        String commandString = RedRatCommands.REDRAT3_IR_COMMAND.replace(RedRatCommands.NAME_ARGUMENT, ((RedRat3) device).getDeviceName())
+                .replace(RedRatCommands.KEYSET_ARGUMENT, keySet);
+
+        if (opcode == CommandProgram.HOLD_REPEAT || opcode == CommandProgram.HOLD_DURATION) {
+            key = key.concat(repeatCountFormat);
         }
-        return commandString;
+        return commandString.replace(RedRatCommands.KEY_ARGUMENT, key);
     }
 
 }
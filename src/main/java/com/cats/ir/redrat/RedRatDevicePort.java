@@ -20,11 +20,15 @@ package com.cats.ir.redrat;
  */
 
 import java.io.IOException;
-
-import com.cats.ir.commands.CatsCommand;
-import com.cats.ir.commands.DelayCommand;
-import com.cats.ir.commands.IrCommand;
-import com.cats.ir.commands.PressKeyCommand;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.cats.configuration.DeviceProfile;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
+import com.cats.ir.exception.DeadlineExceededException;
 import com.cats.ir.exception.IRCommunicatorNotInitializedException;
 import com.cats.ir.exception.IRFailureException;
 import org.slf4j.Logger;
@@ -33,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import com.cats.ir.IRCommunicator;
 import com.cats.ir.IRCommunicatorManager;
 import com.cats.ir.IRDevicePort;
+import com.cats.utils.TelnetConnection;
 
 /**
  * This class represents an abstract for all RedRat devices.
@@ -53,7 +58,6 @@ public abstract class RedRatDevicePort extends IRDevicePort {
 
     private static final String PRESSKEY_EXPECTED_RESULT = "OK";
 
-    public static final int WAIT_INTERVAL = 500;
     /**
      * Holds the reference of the communicator to be used for sending a a
      * request to the hub At this point no pooling of communicator is done. When
@@ -63,6 +67,9 @@ public abstract class RedRatDevicePort extends IRDevicePort {
      */
     private IRCommunicator communicator;
 
+    // Serializes command sequences on this port, fair so that waiters are served in arrival order.
+    private final ReentrantLock portLock = new ReentrantLock(true);
+
     public RedRatDevicePort(RedRatDevice redratDevice, IRCommunicatorManager communicatorManager) {
         this.device = redratDevice;
         this.communicatorManager = communicatorManager;
@@ -70,46 +77,36 @@ public abstract class RedRatDevicePort extends IRDevicePort {
     }
 
     @Override
-    public synchronized Boolean sendCommand(CatsCommand catsCommand) throws IRFailureException,
+    protected Boolean execute(CommandProgram program, String keySet) throws IRFailureException,
             IRCommunicatorNotInitializedException {
-        Boolean retVal = true;
-        String commandString = null;
-        String expectedResult = null;
-
-        logger.debug("sendCommand() CatsCommand " + catsCommand);
-        if (catsCommand != null) {
-            while (catsCommand.hasNext()) {
-                CatsCommand command = catsCommand.next();
-                if (command instanceof DelayCommand) {
-                    logger.debug("Its a DelayCommand() " + command);
-                    try {
-                        Thread.sleep(((DelayCommand) command).getDelay());
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-
-                } else if (command instanceof IrCommand) {
-                    logger.debug("sendCommand() catsCommand.next() " + command);
-                    commandString = getDeviceUnderstandablePressKeyCommand(command);
-                    expectedResult = getExpectedResult(command);
-                    logger.debug("commandString " + commandString + " expectedResult  " + expectedResult);
-                    if (commandString != null) {
-                        retVal = sendCommand(commandString, expectedResult);
-                    } else {
-                        throw new IRFailureException("IrNetBoxPro does not know how to handle this command :"
-                                + commandString);
-
-                    }
-                } else {
-                    logger.debug("Got an CatsCommand which has no implementation : {} ", command);
-                }
-
+        RequestContext context = RequestContext.current();
+        long queued = System.nanoTime();
+        try {
+            if (!portLock.tryLock(context.getDeadline().remainingNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException("Request deadline exceeded waiting for port " + this);
             }
-        } else {
-            throw new IRFailureException("Command is null");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IRFailureException("Interrupted waiting for port " + this);
+        }
+        try {
+            context.getTiming().record(RequestTiming.QUEUE, queued);
+            return super.execute(program, keySet);
+        } finally {
+            portLock.unlock();
         }
+    }
 
-        return retVal;
+    @Override
+    protected Boolean emit(int opcode, String keySet, String key, int argument) throws IRFailureException,
+            IRCommunicatorNotInitializedException {
+        String commandString = getDeviceUnderstandableCommand(opcode, keySet, key, argument);
+        logger.debug("commandString " + commandString);
+        if (commandString == null) {
+            throw new IRFailureException(getClass().getSimpleName() + " does not know how to handle "
+                    + CommandProgram.opcodeName(opcode) + " " + key);
+        }
+        return sendCommand(commandString, PRESSKEY_EXPECTED_RESULT);
     }
 
     /**
@@ -135,7 +132,7 @@ public abstract class RedRatDevicePort extends IRDevicePort {
         logger.debug("sendCommand()  response " + response);
         if (!expectedResult.equals(response)) {
             logger.info("error response " + response);
-            if (response.contains("Failed to find signal ")) {
+            if (response != null && response.contains("Failed to find signal ")) {
                 logger.warn("Command " + commandString + " not valid for key set");
                 throw new IllegalArgumentException("Command " + commandString + " not valid for key set");
             } else {
@@ -163,55 +160,61 @@ public abstract class RedRatDevicePort extends IRDevicePort {
         return isEqual;
     }
 
-    private String getExpectedResult(CatsCommand command) {
-        String expectedResult = null;
-
-        if (command instanceof PressKeyCommand) {
-            expectedResult = PRESSKEY_EXPECTED_RESULT;
-        }
-        return expectedResult;
-    }
-
     private String sendTelnetCommand(String command) {
         String retVal = "";
         int retries = 0;
         boolean tryRetry = false;
-        do {
-            try {
-                logger.info("sendCommand " + command);
-                long start = System.currentTimeMillis();
-                retVal = communicator.sendCommand(command);
-                long end = System.currentTimeMillis();
-                if (end - start > 1500) {
-                    logger.warn("sendCommand " + command + " response " + retVal + " time taken by hub "
-                            + (end - start) + "ms");
-                } else {
-                    logger.trace("sendCommand " + command + " response " + retVal + " time taken by hub "
-                            + (end - start) + "ms");
-                }
-                tryRetry = false;
-            } catch (IOException e) {
-                logger.warn("connectTelnet failed " + e.getMessage());
-                tryRetry = true;
-                retries++;
-                if (retries < 3) {
-                    try {
-                        communicator.closeConnection();
-                        communicator.connect(false);
-                    } catch (IOException e2) {
-                        logger.warn("Could not reconnect. The hub may have crashed. " + e2.getMessage());
-                    }
-                }
+        RequestContext context = RequestContext.current();
+        Deadline deadline = context.getDeadline();
+        // Retries, their spacing and the read timeout come from the device profile.
+        DeviceProfile profile = device.getProfile();
+        int maxRetries = profile.getRetries();
+        boolean clean = false;
+        try {
+            if (communicator instanceof TelnetConnection telnet) {
+                telnet.setDefaultReadTimeout(profile.getReadTimeoutMs());
+            }
+            do {
                 try {
-                    Thread.sleep(WAIT_INTERVAL);
-                } catch (InterruptedException e1) {
-                    logger.warn("connectTelnet wait interrupted " + e1.getMessage());
+                    logger.info("sendCommand " + command);
+                    long start = System.currentTimeMillis();
+                    retVal = communicator.sendCommand(command);
+                    long end = System.currentTimeMillis();
+                    if (end - start > 1500) {
+                        logger.warn("sendCommand " + command + " response " + retVal + " time taken by hub "
+                                + (end - start) + "ms");
+                    } else {
+                        logger.trace("sendCommand " + command + " response " + retVal + " time taken by hub "
+                                + (end - start) + "ms");
+                    }
+                    tryRetry = false;
+                    clean = true;
+                } catch (IOException e) {
+                    logger.warn("connectTelnet failed " + e.getMessage());
+                    tryRetry = true;
+                    retries++;
+                    // the hub may still answer the failed command, never send on this socket again.
+                    communicator.closeConnection();
+                    // A retry that cannot finish in time would only reach the hardware after the client gave up.
+                    deadline.check("retrying " + command);
+                    if (retries < maxRetries) {
+                        try {
+                            communicator.connect(false);
+                        } catch (IOException e2) {
+                            logger.warn("Could not reconnect. The hub may have crashed. " + e2.getMessage());
+                        }
+                    }
+                    context.pause(RequestTiming.RETRY_WAIT, profile.getRetryWaitMs());
                 }
+            } while (tryRetry && retries < maxRetries);
+        } finally {
+            if (!clean) {
+                // a command that failed or was cut short may have left a reply unread.
+                communicator.closeConnection();
             }
-        } while (tryRetry && retries < 3);
-
-        //release connection back to pool.
-        releaseConnection();
+            //release connection back to pool.
+            releaseConnection();
+        }
 
         return retVal;
     }
@@ -257,11 +260,14 @@ public abstract class RedRatDevicePort extends IRDevicePort {
     /**
      * The implementation of this method varies based on type of Redrat device.
      * This method would return the appropriate command to be send to the redrat
-     * hub.
+     * hub for a single program step.
      *
-     * @param command
+     * @param opcode   {@link CommandProgram} opcode of the step.
+     * @param keySet   dataset the key belongs to.
+     * @param key      signal to send.
+     * @param argument repeat count or duration in seconds for holds.
      * @return
      */
-    protected abstract String getDeviceUnderstandablePressKeyCommand(CatsCommand command);
+    protected abstract String getDeviceUnderstandableCommand(int opcode, String keySet, String key, int argument);
 
 }
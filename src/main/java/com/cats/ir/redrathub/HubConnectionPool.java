@@ -19,10 +19,18 @@ package com.cats.ir.redrathub;
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.cats.ir.IRCommunicator;
+import com.cats.ir.admission.FairShare;
+import com.cats.ir.admission.PrioritySemaphore;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
 import com.cats.ir.redrat.RedRatConstants;
 import nf.fr.eraasoft.pool.ObjectPool;
 import nf.fr.eraasoft.pool.PoolException;
@@ -39,8 +47,20 @@ public class HubConnectionPool
 {
     private static final Logger               logger = LoggerFactory.getLogger( HubConnectionPool.class );
 
-    ObjectPool< RedRatHubCommunicator > connectionPool;
     private int                 poolSize = RedRatConstants.DEFAULT_POOL_SIZE;
+    /**
+     * The connections and permits handed out now. {@link #init()} replaces it as a whole; connections
+     * lent by an older generation go back to that one, so a restart or retarget never mixes them up.
+     */
+    private volatile Generation generation;
+    /**
+     * Generation each borrowed connection came from.
+     */
+    private final Map< RedRatHubCommunicator, Generation > lent = new ConcurrentHashMap<>();
+    /**
+     * Shares the connections between clients, may be null.
+     */
+    private FairShare           fairShare;
 
     /**
      * Sort of like a latch that increments when IRCommunicator is borrowed and decremented when returned.
@@ -53,6 +73,30 @@ public class HubConnectionPool
     AtomicLong poolTransaction;
     private String hubIp;
     private Integer hubPort;
+    /**
+     * Name used in logs, tells the key press pool from the health pool.
+     */
+    private String name = "hub";
+    /**
+     * Fixed pool size, 0 to read it from the redrat properties.
+     */
+    private int configuredPoolSize;
+    /**
+     * Seconds the object pool waits for a connection to be created.
+     */
+    private int maxWaitSeconds = RedRatConstants.POOL_WAIT_TIME;
+    /**
+     * Longest wait for a free connection, also when the request's deadline allows more.
+     */
+    private long maxBorrowWaitNanos = Long.MAX_VALUE;
+    /**
+     * Socket read timeout of the pooled connections, 0 for the telnet default.
+     */
+    private int readTimeoutMillis;
+    /**
+     * Aging step between two scheduling classes waiting for a connection.
+     */
+    private long agingNanos = PrioritySemaphore.DEFAULT_AGING_NANOS;
 
     public HubConnectionPool() {
 	super();
@@ -69,18 +113,74 @@ public class HubConnectionPool
     public HubConnectionPool(String hubIp, Integer hubPort){
         this(hubIp, hubPort, new AtomicLong(0), new AtomicLong(0));
     }
+    public HubConnectionPool(String hubIp, Integer hubPort, long agingNanos){
+        this.hubIp = hubIp;
+        this.hubPort = hubPort;
+        this.active = new AtomicLong(0);
+        this.poolTransaction = new AtomicLong(0);
+        this.agingNanos = agingNanos;
+        logger.info("Creating new HubConnectionPool");
+        init();
+    }
+
+    /**
+     * A separately sized pool with its own timeouts, used as a bulkhead so one kind of traffic cannot
+     * take the connections of another.
+     */
+    public HubConnectionPool(String name, String hubIp, Integer hubPort, int poolSize, long borrowTimeoutMillis,
+            int readTimeoutMillis, long agingNanos){
+        this.name = name;
+        this.hubIp = hubIp;
+        this.hubPort = hubPort;
+        this.active = new AtomicLong(0);
+        this.poolTransaction = new AtomicLong(0);
+        this.configuredPoolSize = poolSize;
+        this.maxBorrowWaitNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.maxWaitSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(borrowTimeoutMillis));
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.agingNanos = agingNanos;
+        logger.info("Creating new HubConnectionPool {} of {} connections", name, poolSize);
+        init();
+    }
     
-    public void init()
+    public synchronized void init()
     {
-        readPoolSize();
+        if ( configuredPoolSize > 0 )
+        {
+            poolSize = configuredPoolSize;
+        }
+        else
+        {
+            readPoolSize();
+        }
 
+        PoolObject poolObject = new PoolObject( hubIp, hubPort, readTimeoutMillis );
         PoolSettings< RedRatHubCommunicator > poolSettings = 
-        		new PoolSettings< RedRatHubCommunicator >( new PoolObject( hubIp, hubPort ) );
-        poolSettings.min( poolSize ).max( poolSize ).maxWait( RedRatConstants.POOL_WAIT_TIME ) ; // wait 60 sec before
+        		new PoolSettings< RedRatHubCommunicator >( poolObject );
+        poolSettings.min( poolSize ).max( poolSize ).maxWait( maxWaitSeconds ) ; // wait 60 sec before
                                                        // timeout.
-        connectionPool = poolSettings.pool();
+        ObjectPool< RedRatHubCommunicator > connectionPool = poolSettings.pool();
+        Generation previous = generation;
+        generation = new Generation( poolSettings, poolObject, connectionPool, new PrioritySemaphore( poolSize, agingNanos ) );
 
-        logger.info( "hubconnectionPool " + connectionPool );
+        logger.info( "hubconnectionPool {} {}", name, connectionPool );
+        if ( previous != null )
+        {
+            previous.retire();
+            logger.info( "hubconnectionPool {} closed the idle connections of the replaced pool", name );
+        }
+    }
+
+    /**
+     * Points the pool at another hub. Connections already borrowed finish their command on the old hub
+     * and are closed when released.
+     */
+    public synchronized void retarget( String hubIp, Integer hubPort )
+    {
+        logger.info( "hubconnectionPool {} moving from {}:{} to {}:{}", name, this.hubIp, this.hubPort, hubIp, hubPort );
+        this.hubIp = hubIp;
+        this.hubPort = hubPort;
+        init();
     }
 
     private void readPoolSize()
@@ -102,27 +202,78 @@ public class HubConnectionPool
         }
     }
 
-    public synchronized RedRatHubCommunicator getConnection()
+    public RedRatHubCommunicator getConnection()
     {
+        return getConnection( null );
+    }
+
+    /**
+     * Borrows a connection, waiting at most {@code maxWaitMillis} (when set) in addition to the pool's own
+     * borrow timeout and the request deadline. Used for the poolWaitMs of a device profile.
+     */
+    public RedRatHubCommunicator getConnection( Integer maxWaitMillis )
+    {
+        RequestContext context = RequestContext.current();
+        Deadline deadline = context.getDeadline();
+        deadline.check( "borrowing a hub connection" );
         long id = poolTransaction.incrementAndGet();
         logger.info("connectionPool.getConnection[{}]", id);
         RedRatHubCommunicator telnetConnection = null;
+        long borrowStart = System.nanoTime();
+        Generation current = generation;
+        PrioritySemaphore borrowPermits = current.permits;
+        try
+        {
+            String client = context.getClientId();
+            long cost = fairShare != null ? fairShare.costNanos( client ) : 0;
+            long waitNanos = Math.min( deadline.remainingNanos(), maxBorrowWaitNanos );
+            if ( maxWaitMillis != null )
+            {
+                waitNanos = Math.min( waitNanos, TimeUnit.MILLISECONDS.toNanos( maxWaitMillis ) );
+            }
+            if ( !borrowPermits.tryAcquire( context.getSchedulingClass(), client, cost, waitNanos, TimeUnit.NANOSECONDS ) )
+            {
+                deadline.check( "borrowing a hub connection" );
+                logger.warn( "connectionPool {} getConnection[{}] timed out waiting for a connection", name, id );
+                return null;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            logger.warn( "connectionPool getConnection[{}] interrupted", id );
+            return null;
+        }
+        if ( fairShare != null )
+        {
+            fairShare.recordGrant( context.getClientId(), System.nanoTime() - borrowStart );
+        }
         try
         {
-            telnetConnection = connectionPool.getObj();
+            telnetConnection = current.pool.getObj();
+            context.getTiming().record( RequestTiming.POOL, borrowStart );
             if(telnetConnection == null){
             	logger.warn( "connectionPool getConnection[{}] ",id);
+                borrowPermits.release();
             }
             else
             {
                 active.incrementAndGet();
+                lent.put( telnetConnection, current );
                 telnetConnection.setTransactionId(id);
             	logger.trace( "connectionPool getConnection[{}]",id);
+                if ( deadline.isExpired() )
+                {
+                    // the borrow wait used up the request's time, hand the connection back unused.
+                    releaseConnection( telnetConnection );
+                    deadline.check( "using a hub connection" );
+                }
             }
         }
         catch ( PoolException e )
         {
             logger.warn( "connectionPool getConnection PoolException[{}] - {}", id, e.getMessage() );
+            borrowPermits.release();
         }
 
         return telnetConnection;
@@ -130,17 +281,85 @@ public class HubConnectionPool
 
     public void releaseConnection( IRCommunicator irCommunicator )
     {
-        if(irCommunicator instanceof RedRatHubCommunicator)
+        if(irCommunicator instanceof RedRatHubCommunicator communicator)
         {
-            logger.trace( "connectionPool.releaseConnection[{}]", (( RedRatHubCommunicator ) irCommunicator).getTransactionId());
-            connectionPool.returnObj( ( RedRatHubCommunicator ) irCommunicator );
+            logger.trace( "connectionPool.releaseConnection[{}]", communicator.getTransactionId());
+            Generation owner = lent.remove( communicator );
+            if ( owner == null )
+            {
+                logger.warn( "connectionPool {} release of a connection it did not lend[{}]", name, communicator.getTransactionId() );
+                return;
+            }
+            if ( owner == generation )
+            {
+                owner.pool.returnObj( communicator );
+            }
+            else
+            {
+                // lent before a restart or retarget, do not hand it out again.
+                communicator.closeConnection();
+            }
             active.decrementAndGet();
+            owner.permits.release();
         }
     }
 
+    public void setFairShare( FairShare fairShare )
+    {
+        this.fairShare = fairShare;
+    }
+
     public Long getActive() {
         return active.get();
     }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHubIp() {
+        return hubIp;
+    }
+
+    public Integer getHubPort() {
+        return hubPort;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+}
+
+/**
+ * One set of pooled connections with the permits guarding them.
+ */
+final class Generation
+{
+    private final PoolSettings< RedRatHubCommunicator > settings;
+    private final PoolObject poolObject;
+    final ObjectPool< RedRatHubCommunicator > pool;
+    final PrioritySemaphore permits;
+
+    Generation( PoolSettings< RedRatHubCommunicator > settings, PoolObject poolObject,
+            ObjectPool< RedRatHubCommunicator > pool, PrioritySemaphore permits )
+    {
+        this.settings = settings;
+        this.poolObject = poolObject;
+        this.pool = pool;
+        this.permits = permits;
+    }
+
+    /**
+     * Closes the idle connections once a newer generation took over. The pool controller keeps checking
+     * every pool it ever saw, so the minimum drops to 0 to stop it from opening them again, and a
+     * connection that still finds its way back fails validation and is closed on the next check.
+     */
+    void retire()
+    {
+        poolObject.retire();
+        settings.min( 0 );
+        settings.clearCurrentPool();
+    }
 }
 
 /**
@@ -152,13 +371,16 @@ class PoolObject extends PoolableObjectBase< RedRatHubCommunicator >
     private static final Logger               logger = LoggerFactory.getLogger( HubConnectionPool.class );
     private String hubIp;
     private Integer hubPort;
+    private int readTimeoutMillis;
+    private volatile boolean retired;
     
     static AtomicLong instance = new AtomicLong(0);
 
-    public PoolObject(String hubIp, Integer hubPort)
+    public PoolObject(String hubIp, Integer hubPort, int readTimeoutMillis)
     {
     	this.hubIp = hubIp;
     	this.hubPort = hubPort;
+    	this.readTimeoutMillis = readTimeoutMillis;
     }
 
     @Override
@@ -168,6 +390,10 @@ class PoolObject extends PoolableObjectBase< RedRatHubCommunicator >
         logger.info("RedRatHubCommunicator.make({}) Start", tmp);
         RedRatHubCommunicator telnetConnection = new RedRatHubCommunicator( hubIp,
         		hubPort , RedRatConstants.REDRAT_PROMPT_STRING_1, tmp );
+        if ( readTimeoutMillis > 0 )
+        {
+            telnetConnection.setDefaultReadTimeout( readTimeoutMillis );
+        }
         logger.info("RedRatHubCommunicator.make({}) Complete[{}]", tmp, telnetConnection);
         return telnetConnection;
     }
@@ -193,4 +419,25 @@ class PoolObject extends PoolableObjectBase< RedRatHubCommunicator >
     {
         logger.info("telnetConnection.passivate[{}]", t.getInstanceId());
  	}
+
+    @Override
+    public boolean validate( RedRatHubCommunicator t )
+    {
+        return !retired;
+    }
+
+    @Override
+    public void destroy( RedRatHubCommunicator t )
+    {
+        if ( t != null )
+        {
+            logger.info("telnetConnection.destroy[{}]", t.getInstanceId());
+            t.closeConnection();
+        }
+    }
+
+    void retire()
+    {
+        retired = true;
+    }
 }
@@ -0,0 +1,80 @@
+package com.cats.jobs;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.gc.GCDispatcherService;
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+import com.cats.ir.hubhealth.HealthSnapshots;
+import com.cats.ir.hubhealth.HubHealthBean;
+import com.cats.ir.hubhealth.HubHealthCheck;
+import com.cats.service.DependencyHealthCheck;
+import com.cats.service.KeysetCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the {@link HealthSnapshots} in the background: probes the hub and its devices and takes
+ * the GC Dispatcher's cached health, so GET /health only reads the last snapshot. The
+ * {@link KeysetCatalog} is updated from the same health.
+ */
+@Slf4j
+@Component
+public class HealthSnapshotJob {
+
+    @Autowired
+    HubHealthCheck hubHealthCheck;
+
+    @Autowired
+    GCDispatcherService gcDispatcherService;
+
+    @Autowired
+    DependencyHealthCheck dependencyHealthCheck;
+
+    @Autowired
+    HealthSnapshots snapshots;
+
+    @Autowired
+    KeysetCatalog keysetCatalog;
+
+    @Scheduled(initialDelayString = "${irms.health.refreshIntervalMs:10000}",
+            fixedDelayString = "${irms.health.refreshIntervalMs:10000}")
+    public void run() {
+        refresh();
+    }
+
+    /**
+     * Takes a new snapshot now.
+     */
+    public synchronized void refresh() {
+        HubHealthBean hub = null;
+        if (dependencyHealthCheck.checkHubHealth()) {
+            hubHealthCheck.process();
+            hub = hubHealthCheck.getHealthBean();
+        }
+        GCDispatcherHealthBean gcDispatcher = null;
+        if (dependencyHealthCheck.checkGCDispatcherHealth()) {
+            gcDispatcher = gcDispatcherService.getHealth();
+        }
+        long version = snapshots.publish(hub, gcDispatcher).version();
+        log.debug("Health snapshot {} taken", version);
+        keysetCatalog.update(hub, gcDispatcher);
+    }
+}
@@ -0,0 +1,117 @@
+package com.cats.jobs;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.IRHardwareEnum;
+import com.cats.ir.Remote;
+import com.cats.ir.RemoteFactory;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.SchedulingClass;
+import com.cats.ir.hubhealth.HealthSnapshots;
+import com.cats.ir.hubhealth.HubHealthBean;
+import com.cats.ir.hubhealth.RedRatDeviceBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nudges irNetBoxes the last health snapshot shows as not connected, by sending a key to their first
+ * port, which makes the hub reconnect to them. A device is nudged at most once per
+ * {@code irms.health.nudgeMinIntervalMs} and at most {@code irms.health.maxNudgesPerRun} devices per run,
+ * so a dead device cannot turn into a stream of IR traffic. A fresh snapshot is taken after a
+ * successful nudge.
+ */
+@Slf4j
+@Component
+public class ReconnectNudgeJob {
+
+    private static final String NUDGE_KEYSET = "PC_REMOTE";
+    private static final String NUDGE_KEY = "VOLUP";
+
+    @Autowired
+    HealthSnapshots snapshots;
+
+    @Autowired
+    HealthSnapshotJob healthSnapshotJob;
+
+    @Autowired
+    RemoteFactory factory;
+
+    @Value("${irms.health.nudgeMinIntervalMs:300000}")
+    long nudgeMinIntervalMs;
+
+    @Value("${irms.health.maxNudgesPerRun:2}")
+    int maxNudgesPerRun;
+
+    // Time allowed for one nudge.
+    @Value("${irms.health.probeTimeoutMs:10000}")
+    long nudgeTimeoutMs;
+
+    // Last nudge per device ip, System.currentTimeMillis().
+    private final Map<String, Long> lastNudge = new ConcurrentHashMap<>();
+
+    @Scheduled(initialDelayString = "${irms.health.nudgeIntervalMs:60000}",
+            fixedDelayString = "${irms.health.nudgeIntervalMs:60000}")
+    public void run() {
+        HealthSnapshots.HealthSnapshot snapshot = snapshots.current();
+        HubHealthBean hub = snapshot != null ? snapshot.hub() : null;
+        if (hub == null || hub.getDevices() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int nudged = 0;
+        boolean reconnected = false;
+        for (RedRatDeviceBean device : hub.getDevices()) {
+            if (nudged == maxNudgesPerRun) {
+                break;
+            }
+            if (device.getStatus().equalsIgnoreCase("connected")
+                    || now - lastNudge.getOrDefault(device.getIp(), 0L) < nudgeMinIntervalMs) {
+                continue;
+            }
+            lastNudge.put(device.getIp(), now);
+            nudged++;
+            reconnected |= nudge(device.getIp());
+        }
+        if (reconnected) {
+            healthSnapshotJob.refresh();
+        }
+    }
+
+    private boolean nudge(String ip) {
+        RequestContext context = new RequestContext(Deadline.afterMillis(nudgeTimeoutMs));
+        context.setSchedulingClass(SchedulingClass.MAINTENANCE);
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            log.info("Nudging disconnected irNetBox {}", ip);
+            //Sending a command to the 1st port of the device to reset the connection.
+            Remote remote = factory.getRemote(IRHardwareEnum.IRNETBOXPRO3, ip, NUDGE_KEYSET, 1);
+            return remote.pressKey(NUDGE_KEY);
+        } catch (Exception e) {
+            log.warn("Could not nudge irNetBox {}: {}", ip, e.getMessage());
+            return false;
+        }
+    }
+}
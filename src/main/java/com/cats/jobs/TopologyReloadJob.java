@@ -0,0 +1,136 @@
+package com.cats.jobs;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.IRDeviceConfig;
+import com.cats.configuration.Topology;
+import com.cats.ir.manager.LocalIRCommunicatorManager;
+import com.cats.ir.manager.LocalIRDeviceManager;
+import com.cats.service.RemoteProcessor;
+import com.cats.service.TopologyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Watches ir-ms.yml and applies a changed rack layout without a restart. The new {@link Topology} is
+ * swapped in at once; then only what changed is touched: devices that were removed or changed type are
+ * retired (created again on their next use), and the hub connection pools move if the hub address
+ * changed. Commands in flight keep the device port and connection they already hold.
+ * <p>
+ * The file is polled rather than watched through file system events, which bind mounted
+ * configuration does not reliably deliver.
+ */
+@Slf4j
+@Component
+public class TopologyReloadJob {
+
+    @Autowired
+    TopologyService topologyService;
+
+    @Autowired
+    LocalIRDeviceManager deviceManager;
+
+    @Autowired
+    LocalIRCommunicatorManager communicatorManager;
+
+    @Autowired
+    RemoteProcessor processor;
+
+    @Value("${irms.topology.file:./irms/ir-ms.yml}")
+    String file;
+
+    // Modification time and size the current topology was read at.
+    private String stamp;
+
+    @PostConstruct
+    public void init() {
+        stamp = stamp(Paths.get(file));
+    }
+
+    @Scheduled(initialDelayString = "${irms.topology.watchIntervalMs:5000}",
+            fixedDelayString = "${irms.topology.watchIntervalMs:5000}")
+    public void run() {
+        Path path = Paths.get(file);
+        String current = stamp(path);
+        if (current != null && !current.equals(stamp)) {
+            stamp = current;
+            reload(path);
+        }
+    }
+
+    /**
+     * Reads the file and applies it. A file that cannot be read or has no devices leaves the topology as it was.
+     */
+    public synchronized void reload(Path path) {
+        Topology previous;
+        try {
+            previous = topologyService.reload(path);
+        } catch (IOException | RuntimeException e) {
+            log.error("Keeping topology {}, could not load {}: {}", topologyService.current().getVersion(), path,
+                    e.getMessage());
+            return;
+        }
+        Topology next = topologyService.current();
+
+        if (!next.sameHub(previous) && next.hasHub()) {
+            communicatorManager.retarget(next);
+        }
+        boolean gcMoved = !Objects.equals(previous.getGcDispatcherApiBase(), next.getGcDispatcherApiBase());
+        Map<String, String> nextTypes = typesByHost(next);
+        typesByHost(previous).forEach((host, type) -> {
+            boolean gc = type.equalsIgnoreCase("itach") || type.toLowerCase().startsWith("gc100");
+            if (!type.equalsIgnoreCase(nextTypes.getOrDefault(host, "")) || (gc && gcMoved)) {
+                deviceManager.retireDevice(host);
+            }
+        });
+        try {
+            processor.writeGCDispatcherConfig(next);
+        } catch (IOException e) {
+            log.error("Could not write the GC Dispatcher configuration: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, String> typesByHost(Topology topology) {
+        Map<String, String> types = new HashMap<>();
+        for (IRDeviceConfig device : topology.getDevices()) {
+            types.put(device.getHost(), String.valueOf(device.getType()));
+        }
+        return types;
+    }
+
+    private static String stamp(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.cats.configuration.DeviceProfile;
+import com.cats.configuration.Topology;
+import com.cats.ir.admission.AdmissionControl;
+import com.cats.ir.admission.AdmissionGate;
+import com.cats.ir.admission.FairShare;
+import com.cats.ir.context.TimingAccuracy;
+import com.cats.service.KeysetCatalog;
+import com.cats.service.TopologyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operational endpoints for tuning the service.
+ */
+@RestController
+@Tag(name = "Admin", description = "Operational endpoints for tuning the IR service.")
+@RequestMapping("/admin")
+public class AdminResource {
+
+    @Autowired
+    AdmissionControl admissionControl;
+
+    @Autowired
+    FairShare fairShare;
+
+    @Autowired
+    KeysetCatalog keysetCatalog;
+
+    @Autowired
+    TopologyService topologyService;
+
+    /**
+     * Accuracy of scheduled key timing per port, and overall under "all".
+     */
+    @Operation(summary = "Get key timing accuracy.", description = "Requested vs actual offsets of scheduled key presses, per port and overall. Errors are in milliseconds, positive when late.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/timing", method = RequestMethod.GET, produces = "application/json")
+    public Map<String, TimingAccuracy.Stats> getTimingAccuracy() {
+        return TimingAccuracy.snapshot();
+    }
+
+    @Operation(summary = "Reset key timing accuracy.", description = "Clear the recorded timing accuracy stats.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stats cleared.")
+    })
+    @RequestMapping(value = "/timing", method = RequestMethod.DELETE)
+    public void resetTimingAccuracy() {
+        TimingAccuracy.reset();
+    }
+
+    /**
+     * Queue depth, holders and rejections of every port and device admission gate.
+     */
+    @Operation(summary = "Get admission gates.", description = "Waiting and active requests, rejections and average hold time for each port and device gate.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/admission", method = RequestMethod.GET, produces = "application/json")
+    public List<AdmissionGate> getAdmissionGates() {
+        return admissionControl.getGates();
+    }
+
+    /**
+     * Hub connection share of each client.
+     */
+    @Operation(summary = "Get client shares.", description = "Weight, hub connection grants and average and longest wait for each client.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/clients", method = RequestMethod.GET, produces = "application/json")
+    public Map<String, FairShare.ClientStats> getClientShares() {
+        return fairShare.snapshot();
+    }
+
+    /**
+     * Keysets requests are validated against.
+     */
+    @Operation(summary = "Get keyset catalog.", description = "Known RedRatHub datasets with their signals and GC irdb keysets. Null when not loaded yet; requests are not checked against unknown parts.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/keysets", method = RequestMethod.GET, produces = "application/json")
+    public Map<String, Map<String, Set<String>>> getKeysets() {
+        return keysetCatalog.snapshot();
+    }
+
+    /**
+     * Rack layout requests are currently routed with.
+     */
+    @Operation(summary = "Get topology.", description = "Current snapshot of ir-ms.yml: hub, GC Dispatcher and normalized devices. The version increases with every reload.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/topology", method = RequestMethod.GET, produces = "application/json")
+    public Topology getTopology() {
+        return topologyService.current();
+    }
+
+    /**
+     * Tuning profiles in effect, by device host. The "default" entry applies to devices not in the topology.
+     */
+    @Operation(summary = "Get device profiles.", description = "Effective tuning profile of every device (defaults, then type profile, then named profile, then device tuning from ir-ms.yml).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful")
+    })
+    @RequestMapping(value = "/profiles", method = RequestMethod.GET, produces = "application/json")
+    public Map<String, DeviceProfile> getProfiles() {
+        Topology topology = topologyService.current();
+        Map<String, DeviceProfile> profiles = new LinkedHashMap<>();
+        profiles.put("default", topology.getDefaultProfile());
+        profiles.putAll(topology.getProfiles());
+        return profiles;
+    }
+}
@@ -0,0 +1,69 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+
+import com.cats.dto.BatchOperation;
+import com.cats.dto.BatchResponse;
+import com.cats.service.BatchService;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runs many IR operations across many slots in one request.
+ */
+@RestController
+@Tag(name = "Batch", description = "Run many IR operations across many slots in one request.")
+@Scheduling(SchedulingClass.BATCH)
+@RequestMapping("/rest/batch")
+public class BatchResource {
+
+    @Autowired
+    private BatchService batchService;
+
+    /**
+     * Validates every operation, then runs them in parallel across ports and in order within a port.
+     *
+     * @return per operation status and timings, in request order.
+     */
+    @Operation(summary = "Run a batch of IR operations.", description = "Operations: pressKey, pressKeys, pressKeyAndHold, holdDuration, tune, shorthand, macro, delay. "
+            + "Each targets a slot or a device and port. The whole batch is validated before anything is sent; ports run in parallel, operations on a port run in order and stop at the first failure.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch ran, see the per operation status",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = BatchResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid operations, nothing was sent.")
+    })
+    @RequestMapping(value = "", method = RequestMethod.POST, consumes = "application/json", produces = "application/json")
+    public BatchResponse run(@Parameter(description = "Operations to run.") @RequestBody List<BatchOperation> operations) {
+        return batchService.run(operations);
+    }
+}
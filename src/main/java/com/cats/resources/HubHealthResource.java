@@ -18,16 +18,10 @@ package com.cats.resources;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.ir.IRDevice;
-import com.cats.ir.RemoteFactory;
-import com.cats.ir.gc.GCDispatcherService;
-import com.cats.ir.gchealth.GCDispatcherHealthBean;
-import com.cats.ir.hubhealth.HealthReport;
+import com.cats.ir.hubhealth.HealthSnapshots;
 import com.cats.ir.hubhealth.HealthStatusBean;
-import com.cats.ir.hubhealth.HubHealthBean;
 import com.cats.ir.hubhealth.HubHealthCheck;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -35,36 +29,32 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.ws.rs.core.Response;
 
-import com.cats.service.RemoteProcessor;
-import com.cats.service.DependencyHealthCheck;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Resource for retrieving information about RedRatHub and RedRatDevices associated with this hub.
   */
 @RestController
 @Tag(name = "IR Health", description = "Health APIs for IR Service")
+@Scheduling(SchedulingClass.MAINTENANCE)
 @RequestMapping("/health")
 public class HubHealthResource {
     protected static Logger logger = LoggerFactory.getLogger(HubHealthResource.class);
     @Autowired
     HubHealthCheck hhc;
-    @Autowired
-    RemoteProcessor processor;
-
-    @Autowired
-    RemoteFactory factory;
 
     @Autowired
-    DependencyHealthCheck availableIRDependencies;
-
-    @Autowired
-    GCDispatcherService gcDispatcherService;
+    HealthSnapshots snapshots;
 
     @Operation(summary = "Restart Health API for IR Service.", description = "Restart Health API for IR Service.")
     @ApiResponses(value = {
@@ -79,11 +69,10 @@ public class HubHealthResource {
     }
 
     /**
-     * Return current status of HubHealthBean and GC Dispatcher (if deployed on rack).
+     * Return the latest health snapshot of the RedRatHub, its devices and GC Dispatcher (if deployed on rack).
      * <p>
-     * Checks if RedRatHub is on rack and has outdated health info or if GC Dispatcher is on rack
-     * If RedRatHub Health info is outdated, reprocess health
-     * If GC Dispatcher is on rack, reprocess health
+     * Snapshots are taken in the background by {@link com.cats.jobs.HealthSnapshotJob}, this call never
+     * talks to the hub or the devices. snapshotVersion and snapshotTime tell which refresh is served.
      *
      * @return JSON response information about hub/devices.
      */
@@ -95,22 +84,23 @@ public class HubHealthResource {
     })
     @RequestMapping(method = RequestMethod.GET, produces = "application/json")
     public HealthStatusBean getHealth() {
-        HubHealthBean healthBean = hhc.getHealthBean();
-        boolean hasHub = availableIRDependencies.checkHubHealth();
-        boolean hasGcDispatcher = availableIRDependencies.checkGCDispatcherHealth();
-        boolean reprocessHubHealth = hhc.isHubHealthOutdated(healthBean.getDevices(), factory);
-
-        if ((hasHub && reprocessHubHealth)) {
-            hhc.process();
-            healthBean = hhc.getHealthBean();
-        }
-
-        GCDispatcherHealthBean gcDispatcherHealthBean = null;
-        if (hasGcDispatcher) {
-            gcDispatcherHealthBean = gcDispatcherService.getHealth();
-        }
+        return snapshots.current().status();
+    }
 
-        return new HealthStatusBean(healthBean, gcDispatcherHealthBean);
+    /**
+     * Streams health changes as server-sent events, so clients do not have to poll the whole health.
+     * <p>
+     * The stream starts with a {@code snapshot} event holding the current health, or, when the client
+     * reconnects with {@code Last-Event-ID}, with the {@code diff} events it missed. Each later refresh that
+     * changes something sends one {@code diff} event. Event ids are the increasing snapshot versions.
+     */
+    @Operation(summary = "Stream IR health changes.", description = "Server-sent events: 'snapshot' with the current health (or missed 'diff' events when reconnecting with Last-Event-ID), then one 'diff' per change.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream")
+    })
+    @RequestMapping(value = "/events", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return snapshots.subscribe(lastEventId);
     }
 
     public void stats() {
@@ -23,9 +23,12 @@ import java.util.List;
 import java.util.StringTokenizer;
 
 import com.cats.configuration.IRDeviceConfig;
+import com.cats.dto.KeyResponse;
 import com.cats.ir.IRDevice;
 import com.cats.ir.IRDevicePort;
 import com.cats.ir.Remote;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
 import com.cats.ir.exception.CustomBadRequestException;
 import com.cats.service.CommandProcessor;
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,8 +40,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.ws.rs.DefaultValue;
-import jakarta.ws.rs.core.MediaType;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -46,8 +50,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.cats.service.RemoteProcessor;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
 
-import jakarta.ws.rs.core.Response;
 
 @RestController
 @Tag(name = "IR Device Control", description = "Control APIs for Power Devices on Rack.")
@@ -55,7 +60,6 @@ import jakarta.ws.rs.core.Response;
 public class IRDeviceResource {
 
     private final RemoteProcessor processor;
-    private final Integer MAX_DELAY = 30 * 1000; // 30 seconds in milliseconds
 
     public IRDeviceResource(RemoteProcessor processor) {
         this.processor = processor;
@@ -103,10 +107,10 @@ public class IRDeviceResource {
             @ApiResponse(responseCode = "400", description = "Device not found for given device id and port.")
     })
     @RequestMapping(value = "/get", method = RequestMethod.GET, produces = "text/plain")
-    public Response get(@Parameter(description = "Device Id") @PathVariable("device") String device,
+    public ResponseEntity<String> get(@Parameter(description = "Device Id") @PathVariable("device") String device,
                         @Parameter(description = "Port at which the device exists ") @PathVariable("port") String port) {
         validateDeviceAndPort(device, port);
-        return Response.ok("IR [Device=" + device + ", Port=" + port + "]", MediaType.TEXT_PLAIN).build();
+        return ResponseEntity.ok("IR [Device=" + device + ", Port=" + port + "]");
     }
 
     /**
@@ -120,16 +124,17 @@ public class IRDeviceResource {
     @Operation(summary = "Perform key press", description = "Perform IR key press for a given key set and remote command.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Device not found for given device id and port."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/pressKey", method = RequestMethod.POST, produces = "text/plain")
-    public Response pressKey(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/pressKey", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> pressKey(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                              @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                              @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                              @Parameter(description = "Command to be sent to device.") @RequestParam("command") String command) {
-        Response resp = null;
+        ResponseEntity<Object> resp = null;
         Remote remote;
         boolean keyPressOk;
 
@@ -138,9 +143,9 @@ public class IRDeviceResource {
         System.out.println("REMOTE: " + remote.getRemoteType());
         keyPressOk = remote.pressKey(command);
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
         return resp;
 
@@ -158,17 +163,18 @@ public class IRDeviceResource {
     @Operation(summary = "Performs IR key presses.", description = "Performs IR key presses.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Device not found for given device id and port."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/pressKeys", method = RequestMethod.POST, produces = "text/plain")
-    public Response pressKeys(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/pressKeys", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> pressKeys(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                               @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                               @Parameter(description = "KeySet to use for sending command to the device") @RequestParam("keySet") String keySet,
                               @Parameter(description = "List of commands to be sent to device") @RequestParam("commandList") String commandList,
                               @Parameter(description = "Delay between the commands in milliseconds.") @RequestParam("delayInMillis") Integer delay) {
-        Response resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -176,9 +182,9 @@ public class IRDeviceResource {
         remote = getRemote(device, port, keySet);
         keyPressOk = remote.pressKey(commandList, delay);
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
         return resp;
     }
@@ -195,17 +201,19 @@ public class IRDeviceResource {
     @Operation(summary = "Performs IR key press and hold.", description = "Perform IR key press and hold key for a specified time.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Device not found for given device id and port."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/pressKeyAndHold", method = RequestMethod.POST, produces = "text/plain")
-    public Response pressKeyAndHold(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @Scheduling(SchedulingClass.BATCH)
+    @RequestMapping(value = "/pressKeyAndHold", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> pressKeyAndHold(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                                     @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                                     @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                     @Parameter(description = "Command to be sent to device.") @RequestParam("command") String command,
                                     @Parameter(description = "Time for which key is held during key press.") @RequestParam("holdTime") String holdTime) {
-        Response resp = null;
+        ResponseEntity<Object> resp = null;
         Remote remote;
         boolean keyPressOk;
 
@@ -223,9 +231,9 @@ public class IRDeviceResource {
         remote = getRemote(device, port, keySet);
         keyPressOk = remote.pressKeyAndHold(command, Integer.parseInt(holdTime));
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
 
         return resp;
@@ -243,17 +251,19 @@ public class IRDeviceResource {
     @Operation(summary = "Performs IR key press and hold.", description = "Perform IR key press and hold key for a repeated duration.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Device not found for given device id and port."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/pressKeyAndHoldDuration", method = RequestMethod.POST, produces = "text/plain")
-    public Response pressKeyAndHoldDuration(@Parameter(description = "Device to send the command.")  @PathVariable("device") String device,
+    @Scheduling(SchedulingClass.BATCH)
+    @RequestMapping(value = "/pressKeyAndHoldDuration", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> pressKeyAndHoldDuration(@Parameter(description = "Device to send the command.")  @PathVariable("device") String device,
                                             @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                                             @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                             @Parameter(description = "Command to be sent to device") @RequestParam("command") String command,
                                             @Parameter(description = "Duration in seconds for repeat.") @RequestParam("holdTime") Integer durationSec) {
-        Response resp = null;
+        ResponseEntity<Object> resp = null;
         Remote remote;
         boolean keyPressOk;
 
@@ -272,9 +282,9 @@ public class IRDeviceResource {
         remote = getRemote(device, port, keySet);
         keyPressOk = remote.pressKeyAndHoldDuration(command, durationSec);
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
 
         return resp;
@@ -282,7 +292,6 @@ public class IRDeviceResource {
 
     /**
      * Press the sequence of keys with specified repeat count and delays in between.
-     * This delay will not account for delay associated with physical hardware sending the key.
      *
      * @param keySet      keyset/remote type to be specified.
      * @param commands    List of keys to be sent.
@@ -294,18 +303,19 @@ public class IRDeviceResource {
     @Operation(summary = "Performs IR key press and hold.", description = "Perform a sequence of key presses with specified repeat count and delays in between.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/customKeySeq", method = RequestMethod.POST, produces = "text/plain")
-    public Response enterCustomKeySequence(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/customKeySeq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> enterCustomKeySequence(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                                            @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                                            @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                            @Parameter(description = "List of commands to be sent.") @RequestParam("commands") String commands,
                                            @Parameter(description = "Delay between each of the keys.") @RequestParam("delay") String delay,
                                            @Parameter(description = "Repeat counts of each of the keys.") @RequestParam("repeatCount") String repeatCount) {
-        Response resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk = false;
 
@@ -325,10 +335,11 @@ public class IRDeviceResource {
         if (!commandList.isEmpty() && commandList.size() == delayList.size() &&
                 commandList.size() == countList.size()) {
             // Verify that any delays are not greater than max delay that would hang the system up.
+            int maxDelay = processor.getDeviceProfile(Integer.parseInt(device)).getMaxDelayMs();
             for (int delayMs : delayList) {
-                if (delayMs > MAX_DELAY) {
+                if (delayMs > maxDelay) {
                     throw new CustomBadRequestException("One of the delays is greater than the max delay supported. Delay: " +
-                            delayMs + "ms. and max delay possible is: " + MAX_DELAY + "ms.");
+                            delayMs + "ms. and max delay possible is: " + maxDelay + "ms.");
                 }
             }
         } else {
@@ -337,40 +348,32 @@ public class IRDeviceResource {
                     " | countList.size: " + countList.size());
         }
 
-        //Inputs are good - make the necessary key presses.
+        //Inputs are good - send the key presses as one program, so delays are scheduled from the sequence start.
+        CommandProgram.Builder program = CommandProgram.builder();
         for (int i = 0; i < commandList.size(); i++) {
             String command = commandList.get(i);
             Integer repeatNum = countList.get(i);
             Integer delayMs = delayList.get(i);
 
             if (repeatNum > 0) {
-                keyPressOk = remote.pressKeyAndHold(command, repeatNum);
+                program.holdRepeat(command, repeatNum);
             } else {
-                keyPressOk = remote.pressKey(command);
-            }
-
-            // If one of the key presses fails, do not do the remaining ones.
-            if (!keyPressOk) {
-                break;
-            }
-
-            try {
-                Thread.sleep(delayMs);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                program.press(command);
             }
+            program.delay(delayMs);
         }
+        // Execution stops at the first failing key press.
+        keyPressOk = remote.sendProgram(program.build());
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
         return resp;
     }
 
     /**
      * Press the sequence of keys with specified repeat count and delays in between.
-     * This delay will not account for delay associated with physical hardware sending the key.
      *
      * @param keySet      keyset/remote type to be specified
      * @param commandList List of commands with the required command, repeat count, and delays
@@ -381,12 +384,13 @@ public class IRDeviceResource {
     @Operation(summary = "Perform IR Remote Sequence.", description = "Perform a sequence of key presses with specified repeat count and delays in between that are not the delays associated with physical hardware sending the key.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/remoteCommandSeq", method = RequestMethod.POST, produces = "text/plain")
-    public Response enterRemoteCommandSequence(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/remoteCommandSeq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> enterRemoteCommandSequence(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                                                @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                                                @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                                @Parameter(description = "Command to be sent.") @RequestParam("command") List<String> commandList) {
@@ -426,18 +430,19 @@ public class IRDeviceResource {
     @Operation(summary = "Directly tune to a channel.", description = "Directly tune to a channel.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/tune", method = RequestMethod.POST, produces = "text/plain")
-    public Response tune(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/tune", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> tune(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                          @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                          @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                          @Parameter(description = "Channel number to tune to.") @RequestParam("channel") String channel,
                          @Parameter(description = "Define if autotune is enabled.") @RequestParam("autoTune") String autoTuneEnabled,
                          @Parameter(description = "Delay in milliseconds.") @RequestParam("delayInMillis") String delayInMillis) {
-        Response resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean channelTuneOk;
 
@@ -457,9 +462,9 @@ public class IRDeviceResource {
         remote.setDelay(Integer.parseInt(delayInMillis));
         channelTuneOk = remote.tune(channel);
         if (channelTuneOk) {
-            resp = Response.ok(channelTuneOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, channelTuneOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(channelTuneOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, channelTuneOk);
         }
         return resp;
     }
@@ -475,16 +480,17 @@ public class IRDeviceResource {
     @Operation(summary = "Send Text String", description = "Sends text and the text must be a numeric string.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/sendText", method = RequestMethod.POST, produces = "text/plain")
-    public Response sendText(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/sendText", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> sendText(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                              @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                              @Parameter(description = "KeySet to use for sending command to the device.")  @RequestParam("keySet") String keySet,
                              @Parameter(description = "Text to be sent to the device.")  @RequestParam("string") String text) {
-        Response resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean textSendOk;
 
@@ -502,9 +508,9 @@ public class IRDeviceResource {
         remote = getRemote(device, port, keySet);
         textSendOk = remote.sendText(text);
         if (textSendOk) {
-            resp = Response.ok(textSendOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, textSendOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(textSendOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, textSendOk);
         }
         return resp;
     }
@@ -520,7 +526,8 @@ public class IRDeviceResource {
     @Operation(summary = " Sends the IR code.", description = "Sends the IR code. Note that the code is sent as the payload of the REST request.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
@@ -544,17 +551,18 @@ public class IRDeviceResource {
     @Operation(summary = " Perform transmission of key commands faster.", description = "Command to perform transmission of key commands faster for common use cases.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please update and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
-    @RequestMapping(value = "/seq", method = RequestMethod.POST, produces = "text/plain")
-    public Response seq(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+    @RequestMapping(value = "/seq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> seq(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
                         @Parameter(description = "Port of the device.") @PathVariable("port") String port,
                         @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                         @Parameter(description = "Command to be sent.") @RequestParam("command") String command,
                         @Parameter(description = "Device to send the command.") @DefaultValue("500") @RequestParam("delay") Integer delay) {
-        Response resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -568,13 +576,52 @@ public class IRDeviceResource {
         remote = getRemote(device, port, keySet);
         keyPressOk = remote.pressKeys(commands, delay);
         if (keyPressOk) {
-            resp = Response.ok(keyPressOk, MediaType.TEXT_PLAIN).build();
+            resp = KeyResponses.respond(HttpStatus.OK, keyPressOk);
         } else {
-            resp = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(keyPressOk).build();
+            resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, keyPressOk);
         }
         return resp;
     }
 
+    /**
+     * Sends a shorthand key sequence such as {@code G D*5 O ~200 P:hold3}.
+     * The sequence is compiled once and cached, syntax errors are rejected before any key is sent.
+     *
+     * @param keySet  remote key set to use during transmission.
+     * @param command shorthand sequence.
+     * @param delay   Delay in milliseconds after each key without an explicit delay. Default is 500ms.
+     *
+     * @return true if all commands executed successfully, false at the first failing command
+     */
+    @Operation(summary = "Send a shorthand key sequence.", description = "Keys are separated by spaces or commas. A key is a single character alias as in /seq, a key name or a run of digits. Modifiers: *N repeats, :holdN holds for N repeats, :holdNs holds for N seconds. ~N waits N milliseconds.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = Boolean.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid sequence. Please update and retry request."),
+            @ApiResponse(responseCode = "404", description = "Device/Port not found.")
+    })
+    @RequestMapping(value = "/shorthand", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> shorthand(@Parameter(description = "Device to send the command.") @PathVariable("device") String device,
+                              @Parameter(description = "Port of the device.") @PathVariable("port") String port,
+                              @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
+                              @Parameter(description = "Shorthand sequence, e.g. G D*5 O ~200 P:hold3") @RequestParam("command") String command,
+                              @Parameter(description = "Delay in milliseconds between keys. Default is 500ms.") @RequestParam(value = "delay", defaultValue = "500") Integer delay) {
+        validateDeviceAndPort(device, port);
+        if (!isStringArgValid(keySet, command)) {
+            throw new CustomBadRequestException("Arguments either null or empty. keySet: " +
+                    keySet + ", command: " + command);
+        }
+
+        CommandProgram program = ShorthandCompiler.compile(command, delay,
+                ShorthandCompiler.Limits.of(processor.getDeviceProfile(Integer.parseInt(device))));
+        Remote remote = getRemote(device, port, keySet);
+        if (remote.sendProgram(program)) {
+            return KeyResponses.respond(HttpStatus.OK, true);
+        }
+        return KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
+    }
+
     /**
      * Verifies if a set of commands are valid.
      *
@@ -22,8 +22,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
 
+import com.cats.dto.KeyResponse;
+import com.cats.configuration.DeviceProfile;
 import com.cats.configuration.IRDeviceConfig;
 import com.cats.ir.Remote;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
 import com.cats.ir.exception.CustomBadRequestException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,7 +36,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.annotation.PostConstruct;
 import jakarta.ws.rs.DefaultValue;
 
 import com.cats.service.CommandProcessor;
@@ -41,8 +44,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.cats.configuration.IRConfiguration;
 import com.cats.service.RemoteProcessor;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
 
 /**
  * Defines REST API paths and actions to make IR requests to IrNetBox ports.
@@ -54,17 +58,6 @@ public class IRResource {
 
     @Autowired
     RemoteProcessor processor;
-    @Autowired
-    IRConfiguration irconfig;
-    private final Integer MAX_DELAY = 30 * 1000; // 30 seconds in milliseconds
-    //if read time out is set at 15000 we would support 15000/100 -50 repeat count
-    private final Integer REPEATCOUNT_READTIMEOUT_OFFSET = 30;
-    private int MAX_REPEAT_COUNT = 100;
-
-    @PostConstruct
-    public void init() {
-        MAX_REPEAT_COUNT = Integer.parseInt(irconfig.getRedRatHubReadTimeout()) / 100 - REPEATCOUNT_READTIMEOUT_OFFSET;
-    }
 
     /**
      * Gets a LocalRemote with a connection to a port of an IRNetBox device.
@@ -108,15 +101,16 @@ public class IRResource {
     @Operation(summary = "Perform IR key press", description = "Perform IR key press for a given keyset and remote command.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/pressKey", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> pressKey(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> pressKey(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                            @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam String keySet,
                                            @Parameter(description = "Command passed to the device.") @RequestParam String command) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -125,12 +119,12 @@ public class IRResource {
         try {
             keyPressOk = remote.pressKey(command);
             if (keyPressOk) {
-                resp = ResponseEntity.ok(Boolean.TRUE.toString());
+                resp = KeyResponses.respond(HttpStatus.OK, true);
             } else {
-                resp = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                resp = KeyResponses.respond(HttpStatus.INTERNAL_SERVER_ERROR, null);
             }
         } catch (IllegalArgumentException e) {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
 
         return resp;
@@ -144,16 +138,17 @@ public class IRResource {
     @Operation(summary = "Performs IR key presses.", description = "Performs IR key presses.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please check device details and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/pressKeys", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> pressKeys(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> pressKeys(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                             @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                             @Parameter(description = "List of commands passed to the device.") @RequestParam("commandList") String commandList,
                                             @Parameter(description = "Delay in milliseconds.") @RequestParam("delayInMillis") Integer delay) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -161,9 +156,9 @@ public class IRResource {
         remote = getRemote(slot, keySet);
         keyPressOk = remote.pressKey(commandList, delay);
         if (keyPressOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
@@ -175,16 +170,18 @@ public class IRResource {
     @Operation(summary = "Performs IR key press and hold.", description = "Perform IR key press and hold key for specified time.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please check device ID and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
+    @Scheduling(SchedulingClass.BATCH)
     @RequestMapping(value = "/pressKeyAndHold", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> pressKeyAndHold(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> pressKeyAndHold(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                                   @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                                   @Parameter(description = "Command passed to the device.") @RequestParam("command") String command,
                                                   @Parameter(description = "Time for which key is held during key press.") @RequestParam("holdTime") String holdTime) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -197,16 +194,17 @@ public class IRResource {
         if (!holdTime.matches("\\d+")) {
             throw new CustomBadRequestException("HoldTime is not numeric.");
         }
-        if (Integer.parseInt(holdTime) > MAX_REPEAT_COUNT) {
-            throw new CustomBadRequestException("Unable to process pressAndHold repeat count greater than " + MAX_REPEAT_COUNT);
+        int maxRepeatCount = processor.getProfile(slot).getMaxRepeatCount();
+        if (Integer.parseInt(holdTime) > maxRepeatCount) {
+            throw new CustomBadRequestException("Unable to process pressAndHold repeat count greater than " + maxRepeatCount);
         }
 
         remote = getRemote(slot, keySet);
         keyPressOk = remote.pressKeyAndHold(command, Integer.parseInt(holdTime));
         if (keyPressOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
@@ -217,16 +215,18 @@ public class IRResource {
     @Operation(summary = "Perform key press and hold.", description = "Press IR key and hold it for a specified duration.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please check device details and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
+    @Scheduling(SchedulingClass.BATCH)
     @RequestMapping(value = "/pressKeyAndHoldDuration", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> pressKeyAndHoldDuration(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> pressKeyAndHoldDuration(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                                           @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                                           @Parameter(description = "Command passed to the device.") @RequestParam("command") String command,
                                                           @Parameter(description = "Time for which key is held during key press.") @RequestParam("holdTime") Integer durationSec) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -239,25 +239,25 @@ public class IRResource {
         if (durationSec == null) {
             throw new CustomBadRequestException("holdTime is null. Include this parameter in your next request.");
         }
-        int readTimeout = Integer.getInteger("readrat.read.timeout");
-        if (durationSec >= readTimeout / 1000) {
+        int maxHoldSeconds = processor.getProfile(slot).getMaxHoldSeconds();
+        if (durationSec > maxHoldSeconds) {
             throw new CustomBadRequestException(
-                    "Cannot process reqeust,pressKey duration is greater than or equal to the configured read time out");
+                    "Cannot process reqeust,pressKey duration is greater than the max hold of " + maxHoldSeconds
+                            + "s allowed by the read time out of the device");
         }
 
         remote = getRemote(slot, keySet);
         keyPressOk = remote.pressKeyAndHoldDuration(command, durationSec);
         if (keyPressOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
 
     /**
      * Press the sequence of keys with specified repeat count and delays in between.
-     * This delay will not account for delay associated with physical hardware sending the key.
      *
      * @param keySet      keyset/remote type to be specified.
      * @param commands    List of keys to be sent.
@@ -268,17 +268,18 @@ public class IRResource {
     @Operation(summary = "Perform key press and hold for specified duration with delays.", description = "Press the sequence of keys with specified repeat count and delays in between.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "Invalid Request. Please check device details and retry request."),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/customKeySeq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> enterCustomKeySequence(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> enterCustomKeySequence(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                                          @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                                          @Parameter(description = "List of commands passed to the device.") @RequestParam("commands") String commands,
                                                          @Parameter(description = "Delay between each key press.") @RequestParam("delay") String delay,
                                                          @Parameter(description = "Repeat counts of each of the keys.") @RequestParam("repeatCount") String repeatCount) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk = false;
 
@@ -293,9 +294,10 @@ public class IRResource {
         List<String> commandList = getRemoteCommandList(commands);
         List<Integer> delayList = getIntegerList(delay);
         List<Integer> countList = getIntegerList(repeatCount);
+        DeviceProfile profile = processor.getProfile(slot);
         for (Integer count : countList) {
-            if (count > MAX_REPEAT_COUNT) {
-                throw new CustomBadRequestException("One of the repeat counts is greater than the max allowed value :" + MAX_REPEAT_COUNT);
+            if (count > profile.getMaxRepeatCount()) {
+                throw new CustomBadRequestException("One of the repeat counts is greater than the max allowed value :" + profile.getMaxRepeatCount());
             }
         }
 
@@ -304,9 +306,9 @@ public class IRResource {
                 commandList.size() == countList.size()) {
             // Verify that any delays are not greater than max delay that would hang the system up.
             for (int delayMs : delayList) {
-                if (delayMs > MAX_DELAY) {
+                if (delayMs > profile.getMaxDelayMs()) {
                     throw new CustomBadRequestException("One of the delays is greater than the max delay supported. Delay: " +
-                            delayMs + "ms. and max delay possible is: " + MAX_DELAY + "ms.");
+                            delayMs + "ms. and max delay possible is: " + profile.getMaxDelayMs() + "ms.");
                 }
             }
         } else {
@@ -315,51 +317,44 @@ public class IRResource {
                     " | countList.size: " + countList.size());
         }
 
-        //Inputs are good - make the necessary key presses.
+        //Inputs are good - send the key presses as one program, so delays are scheduled from the sequence start.
+        CommandProgram.Builder program = CommandProgram.builder();
         for (int i = 0; i < commandList.size(); i++) {
             String command = commandList.get(i);
             Integer repeatNum = countList.get(i);
             Integer delayMs = delayList.get(i);
 
             if (repeatNum > 0) {
-                keyPressOk = remote.pressKeyAndHold(command, repeatNum);
+                program.holdRepeat(command, repeatNum);
             } else {
-                keyPressOk = remote.pressKey(command);
-            }
-
-            // If one of the key presses fails, do not do the remaining ones.
-            if (!keyPressOk) {
-                break;
-            }
-
-            try {
-                Thread.sleep(delayMs);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                program.press(command);
             }
+            program.delay(delayMs);
         }
+        // Execution stops at the first failing key press.
+        keyPressOk = remote.sendProgram(program.build());
         if (keyPressOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
 
     /**
      * Press the sequence of keys with specified repeat count and delays in between.
-     * This delay will not account for delay associated with physical hardware sending the key.
      *
      */
     @Operation(summary = "Perform sequence of key presses with specified repeat count and delays.", description = "Press the sequence of keys with specified repeat count and delays in between with remote commands.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "IR devices not found"),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/remoteCommandSeq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> enterRemoteCommandSequence(@Parameter(description = "Device Rack.") @PathVariable("rack") String rack,
+    public ResponseEntity<Object> enterRemoteCommandSequence(@Parameter(description = "Device Rack.") @PathVariable("rack") String rack,
                                                              @Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                                              @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                                              @Parameter(description = "List of commands with the required command, repeat count and delays in between.")
@@ -395,17 +390,18 @@ public class IRResource {
     @Operation(summary = "Direct tune to a channel.", description = "Direct tune to a channel.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "IR devices not found"),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/tune", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> tune( @Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> tune( @Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                        @Parameter(description = "Key set passed.") @RequestParam("keySet") String keySet,
                                        @Parameter(description = "Channel number to tune to.") @RequestParam("channel") String channel,
                                        @Parameter(description = "Whether autotune is enabled or not.") @RequestParam("autoTune") String autoTuneEnabled,
                                        @Parameter(description = "Delay in milliseconds .") @RequestParam("delayInMillis") String delayInMillis) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean channelTuneOk;
 
@@ -425,9 +421,9 @@ public class IRResource {
         remote.setDelay(Integer.parseInt(delayInMillis));
         channelTuneOk = remote.tune(channel);
         if (channelTuneOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
@@ -442,15 +438,16 @@ public class IRResource {
     @Operation(summary = "Sends numeric text string.", description = "Sends text and the text must be a numeric string.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful",
-                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)) }),
+                    content = { @Content(mediaType = "text/plain", schema = @Schema(implementation = String.class)),
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = KeyResponse.class)) }),
             @ApiResponse(responseCode = "400", description = "IR devices not found"),
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/sendText", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> sendText(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> sendText(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                            @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                            @Parameter(description = "String to be entered.") @RequestParam("string") String text) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean textSendOk;
 
@@ -468,9 +465,9 @@ public class IRResource {
         remote = getRemote(slot, keySet);
         textSendOk = remote.sendText(text);
         if (textSendOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
@@ -510,11 +507,11 @@ public class IRResource {
             @ApiResponse(responseCode = "404", description = "Device/Port not found.")
     })
     @RequestMapping(value = "/seq", method = RequestMethod.POST, produces = {"text/plain","application/json"})
-    public ResponseEntity<String> seq(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+    public ResponseEntity<Object> seq(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
                                       @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
                                       @Parameter(description = "Command passed to the device.") @RequestParam("command") String command,
                                       @Parameter(description = "Delay in milliseconds between keys. Default is 500ms.") @DefaultValue("500") @RequestParam("delay") Integer delay) {
-        ResponseEntity<String> resp;
+        ResponseEntity<Object> resp;
         Remote remote;
         boolean keyPressOk;
 
@@ -528,13 +525,49 @@ public class IRResource {
         remote = getRemote(slot, keySet);
         keyPressOk = remote.pressKeys(commands, delay);
         if (keyPressOk) {
-            resp = ResponseEntity.ok(Boolean.TRUE.toString());
+            resp = KeyResponses.respond(HttpStatus.OK, true);
         } else {
-            resp = ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+            resp = KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
         }
         return resp;
     }
 
+    /**
+     * Sends a shorthand key sequence such as {@code G D*5 O ~200 P:hold3}.
+     * The sequence is compiled once and cached, syntax errors are rejected before any key is sent.
+     *
+     * @param keySet  remote key set to use during transmission.
+     * @param command shorthand sequence.
+     * @param delay   Delay in milliseconds after each key without an explicit delay. Default is 500ms.
+     * @return true if all commands executed successfully, false at the first failing command
+     */
+    @Operation(summary = "Send a shorthand key sequence.", description = "Keys are separated by spaces or commas. A key is a single character alias as in /seq, a key name or a run of digits. Modifiers: *N repeats, :holdN holds for N repeats, :holdNs holds for N seconds. ~N waits N milliseconds.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = String.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid sequence or IR devices not found"),
+            @ApiResponse(responseCode = "404", description = "Device/Port not found.")
+    })
+    @RequestMapping(value = "/shorthand", method = RequestMethod.POST, produces = {"text/plain","application/json"})
+    public ResponseEntity<Object> shorthand(@Parameter(description = "Device Slot.") @PathVariable("slot") String slot,
+                                            @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
+                                            @Parameter(description = "Shorthand sequence, e.g. G D*5 O ~200 P:hold3") @RequestParam("command") String command,
+                                            @Parameter(description = "Delay in milliseconds between keys. Default is 500ms.") @RequestParam(value = "delay", defaultValue = "500") Integer delay) {
+        validateSlot(slot);
+        if (!isStringArgValid(keySet, command)) {
+            throw new CustomBadRequestException("Arguments either null or empty. keySet: " +
+                    keySet + ", command: " + command);
+        }
+
+        CommandProgram program = ShorthandCompiler.compile(command, delay,
+                ShorthandCompiler.Limits.of(processor.getProfile(slot)));
+        Remote remote = getRemote(slot, keySet);
+        if (remote.sendProgram(program)) {
+            return KeyResponses.respond(HttpStatus.OK, true);
+        }
+        return KeyResponses.respond(HttpStatus.BAD_REQUEST, false);
+    }
+
     /**
      * Verifies if a set of commands are valid.
      *
@@ -0,0 +1,84 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.dto.KeyResponse;
+import com.cats.ir.context.RequestContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Builds the response of a key request: "true"/"false" as text/plain by default, or a
+ * {@link KeyResponse} with the timing breakdown when the client prefers application/json.
+ */
+final class KeyResponses {
+
+    private KeyResponses() {
+    }
+
+    /**
+     * @param result the text body, or null for an empty text response.
+     */
+    static ResponseEntity<Object> respond(HttpStatus status, Boolean result) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (wantsJson()) {
+            boolean ok = status.is2xxSuccessful() && !Boolean.FALSE.equals(result);
+            return builder.contentType(MediaType.APPLICATION_JSON)
+                    .body(KeyResponse.of(ok, RequestContext.current().getTiming()));
+        }
+        return result == null ? builder.build() : builder.contentType(MediaType.TEXT_PLAIN).body(result.toString());
+    }
+
+    /**
+     * True if the Accept header names application/json with at least the quality of text/plain.
+     * Wildcards keep the text response existing clients expect.
+     */
+    static boolean wantsJson() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(MediaType.APPLICATION_JSON_VALUE)) {
+            return false;
+        }
+        double json = -1;
+        double text = -1;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, type.getQualityValue());
+                } else if (type.equalsTypeAndSubtype(MediaType.TEXT_PLAIN)) {
+                    text = Math.max(text, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return json > 0 && json >= text;
+    }
+}
@@ -0,0 +1,189 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.Remote;
+import com.cats.ir.admission.FairShare;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.service.RemoteProcessor;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebSocket channel for streaming keys with little per key overhead.
+ * <p>
+ * Connect to {@code /ws/keys?slot=3&keySet=XR15} to bind a slot and keyset for the whole session and send
+ * frames of {@code id|sequence}, or connect to {@code /ws/keys} and send {@code id|slot|keySet|sequence}.
+ * The sequence uses the shorthand syntax of {@link ShorthandCompiler}; an optional {@code delay} query
+ * parameter sets the gap between keys (default 100ms).
+ * <p>
+ * Every frame is answered with {@code ok|id|totalMs|hardwareMs}, {@code fail|id|totalMs} when the device
+ * rejected a key, or {@code err|id|message}. Frames of a session run one at a time in order; open one
+ * session per slot to drive several slots in parallel.
+ */
+public class KeyStreamEndpoint extends Endpoint {
+    private static final Logger logger = LoggerFactory.getLogger(KeyStreamEndpoint.class);
+
+    public static final String PATH = "/ws/keys";
+    // User property holding the client id found at handshake.
+    public static final String CLIENT_ID = "irms.clientId";
+
+    private static final int DEFAULT_DELAY = 100;
+
+    private final RemoteProcessor processor;
+    private final long frameTimeoutMs;
+    private final long idleTimeoutMs;
+    private final int maxFrameChars;
+
+    // Slot and keyset bound at connect time, null for a multiplexed session.
+    private String boundSlot;
+    private String boundKeySet;
+    private int delay = DEFAULT_DELAY;
+    private String clientId = FairShare.ANONYMOUS;
+
+    public KeyStreamEndpoint(RemoteProcessor processor, long frameTimeoutMs, long idleTimeoutMs, int maxFrameChars) {
+        this.processor = processor;
+        this.frameTimeoutMs = frameTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxFrameChars = maxFrameChars;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        session.setMaxTextMessageBufferSize(maxFrameChars);
+        session.setMaxIdleTimeout(idleTimeoutMs);
+        Object client = config.getUserProperties().get(CLIENT_ID);
+        if (client != null) {
+            clientId = client.toString();
+        }
+        Map<String, List<String>> params = session.getRequestParameterMap();
+        boundSlot = first(params, "slot");
+        boundKeySet = first(params, "keySet");
+        try {
+            if ((boundSlot == null) != (boundKeySet == null)) {
+                throw new IllegalArgumentException("slot and keySet must be given together");
+            }
+            if (boundSlot != null) {
+                remote(boundSlot, boundKeySet);
+            }
+            String delayParam = first(params, "delay");
+            if (delayParam != null) {
+                delay = Integer.parseInt(delayParam);
+                // A multiplexed session checks the delay against the profile of each frame's slot.
+                int maxDelay = boundSlot != null ? limits(boundSlot).maxDelayMs() : Integer.MAX_VALUE;
+                if (delay < 0 || delay > maxDelay) {
+                    throw new IllegalArgumentException("delay must be 0 to " + maxDelay + "ms");
+                }
+            }
+        } catch (RuntimeException e) {
+            close(session, new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, e.getMessage()));
+            return;
+        }
+        session.addMessageHandler(String.class, frame -> onFrame(session, frame));
+        logger.info("Key stream {} opened, slot {} keySet {}", session.getId(), boundSlot, boundKeySet);
+    }
+
+    private void onFrame(Session session, String frame) {
+        String[] parts = frame.split("\\|", boundSlot != null ? 2 : 4);
+        String id = parts[0].trim();
+        if (parts.length != (boundSlot != null ? 2 : 4)) {
+            reply(session, "err|" + id + "|expected " + (boundSlot != null ? "id|sequence" : "id|slot|keySet|sequence"));
+            return;
+        }
+        String slot = boundSlot != null ? boundSlot : parts[1].trim();
+        String keySet = boundKeySet != null ? boundKeySet : parts[2].trim();
+        String sequence = parts[parts.length - 1];
+
+        RequestContext context = new RequestContext(Deadline.afterMillis(frameTimeoutMs));
+        context.setClientId(clientId);
+        long start = System.nanoTime();
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            Remote remote = remote(slot, keySet);
+            CommandProgram program = ShorthandCompiler.compile(sequence, delay, limits(slot));
+            boolean ok = remote.sendProgram(program);
+            String totalMs = String.valueOf((System.nanoTime() - start) / 1_000_000);
+            if (ok) {
+                String hardwareMs = context.getTiming().hardwareDurationMillis();
+                reply(session, "ok|" + id + "|" + totalMs + "|" + (hardwareMs != null ? hardwareMs : "0"));
+            } else {
+                reply(session, "fail|" + id + "|" + totalMs);
+            }
+        } catch (RuntimeException e) {
+            String message = String.valueOf(e.getMessage()).replace('\n', ' ').replace('|', '/');
+            reply(session, "err|" + id + "|" + message);
+        }
+    }
+
+    /**
+     * Resolves the remote for every frame, so a session follows topology and slot mapping reloads.
+     */
+    private Remote remote(String slot, String keySet) {
+        if (!processor.validateSlot(slot)) {
+            throw new IllegalArgumentException("Requested slot is not valid.");
+        }
+        return processor.getRemote(slot, keySet);
+    }
+
+    private ShorthandCompiler.Limits limits(String slot) {
+        return ShorthandCompiler.Limits.of(processor.getProfile(slot));
+    }
+
+    private void reply(Session session, String text) {
+        try {
+            session.getBasicRemote().sendText(text);
+        } catch (IOException e) {
+            logger.debug("Could not reply on key stream {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void close(Session session, CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (IOException e) {
+            logger.debug("Could not close key stream {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        logger.info("Key stream {} closed: {}", session.getId(), closeReason.getReasonPhrase());
+    }
+
+    @Override
+    public void onError(Session session, Throwable error) {
+        logger.warn("Key stream {} error: {}", session.getId(), error.getMessage());
+    }
+
+    private static String first(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.cats.dto.MacroDto;
+import com.cats.ir.Remote;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.exception.CustomBadRequestException;
+import com.cats.service.MacroService;
+import com.cats.service.RemoteProcessor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Resource for managing named macros and running them against a slot.
+ */
+@RestController
+@Tag(name = "Macros", description = "Named, server side shorthand key sequences.")
+@RequestMapping("/macros")
+public class MacroResource {
+
+    @Autowired
+    private MacroService macroService;
+
+    @Autowired
+    private RemoteProcessor processor;
+
+    @Operation(summary = "List macros.", description = "List all defined macros.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = MacroDto.class))) })
+    })
+    @RequestMapping(value = "", method = RequestMethod.GET, produces = "application/json")
+    public List<MacroDto> getMacros() {
+        return macroService.getMacros();
+    }
+
+    @Operation(summary = "Get a macro.", description = "Get the definition of a macro.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = MacroDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Macro not defined.")
+    })
+    @RequestMapping(value = "/{name}", method = RequestMethod.GET, produces = "application/json")
+    public MacroDto getMacro(@Parameter(description = "Macro name.") @PathVariable("name") String name) {
+        return macroService.getMacro(name);
+    }
+
+    /**
+     * Creates or replaces a macro. The body holds the shorthand sequence, e.g. {@code X ${channel} O ~2000 I}.
+     */
+    @Operation(summary = "Define a macro.", description = "Create or replace a macro. The sequence uses the /shorthand syntax and may contain ${param} placeholders.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = MacroDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid name or sequence.")
+    })
+    @RequestMapping(value = "/{name}", method = RequestMethod.POST, consumes = "text/plain", produces = "application/json")
+    public MacroDto defineMacro(@Parameter(description = "Macro name.") @PathVariable("name") String name,
+                                @Parameter(description = "Shorthand sequence.") @RequestBody String sequence,
+                                @Parameter(description = "Delay in milliseconds between keys. Default is 0.") @RequestParam(value = "delay", defaultValue = "0") Integer delay,
+                                @Parameter(description = "Description of the macro.") @RequestParam(value = "description", required = false) String description) throws IOException {
+        return macroService.define(new MacroDto(name, sequence.trim(), delay, description));
+    }
+
+    @Operation(summary = "Delete a macro.", description = "Delete a macro.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Macro deleted successfully."),
+            @ApiResponse(responseCode = "400", description = "Macro not defined.")
+    })
+    @RequestMapping(value = "/{name}", method = RequestMethod.DELETE)
+    public void deleteMacro(@Parameter(description = "Macro name.") @PathVariable("name") String name) throws IOException {
+        macroService.remove(name);
+    }
+
+    /**
+     * Runs a macro against a slot. Query parameters other than slot and keySet fill the macro placeholders.
+     *
+     * @return true if all commands executed successfully, false at the first failing command
+     */
+    @Operation(summary = "Run a macro.", description = "Run a macro against a slot. Query parameters other than slot and keySet fill the macro placeholders.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = String.class)) }),
+            @ApiResponse(responseCode = "400", description = "Macro not defined, invalid parameters or slot.")
+    })
+    @RequestMapping(value = "/{name}/run", method = RequestMethod.POST, produces = {"text/plain", "application/json"})
+    public ResponseEntity<String> runMacro(@Parameter(description = "Macro name.") @PathVariable("name") String name,
+                                           @Parameter(description = "Device Slot.") @RequestParam("slot") String slot,
+                                           @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
+                                           @Parameter(hidden = true) @RequestParam Map<String, String> parameters) {
+        if (!processor.validateSlot(slot)) {
+            throw new CustomBadRequestException("Requested slot is not valid.");
+        }
+        CommandProgram program = macroService.program(name, parameters);
+        Remote remote = processor.getRemote(slot, keySet);
+        if (remote.sendProgram(program)) {
+            return ResponseEntity.ok(Boolean.TRUE.toString());
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Boolean.FALSE.toString());
+    }
+}
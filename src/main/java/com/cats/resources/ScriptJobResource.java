@@ -0,0 +1,129 @@
+package com.cats.resources;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.List;
+
+import com.cats.ir.exception.CustomBadRequestException;
+import com.cats.service.RemoteProcessor;
+import com.cats.service.ScriptJob;
+import com.cats.service.ScriptJobService;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Asynchronous script API. A script is submitted as a job and followed by polling or server-sent events.
+ */
+@RestController
+@Tag(name = "Script jobs", description = "Run groovy scripts that make IR requests as asynchronous jobs.")
+@Scheduling(SchedulingClass.BATCH)
+@RequestMapping("/scripts/jobs")
+public class ScriptJobResource {
+
+    @Autowired
+    private ScriptJobService jobService;
+
+    @Autowired
+    private RemoteProcessor processor;
+
+    /**
+     * Compiles and queues a script against a slot, returning the job without waiting for it to run.
+     */
+    @Operation(summary = "Submit a script job.", description = "Compile and queue a groovy script that makes IR requests. Returns the job immediately.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job queued",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ScriptJob.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid slot or script does not compile."),
+            @ApiResponse(responseCode = "429", description = "Too many scripts running.")
+    })
+    @RequestMapping(value = "", method = RequestMethod.POST, consumes = "text/plain", produces = "application/json")
+    public ResponseEntity<ScriptJob> submit(@Parameter(description = "Device Slot.") @RequestParam("slot") String slot,
+                                            @Parameter(description = "KeySet to use for sending command to the device.") @RequestParam("keySet") String keySet,
+                                            @Parameter(description = "Groovy script.") @RequestBody String script) {
+        if (!processor.validateSlot(slot)) {
+            throw new CustomBadRequestException
+                    ("Requested slot is not valid. Please choose a number between 1 and " + processor.numSlots() + ".");
+        }
+        if (script == null || script.isBlank()) {
+            throw new CustomBadRequestException
+                    ("No script was provided. Please submit a script to be executed as plain text in a POST body.");
+        }
+        ScriptJob job = jobService.submit(script, slot, keySet, processor.getRemote(slot, keySet));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @Operation(summary = "List script jobs.", description = "List known script jobs, most recent first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ScriptJob.class))) })
+    })
+    @RequestMapping(value = "", method = RequestMethod.GET, produces = "application/json")
+    public List<ScriptJob> getJobs() {
+        return jobService.getJobs();
+    }
+
+    @Operation(summary = "Get a script job.", description = "Get the state, outcome and recent steps of a script job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ScriptJob.class)) }),
+            @ApiResponse(responseCode = "400", description = "Job not found.")
+    })
+    @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = "application/json")
+    public ScriptJob getJob(@Parameter(description = "Job id.") @PathVariable("id") String id) {
+        return jobService.getJob(id);
+    }
+
+    /**
+     * Streams a job as server-sent events: {@code state}, one {@code step} per recorded stage and a final {@code done}.
+     */
+    @Operation(summary = "Stream script job progress.", description = "Server-sent events: 'state', then one 'step' per IR round trip or delay, then 'done' with the finished job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream"),
+            @ApiResponse(responseCode = "400", description = "Job not found.")
+    })
+    @RequestMapping(value = "/{id}/events", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@Parameter(description = "Job id.") @PathVariable("id") String id) {
+        return jobService.events(id);
+    }
+
+    @Operation(summary = "Cancel a script job.", description = "Cancel a queued or running script job.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation successful",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ScriptJob.class)) }),
+            @ApiResponse(responseCode = "400", description = "Job not found.")
+    })
+    @RequestMapping(value = "/{id}", method = RequestMethod.DELETE, produces = "application/json")
+    public ScriptJob cancel(@Parameter(description = "Job id.") @PathVariable("id") String id) {
+        return jobService.cancel(id);
+    }
+}
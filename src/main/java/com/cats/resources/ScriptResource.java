@@ -38,9 +38,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.cats.service.RemoteProcessor;
-
-import groovy.lang.GroovyShell;
-import groovy.lang.Script;
+import com.cats.service.ScriptService;
+import com.cats.ir.context.Scheduling;
+import com.cats.ir.context.SchedulingClass;
 
 /**
  * Defines REST API path to make IR requests to IrNetBox ports using a groovy script.
@@ -49,13 +49,17 @@ import groovy.lang.Script;
 @RestController
 @Tag(name = "REST API path to make IR requests to IrNetBox",
         description = "Defines REST API path to make IR requests to IrNetBox ports using a groovy script.")
+@Scheduling(SchedulingClass.BATCH)
 @RequestMapping("/rest/{rack}/{slot}/script/{keySet}")
 public class ScriptResource {
 
     private RemoteProcessor processor;
 
-    public ScriptResource(RemoteProcessor processor) {
+    private ScriptService scriptService;
+
+    public ScriptResource(RemoteProcessor processor, ScriptService scriptService) {
         this.processor = processor;
+        this.scriptService = scriptService;
     }
 
     /**
@@ -91,12 +95,15 @@ public class ScriptResource {
      * @param script The script to be executed.
      * @return 200 if script executes without timeout/exceptions.
      * @throws CustomInternalErrorException if script throws an exception when executing.
+     * @throws com.cats.ir.exception.DeadlineExceededException if the script does not finish in time.
      */
     @Operation(summary = "Runs a groovy script that makes IR requests.", description = "Runs a groovy script that makes IR requests.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Operation successful"),
             @ApiResponse(responseCode = "400", description = "Exception while executing the script."),
-            @ApiResponse(responseCode = "404", description = "Device/Port not found.")
+            @ApiResponse(responseCode = "404", description = "Device/Port not found."),
+            @ApiResponse(responseCode = "429", description = "Too many scripts running."),
+            @ApiResponse(responseCode = "504", description = "Script did not finish in time.")
     })
     @RequestMapping(value = "/", method = RequestMethod.POST)
     public Response runMacro(@Parameter(description = "Device Rack.") @RequestParam("rack") String rack,
@@ -111,27 +118,7 @@ public class ScriptResource {
                     ("No script was provided. Please submit a script to be executed as plain text in a POST body.");
         }
 
-        GroovyShell shell = new GroovyShell();
-        shell.setVariable("remote", getRemote(slot, keyset));
-        Thread thread = new Thread() {
-            public void run() {
-                Script validatedScript = shell.parse(script);
-                try {
-                    validatedScript.run();
-                } catch (Exception e) {
-                    throw new CustomInternalErrorException("An error occurred during script execution: " + e.getMessage());
-                }
-            }
-        };
-        thread.start();
-        try {
-            thread.join(1000 * 60);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        if (thread.isAlive()) {
-            thread.interrupt();
-        }
+        scriptService.run(script, getRemote(slot, keyset));
 
         return Response.ok().build();
     }
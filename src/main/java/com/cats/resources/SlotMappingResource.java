@@ -79,8 +79,7 @@ public class SlotMappingResource {
     })
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json")
     public SlotToPortMappings setMappings(@Parameter(description = "All Slot To Port Mappings to set for Rack.") @RequestBody SlotToPortMappings slotToPortMappings) throws IOException, SlotMappingException {
-        mappingService.setMappings(slotToPortMappings.getMappings());
-        return mappingService.getMappings();
+        return mappingService.setMappings(slotToPortMappings.getMappings());
     }
 
     @Operation(summary = "Delete IR Slot Mappings.", description = "Delete all slot mapping details for IR on the rack.")
@@ -134,8 +133,7 @@ public class SlotMappingResource {
             throw new SlotMappingException("Mapping request for slot " + slot + " did not include query param");
         }
 
-        mappingService.setMapping(slot, mapping);
-        return mappingService.getMappings();
+        return mappingService.setMapping(slot, mapping);
     }
 
     /**
@@ -0,0 +1,345 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.dto.BatchOperation;
+import com.cats.dto.BatchResponse;
+import com.cats.dto.BatchResult;
+import com.cats.ir.LocalRemote;
+import com.cats.ir.Remote;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.exception.CustomBadRequestException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a batch of IR operations across many slots in one request.
+ * <p>
+ * Every operation is validated and compiled to a {@link CommandProgram} before anything is sent, so a
+ * bad batch is rejected as a whole. Operations are then grouped by device port: groups run in parallel,
+ * operations within a group run in request order on one remote per keyset. After a failure the rest of
+ * that port's operations are skipped, other ports carry on.
+ */
+@Service
+public class BatchService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    private static final Pattern CHANNEL = Pattern.compile("\\d{1,4}");
+    private static final int DEFAULT_DELAY = 100;
+
+    @Autowired
+    RemoteProcessor processor;
+
+    @Autowired
+    MacroService macroService;
+
+    @Value("${irms.batch.maxOperations:500}")
+    int maxOperations;
+
+    // Ports worked on in parallel across all batches, further groups queue or run on the request thread.
+    @Value("${irms.batch.threads:8}")
+    int threads;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * 4),
+                new ThreadFactoryBuilder().setNameFormat("ir-batch-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validates, then runs a batch.
+     *
+     * @throws CustomBadRequestException listing every invalid operation, before anything is sent.
+     */
+    public BatchResponse run(List<BatchOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new CustomBadRequestException("Batch contains no operations.");
+        }
+        if (operations.size() > maxOperations) {
+            throw new CustomBadRequestException("Batch contains " + operations.size()
+                    + " operations, the maximum is " + maxOperations + ".");
+        }
+
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        Map<String, List<PlannedOperation>> groups = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            try {
+                int[] target = resolveTarget(operation);
+                String targetId = target[0] + ":" + target[1];
+                ShorthandCompiler.Limits limits = ShorthandCompiler.Limits.of(processor.getDeviceProfile(target[0]));
+                CommandProgram program = compile(operation, limits);
+                limits.check(program);
+                String keySet = "delay".equals(operation.getOp()) ? null : operation.getKeySet();
+                BatchResult result = new BatchResult(i, operation.getOp(), targetId);
+                results.add(result);
+                groups.computeIfAbsent(targetId, t -> new ArrayList<>())
+                        .add(new PlannedOperation(target, keySet, program, result));
+            } catch (RuntimeException e) {
+                errors.add("operation " + i + " (" + operation.getOp() + "): " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new CustomBadRequestException("Invalid batch, nothing was sent. " + String.join("; ", errors));
+        }
+
+        RequestContext context = RequestContext.current();
+        long batchStart = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>(groups.size());
+        List<List<PlannedOperation>> order = new ArrayList<>(groups.values());
+        for (List<PlannedOperation> group : order) {
+            running.add(executor.submit(() -> runGroup(group, batchStart, context)));
+        }
+        for (int i = 0; i < running.size(); i++) {
+            await(running.get(i), order.get(i), context);
+        }
+        logger.info("Batch of {} operations on {} ports finished in {}ms", operations.size(), groups.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart));
+        return new BatchResponse(results, millisSince(batchStart));
+    }
+
+    private void await(Future<?> future, List<PlannedOperation> group, RequestContext context) {
+        try {
+            future.get(context.getDeadline().remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            markUnfinished(group, "Request deadline exceeded");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            markUnfinished(group, "Interrupted");
+        } catch (ExecutionException e) {
+            markUnfinished(group, e.getCause().getMessage());
+        }
+    }
+
+    private void markUnfinished(List<PlannedOperation> group, String message) {
+        for (PlannedOperation planned : group) {
+            if (BatchResult.SKIPPED.equals(planned.result.getStatus()) && planned.result.getMessage() == null) {
+                planned.result.setMessage(message);
+            }
+        }
+    }
+
+    private void runGroup(List<PlannedOperation> group, long batchStart, RequestContext context) {
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            Map<String, Remote> remotes = new HashMap<>();
+            boolean failed = false;
+            for (PlannedOperation planned : group) {
+                BatchResult result = planned.result;
+                if (failed) {
+                    result.setMessage("Skipped after an earlier failure on " + result.getTarget());
+                    continue;
+                }
+                long start = System.nanoTime();
+                result.setStartMs(millisBetween(batchStart, start));
+                try {
+                    boolean ok;
+                    if (planned.keySet == null) {
+                        // Plain delay, nothing to send.
+                        context.pause(planned.program.argument(0));
+                        ok = true;
+                    } else {
+                        Remote remote = remotes.computeIfAbsent(planned.keySet,
+                                keySet -> processor.getRemote(planned.target[0], planned.target[1], keySet));
+                        ok = remote.sendProgram(planned.program);
+                    }
+                    result.setStatus(ok ? BatchResult.OK : BatchResult.FAILED);
+                } catch (RuntimeException e) {
+                    result.setStatus(BatchResult.ERROR);
+                    result.setMessage(e.getMessage());
+                }
+                result.setDurationMs(millisSince(start));
+                failed = !BatchResult.OK.equals(result.getStatus());
+            }
+        }
+    }
+
+    private int[] resolveTarget(BatchOperation operation) {
+        if (operation.getSlot() != null) {
+            if (!processor.validateSlot(operation.getSlot())) {
+                throw new IllegalArgumentException("slot " + operation.getSlot() + " is not valid");
+            }
+            return processor.findDeviceAndPortMapping(operation.getSlot());
+        }
+        if (operation.getDevice() == null || operation.getPort() == null) {
+            throw new IllegalArgumentException("either slot or device and port are required");
+        }
+        if (!operation.getDevice().matches("\\d+") || !processor.validateDevice(operation.getDevice())
+                || !operation.getPort().matches("\\d+") || !processor.deviceHasPort(operation.getDevice(), operation.getPort())) {
+            throw new IllegalArgumentException("device " + operation.getDevice() + " port " + operation.getPort() + " is not valid");
+        }
+        return new int[]{Integer.parseInt(operation.getDevice()), Integer.parseInt(operation.getPort())};
+    }
+
+    /**
+     * Compiles one operation to a program within the limits of its target device, throwing with a readable
+     * message if it is invalid.
+     */
+    private CommandProgram compile(BatchOperation operation, ShorthandCompiler.Limits limits) {
+        String op = operation.getOp();
+        if (op == null) {
+            throw new IllegalArgumentException("op is required");
+        }
+        if ("delay".equals(op)) {
+            int delay = delay(operation, -1, limits);
+            if (delay < 0) {
+                throw new IllegalArgumentException("delay is required");
+            }
+            return CommandProgram.builder().delay(delay).build();
+        }
+        if (operation.getKeySet() == null || operation.getKeySet().isEmpty()) {
+            throw new IllegalArgumentException("keySet is required");
+        }
+        CommandProgram.Builder program = CommandProgram.builder();
+        switch (op) {
+            case "pressKey": {
+                int count = count(operation, 1, limits);
+                int delay = delay(operation, 0, limits);
+                for (int i = 0; i < count; i++) {
+                    program.press(required(operation.getKey(), "key")).delay(delay);
+                }
+                return program.build();
+            }
+            case "pressKeys": {
+                if (operation.getKeys() == null || operation.getKeys().isEmpty()) {
+                    throw new IllegalArgumentException("keys are required");
+                }
+                int delay = delay(operation, DEFAULT_DELAY, limits);
+                for (String key : operation.getKeys()) {
+                    program.press(required(key, "key")).delay(delay);
+                }
+                return program.build();
+            }
+            case "pressKeyAndHold":
+                return program.holdRepeat(required(operation.getKey(), "key"), count(operation, 1, limits)).build();
+            case "holdDuration": {
+                Integer duration = operation.getDuration();
+                if (duration == null || duration < 1 || duration > limits.maxHoldSeconds()) {
+                    throw new IllegalArgumentException("duration must be 1 to " + limits.maxHoldSeconds() + " seconds");
+                }
+                return program.holdDuration(required(operation.getKey(), "key"), duration).build();
+            }
+            case "tune": {
+                String channel = required(operation.getChannel(), "channel");
+                if (!CHANNEL.matcher(channel).matches()) {
+                    throw new IllegalArgumentException("channel must be 1 to 4 digits");
+                }
+                int delay = delay(operation, DEFAULT_DELAY, limits);
+                for (char digit : channel.toCharArray()) {
+                    program.press(LocalRemote.parse(digit)).delay(delay);
+                }
+                if (!Boolean.TRUE.equals(operation.getAutoTune())) {
+                    program.press("SELECT").delay(delay);
+                }
+                return program.build();
+            }
+            case "shorthand":
+                return ShorthandCompiler.compile(required(operation.getSequence(), "sequence"), delay(operation, DEFAULT_DELAY, limits), limits);
+            case "macro":
+                return macroService.program(required(operation.getMacro(), "macro"), operation.getParams());
+            default:
+                throw new IllegalArgumentException("unknown op '" + op + "'");
+        }
+    }
+
+    private static String required(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private static int count(BatchOperation operation, int defaultCount, ShorthandCompiler.Limits limits) {
+        Integer count = operation.getCount();
+        if (count == null) {
+            return defaultCount;
+        }
+        if (count < 1 || count > limits.maxRepeatCount()) {
+            throw new IllegalArgumentException("count must be 1 to " + limits.maxRepeatCount());
+        }
+        return count;
+    }
+
+    private static int delay(BatchOperation operation, int defaultDelay, ShorthandCompiler.Limits limits) {
+        Integer delay = operation.getDelay();
+        if (delay == null) {
+            return defaultDelay;
+        }
+        if (delay < 0 || delay > limits.maxDelayMs()) {
+            throw new IllegalArgumentException("delay must be 0 to " + limits.maxDelayMs() + "ms");
+        }
+        return delay;
+    }
+
+    private static double millisSince(long startNanos) {
+        return millisBetween(startNanos, System.nanoTime());
+    }
+
+    private static double millisBetween(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000_000.0;
+    }
+
+    private static final class PlannedOperation {
+        final int[] target;
+        // Null for a plain delay.
+        final String keySet;
+        final CommandProgram program;
+        final BatchResult result;
+
+        PlannedOperation(int[] target, String keySet, CommandProgram program, BatchResult result) {
+            this.target = target;
+            this.keySet = keySet;
+            this.program = program;
+            this.result = result;
+        }
+    }
+}
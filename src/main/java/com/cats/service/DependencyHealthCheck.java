@@ -18,14 +18,11 @@ package com.cats.service;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.configuration.IRConfiguration;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
-
 /**
  * Service to check the health of dependencies.
  */
@@ -33,29 +30,20 @@ import jakarta.annotation.PostConstruct;
 @Slf4j
 public class DependencyHealthCheck {
 
-    private Boolean checkGCDispatcherHealth = null;
-    private Boolean checkHubHealth = null;
-
     @Autowired
-    IRConfiguration irConfiguration;
-
-    @PostConstruct
-    public void init() {
-        String gcDispatcherApiBase = irConfiguration.getGcDispatcherApiBase();
-        String hubIp = irConfiguration.getRedRatHubHost();
-        String hubPort = irConfiguration.getRedRatHubPort();
-
-
-        this.checkGCDispatcherHealth = irConfiguration.getNormalizedIrDevices().stream().anyMatch(irDeviceConfig -> irDeviceConfig.getType().equalsIgnoreCase("itach") || irDeviceConfig.getType().equalsIgnoreCase("gc100"));
-        this.checkHubHealth = hubIp != null && hubPort != null;
-        log.info("Found Available IR Dependencies");
-    }
+    TopologyService topologyService;
 
+    /**
+     * True if the current topology has devices driven through the GC Dispatcher.
+     */
     public boolean checkGCDispatcherHealth() {
-        return this.checkGCDispatcherHealth;
+        return topologyService.current().hasGcDevices();
     }
 
+    /**
+     * True if the current topology has a RedRatHub.
+     */
     public boolean checkHubHealth() {
-        return this.checkHubHealth;
+        return topologyService.current().hasHub();
     }
 }
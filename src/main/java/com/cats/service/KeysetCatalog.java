@@ -0,0 +1,304 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.IRHardwareEnum;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.SchedulingClass;
+import com.cats.ir.exception.UnknownKeyException;
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+import com.cats.ir.hubhealth.HubHealthBean;
+import com.cats.ir.hubhealth.HubHealthCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In memory catalog of the keysets the IR hardware knows: the RedRatHub datasets with their signal names,
+ * and the irdb keysets of the GC Dispatcher. Requests are checked against it before anything is sent, so a
+ * mistyped keyset or key is rejected at once instead of after a round trip to the hub.
+ * <p>
+ * The catalog follows the health snapshots: signals are only listed for datasets that are new since the
+ * last refresh, and for all of them every {@code irms.catalog.fullRefreshMinutes}. A dataset whose signals
+ * could not be listed is only tried again at the next full refresh. Names are matched ignoring case. While a
+ * part of the catalog is unknown, requests against it are let through.
+ * <p>
+ * Every program is checked on its way to the hardware, see {@link com.cats.ir.IRDevicePort#sendProgram}.
+ */
+@Service
+public class KeysetCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(KeysetCatalog.class);
+
+    // Suggestions offered for an unknown name.
+    private static final int MAX_SUGGESTIONS = 3;
+
+    @Autowired
+    HubHealthCheck hubHealthCheck;
+
+    // Time allowed for listing the signals of one dataset.
+    @Value("${irms.health.probeTimeoutMs:10000}")
+    long listTimeoutMs;
+
+    // Signals of every dataset are listed again after this long, in case a dataset was reloaded.
+    @Value("${irms.catalog.fullRefreshMinutes:60}")
+    long fullRefreshMinutes;
+
+    private volatile Catalog redRat = Catalog.UNKNOWN;
+    private volatile Catalog gc = Catalog.UNKNOWN;
+
+    private long lastFullRefresh;
+
+    // Datasets whose signals could not be listed since the last full refresh. Guarded by this.
+    private Set<String> unlisted = new HashSet<>();
+
+    /**
+     * Updates the catalog from a health refresh. Beans that are null or incomplete leave their part as it was.
+     */
+    public synchronized void update(HubHealthBean hub, GCDispatcherHealthBean gcDispatcher) {
+        if (hub != null && Boolean.TRUE.equals(hub.getHubUp()) && hub.getKeysets() != null
+                && (Boolean.TRUE.equals(hub.getComplete()) || !hub.getKeysets().isEmpty())) {
+            updateRedRat(hub.getKeysets());
+        }
+        if (gcDispatcher != null && gcDispatcher.getResult() != null && gcDispatcher.getResult().getIrdb() != null
+                && gcDispatcher.getResult().getIrdb().isDatasetLoaded()
+                && gcDispatcher.getResult().getIrdb().getIrDevices() != null) {
+            Map<String, Set<String>> keysets = new HashMap<>();
+            gcDispatcher.getResult().getIrdb().getIrDevices().forEach(keyset -> keysets.put(keyset.trim(), null));
+            gc = new Catalog(keysets);
+        }
+    }
+
+    private void updateRedRat(List<String> datasets) {
+        long now = System.currentTimeMillis();
+        boolean full = now - lastFullRefresh >= TimeUnit.MINUTES.toMillis(fullRefreshMinutes);
+        Catalog previous = redRat;
+        Map<String, Set<String>> signals = new HashMap<>();
+        Set<String> failed = new HashSet<>();
+        int listed = 0;
+        for (String rawDataset : datasets) {
+            String dataset = rawDataset.trim();
+            Set<String> known = previous.signalNames(dataset);
+            if (!full && (known != null || unlisted.contains(dataset))) {
+                signals.put(dataset, known);
+                if (known == null) {
+                    failed.add(dataset);
+                }
+                continue;
+            }
+            known = listSignals(dataset);
+            if (known == null) {
+                failed.add(dataset);
+            }
+            signals.put(dataset, known);
+            listed++;
+        }
+        if (full) {
+            lastFullRefresh = now;
+        }
+        unlisted = failed;
+        redRat = new Catalog(signals);
+        if (listed > 0) {
+            logger.info("Keyset catalog: {} datasets, listed signals of {}", signals.size(), listed);
+        }
+    }
+
+    /**
+     * Signal names of a dataset, null if the hub did not answer.
+     */
+    private Set<String> listSignals(String dataset) {
+        RequestContext context = new RequestContext(Deadline.afterMillis(listTimeoutMs));
+        context.setSchedulingClass(SchedulingClass.MAINTENANCE);
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            List<String> signals = HubHealthCheck.parseKeysets(hubHealthCheck.listSignals(dataset));
+            if (signals.isEmpty()) {
+                return null;
+            }
+            Set<String> names = new HashSet<>();
+            signals.forEach(signal -> names.add(signal.trim()));
+            return names;
+        } catch (Exception e) {
+            logger.warn("Could not list signals of dataset {}: {}", dataset, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks a keyset and keys for the given hardware.
+     *
+     * @throws UnknownKeyException if the catalog is loaded and does not know the keyset or one of the keys.
+     */
+    public void check(IRHardwareEnum type, String keySet, Collection<String> keys) {
+        Catalog catalog = catalogFor(type);
+        if (catalog == null || catalog.isUnknown() || keySet == null) {
+            return;
+        }
+        String canonical = catalog.keyset(keySet);
+        if (canonical == null) {
+            throw new UnknownKeyException("Unknown keySet '" + keySet + "'.", suggest(keySet, catalog.keysets()));
+        }
+        Set<String> signals = catalog.signals(canonical);
+        if (signals == null || keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (key != null && !signals.contains(key.toUpperCase(Locale.ROOT))) {
+                throw new UnknownKeyException("Unknown key '" + key + "' for keySet '" + keySet + "'.",
+                        suggest(key, catalog.signalNames(canonical)));
+            }
+        }
+    }
+
+    public void check(IRHardwareEnum type, String keySet, String... keys) {
+        check(type, keySet, List.of(keys));
+    }
+
+    /**
+     * Known keysets by hardware family, with signal names where they are known.
+     */
+    public Map<String, Map<String, Set<String>>> snapshot() {
+        Map<String, Map<String, Set<String>>> snapshot = new HashMap<>();
+        snapshot.put("redrat", redRat.names);
+        snapshot.put("gc", gc.names);
+        return snapshot;
+    }
+
+    private Catalog catalogFor(IRHardwareEnum type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case IRNETBOXPRO3:
+            case REDRAT3:
+                return redRat;
+            case GC100:
+            case GC100_12:
+            case GC100_6:
+            case ITACH:
+                return gc;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Closest known names, by edit distance, ignoring case. Only computed for rejected requests.
+     */
+    static List<String> suggest(String name, Collection<String> candidates) {
+        String wanted = name.toUpperCase(Locale.ROOT);
+        int maxDistance = Math.max(2, wanted.length() / 3);
+        List<Map.Entry<String, Integer>> scored = new ArrayList<>();
+        for (String candidate : candidates) {
+            String upper = candidate.toUpperCase(Locale.ROOT);
+            int distance = upper.contains(wanted) || wanted.contains(upper) ? 1 : distance(wanted, upper);
+            if (distance <= maxDistance) {
+                scored.add(Map.entry(candidate, distance));
+            }
+        }
+        scored.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<String> suggestions = new ArrayList<>();
+        for (int i = 0; i < scored.size() && i < MAX_SUGGESTIONS; i++) {
+            suggestions.add(scored.get(i).getKey());
+        }
+        return suggestions;
+    }
+
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Keysets of one hardware family. Lookups go through upper cased names, the original names are kept
+     * for messages and suggestions. A null signal set means the signals are not known.
+     */
+    private static final class Catalog {
+        static final Catalog UNKNOWN = new Catalog(null);
+
+        // Original keyset names and signal names, null while nothing was loaded.
+        final Map<String, Set<String>> names;
+        // Upper cased keyset name to original name.
+        final Map<String, String> keysets = new HashMap<>();
+        // Original keyset name to upper cased signal names.
+        final Map<String, Set<String>> signals = new HashMap<>();
+
+        Catalog(Map<String, Set<String>> names) {
+            this.names = names;
+            if (names == null) {
+                return;
+            }
+            names.forEach((keyset, keysetSignals) -> {
+                keysets.put(keyset.toUpperCase(Locale.ROOT), keyset);
+                if (keysetSignals != null) {
+                    Set<String> upper = new HashSet<>();
+                    keysetSignals.forEach(signal -> upper.add(signal.toUpperCase(Locale.ROOT)));
+                    signals.put(keyset, upper);
+                }
+            });
+        }
+
+        boolean isUnknown() {
+            return names == null;
+        }
+
+        String keyset(String name) {
+            return keysets.get(name.toUpperCase(Locale.ROOT));
+        }
+
+        Collection<String> keysets() {
+            return keysets.values();
+        }
+
+        Set<String> signals(String keyset) {
+            return signals.get(keyset);
+        }
+
+        Set<String> signalNames(String keyset) {
+            return names == null ? null : names.get(keyset);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.dto.MacroDto;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.commands.ShorthandCompiler;
+import com.cats.ir.exception.CustomBadRequestException;
+import com.cats.utils.AtomicFiles;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of named macros. A macro is a shorthand key sequence, see {@link ShorthandCompiler}, that may
+ * contain {@code ${param}} placeholders filled in when it is run.
+ * <p>
+ * Macros are validated and compiled when they are defined. Macros without parameters keep their compiled
+ * program, parameterized ones are compiled per distinct set of values through the compiler cache.
+ * The registry is persisted to {@code macroFilePath}.
+ */
+@Service
+// Sized before the stored macros are compiled into it.
+@DependsOn("shorthandCompilerConfig")
+public class MacroService {
+    private static final Logger logger = LoggerFactory.getLogger(MacroService.class);
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_-]{0,63}");
+    private static final Pattern PARAMETER = Pattern.compile("\\$\\{([A-Za-z_][A-Za-z0-9_]*)}");
+    // Values are spliced into the sequence, so only allow what can form a single key or number token.
+    private static final Pattern VALUE = Pattern.compile("[A-Za-z0-9_]{1,64}");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, CompiledMacro> macros = new ConcurrentHashMap<>();
+
+    @Value("${macroFilePath:./irms/ms/macros.json}")
+    public String macroFilePath;
+
+    @PostConstruct
+    public void init() {
+        File f = new File(macroFilePath);
+        if (!f.exists()) {
+            logger.info("No macro file at {}, starting with an empty registry", macroFilePath);
+            return;
+        }
+        try {
+            List<MacroDto> stored = mapper.readValue(f, new TypeReference<List<MacroDto>>() { });
+            for (MacroDto macro : stored) {
+                try {
+                    macros.put(macro.getName(), compile(macro));
+                } catch (IllegalArgumentException | CustomBadRequestException e) {
+                    logger.error("Skipping stored macro {}: {}", macro.getName(), e.getMessage());
+                }
+            }
+            logger.info("Loaded {} macros from {}", macros.size(), macroFilePath);
+        } catch (IOException e) {
+            logger.error("Could not read macro file, starting with an empty registry: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Lists all macros ordered by name.
+     */
+    public List<MacroDto> getMacros() {
+        List<MacroDto> list = new ArrayList<>();
+        new TreeMap<>(macros).values().forEach(m -> list.add(m.definition));
+        return list;
+    }
+
+    public MacroDto getMacro(String name) {
+        return find(name).definition;
+    }
+
+    /**
+     * Creates or replaces a macro. The sequence is compiled first, so an invalid macro is never stored.
+     *
+     * @throws IOException if the registry could not be persisted.
+     */
+    public synchronized MacroDto define(MacroDto macro) throws IOException {
+        if (macro.getName() == null || !NAME.matcher(macro.getName()).matches()) {
+            throw new CustomBadRequestException("Macro name must start with a letter and contain only letters, digits, '_' or '-'");
+        }
+        CompiledMacro compiled = compile(macro);
+        CompiledMacro previous = macros.put(macro.getName(), compiled);
+        try {
+            save();
+        } catch (IOException e) {
+            restore(macro.getName(), previous);
+            throw e;
+        }
+        logger.info("Macro {} defined: {}", macro.getName(), macro.getSequence());
+        return compiled.definition;
+    }
+
+    /**
+     * Removes a macro.
+     *
+     * @throws IOException if the registry could not be persisted.
+     */
+    public synchronized void remove(String name) throws IOException {
+        CompiledMacro previous = macros.remove(name);
+        if (previous == null) {
+            throw new CustomBadRequestException("Macro " + name + " is not defined");
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            restore(name, previous);
+            throw e;
+        }
+        logger.info("Macro {} removed", name);
+    }
+
+    /**
+     * Returns the program for a macro with its parameters filled in.
+     *
+     * @param name   macro name.
+     * @param values parameter values, extra entries are ignored.
+     */
+    public CommandProgram program(String name, Map<String, String> values) {
+        CompiledMacro macro = find(name);
+        if (macro.program != null) {
+            return macro.program;
+        }
+        StringBuilder expanded = new StringBuilder();
+        Matcher m = PARAMETER.matcher(macro.definition.getSequence());
+        while (m.find()) {
+            String value = values == null ? null : values.get(m.group(1));
+            if (value == null) {
+                throw new CustomBadRequestException("Macro " + name + " requires parameter " + m.group(1));
+            }
+            if (!VALUE.matcher(value).matches()) {
+                throw new CustomBadRequestException("Invalid value for parameter " + m.group(1) + ": " + value);
+            }
+            m.appendReplacement(expanded, value);
+        }
+        m.appendTail(expanded);
+        return ShorthandCompiler.compile(expanded.toString(), macro.definition.getDelay());
+    }
+
+    private CompiledMacro find(String name) {
+        CompiledMacro macro = macros.get(name);
+        if (macro == null) {
+            throw new CustomBadRequestException("Macro " + name + " is not defined");
+        }
+        return macro;
+    }
+
+    /**
+     * Validates and compiles a macro. The stored definition is a copy, the caller's DTO is left as it was.
+     */
+    private CompiledMacro compile(MacroDto macro) {
+        if (macro.getSequence() == null || macro.getSequence().isBlank()) {
+            throw new CustomBadRequestException("Macro sequence cannot be empty");
+        }
+        MacroDto definition = new MacroDto(macro.getName(), macro.getSequence(),
+                macro.getDelay() != null ? macro.getDelay() : 0, macro.getDescription());
+        Set<String> parameters = new LinkedHashSet<>();
+        Matcher m = PARAMETER.matcher(definition.getSequence());
+        while (m.find()) {
+            parameters.add(m.group(1));
+        }
+        definition.setParameters(Collections.unmodifiableList(new ArrayList<>(parameters)));
+
+        if (parameters.isEmpty()) {
+            return new CompiledMacro(definition, ShorthandCompiler.compile(definition.getSequence(), definition.getDelay()));
+        }
+        // Check the syntax with a placeholder value so errors surface when the macro is defined. "1" is valid
+        // wherever a value may go: as a key, a repeat count, a hold or a delay. The full compile runs once
+        // the real values are filled in, see program().
+        ShorthandCompiler.compile(PARAMETER.matcher(definition.getSequence()).replaceAll("1"), definition.getDelay());
+        return new CompiledMacro(definition, null);
+    }
+
+    private void restore(String name, CompiledMacro previous) {
+        if (previous == null) {
+            macros.remove(name);
+        } else {
+            macros.put(name, previous);
+        }
+    }
+
+    /**
+     * Replaces the macro file in one step, so a crash never leaves a half written registry behind.
+     */
+    private void save() throws IOException {
+        AtomicFiles.write(Path.of(macroFilePath), mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(getMacros()));
+    }
+
+    private static final class CompiledMacro {
+        final MacroDto definition;
+        // Compiled program, null when the macro takes parameters.
+        final CommandProgram program;
+
+        CompiledMacro(MacroDto definition, CommandProgram program) {
+            this.definition = definition;
+            this.program = program;
+        }
+    }
+}
@@ -19,14 +19,15 @@ package com.cats.service;
  */
 
 import java.io.IOException;
-import java.util.List;
 
+import com.cats.configuration.DeviceProfile;
 import com.cats.configuration.GCDispatcherConfig;
-import com.cats.configuration.IRConfiguration;
 import com.cats.configuration.IRDeviceConfig;
+import com.cats.configuration.Topology;
 import com.cats.ir.IRHardwareEnum;
 import com.cats.ir.Remote;
 import com.cats.ir.RemoteFactory;
+import com.cats.ir.SlotToPortMappings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -42,16 +43,22 @@ public class RemoteProcessor {
     private SlotMappingService mappingService;
     @Autowired
     private RemoteFactory remoteFactory;
-    public List<IRDeviceConfig> irDeviceList;
     @Autowired
-    public IRConfiguration irConfig;
+    private TopologyService topologyService;
 
 
     @PostConstruct
     public void init() throws IOException {
-        irDeviceList = irConfig.getNormalizedIrDevices();
-        if(irConfig.gcDispatcherApiBase != null && !irConfig.gcDispatcherApiBase.isEmpty()){
-            GCDispatcherConfig.writeGCDispatcherConfigYaml(irDeviceList, irConfig.gcDispatcherApiBase);
+        writeGCDispatcherConfig(topologyService.current());
+    }
+
+    /**
+     * Writes the GC Dispatcher configuration for the devices of a topology, if a GC Dispatcher is configured.
+     */
+    public void writeGCDispatcherConfig(Topology topology) throws IOException {
+        String apiBase = topology.getGcDispatcherApiBase();
+        if (apiBase != null && !apiBase.isEmpty()) {
+            GCDispatcherConfig.writeGCDispatcherConfigYaml(topology.getDevices(), apiBase);
         }
     }
 
@@ -80,7 +87,7 @@ public class RemoteProcessor {
     public boolean validateDevice(String device) {
         int deviceNum = Integer.parseInt(device);
         deviceNum = deviceNum - 1; // To make it 0-based.
-        return !(deviceNum < 0 || deviceNum >= irDeviceList.size());
+        return !(deviceNum < 0 || deviceNum >= topologyService.current().getDevices().size());
     }
 
     /**
@@ -89,10 +96,16 @@ public class RemoteProcessor {
      * @return int[] containing deviceId and irPort.
      */
     int[] findDeviceAndPortMapping(String slot) {
+        return findDeviceAndPortMapping(slot, topologyService.current());
+    }
+
+    private int[] findDeviceAndPortMapping(String slot, Topology topology) {
         // Return tuple (deviceId, irPort)... NOTE: both deviceId and irPort are 1-indexed
         int[] result = new int[2];
-        if (!mappingService.getMappings().getMappings().isEmpty()) {
-            String deviceMappings = mappingService.getMappings().getMapping(slot);
+        // one snapshot for the whole lookup, mappings may be replaced concurrently.
+        SlotToPortMappings mappings = mappingService.getMappings();
+        if (!mappings.isEmpty()) {
+            String deviceMappings = mappings.getMapping(slot);
             String[] deviceAndPortMapping = deviceMappings.split(":");
             int deviceId = Integer.valueOf(deviceAndPortMapping[0]);
             int irPort = Integer.valueOf(deviceAndPortMapping[1]);
@@ -102,7 +115,7 @@ public class RemoteProcessor {
         } else {
             int deviceId = 1;
             int slotOffset = Integer.valueOf(slot);
-            for (IRDeviceConfig currentDevice : irDeviceList) {
+            for (IRDeviceConfig currentDevice : topology.getDevices()) {
                 if (slotOffset <= currentDevice.getMaxPorts()) {
                     result[0] = deviceId;
                     result[1] = slotOffset;
@@ -124,7 +137,7 @@ public class RemoteProcessor {
      */
     public boolean deviceHasPort(String deviceId, String port) {
         int portNum = Integer.parseInt(port);
-        IRDeviceConfig irDevice = irDeviceList.get(Integer.valueOf(deviceId) - 1);
+        IRDeviceConfig irDevice = topologyService.current().getDevices().get(Integer.valueOf(deviceId) - 1);
         return ((1 <= Integer.valueOf(port)) && (Integer.valueOf(port) <= irDevice.getMaxPorts()));
     }
 
@@ -137,7 +150,7 @@ public class RemoteProcessor {
         Integer maxPorts = 0;
         if (validateDevice(device)) {
             int deviceNum = Integer.parseInt(device) - 1; // To make it 0-based.
-            IRDeviceConfig irDevice = irDeviceList.get(deviceNum);
+            IRDeviceConfig irDevice = topologyService.current().getDevices().get(deviceNum);
             maxPorts = irDevice.getMaxPorts();
             assert maxPorts != null;
         }
@@ -151,11 +164,7 @@ public class RemoteProcessor {
      * @return int containing number of slots.
      */
     public int numSlots() {
-        int result = 0;
-        for (IRDeviceConfig irDevice : irDeviceList) {
-            result += irDevice.getMaxPorts();
-        }
-        return result;
+        return topologyService.current().getNumSlots();
     }
 
     /**
@@ -164,7 +173,7 @@ public class RemoteProcessor {
      * @return int containing number of devices.
      */
     public int numDevices() {
-        return irDeviceList.size();
+        return topologyService.current().getDevices().size();
     }
 
     /**
@@ -205,14 +214,35 @@ public class RemoteProcessor {
      * @return Remote containing the remote.
      */
     public Remote getRemote(String slot, String keySet) {
-        Remote remote;
-        if (irConfig.getNormalizedIrDevices() == null || irConfig.getNormalizedIrDevices().isEmpty()) {
+        // one topology for the whole lookup, it may be reloaded concurrently.
+        Topology topology = topologyService.current();
+        if (topology.getDevices().isEmpty()) {
             throw new IllegalStateException("No IR devices in config");
         }
-        int[] deviceAndPort = findDeviceAndPortMapping(slot);
+        int[] deviceAndPort = findDeviceAndPortMapping(slot, topology);
         int deviceId = deviceAndPort[0];
         int irPort = deviceAndPort[1];
-        return getRemote(deviceId, irPort, keySet);
+        return getRemote(topology, deviceId, irPort, keySet);
+    }
+
+    /**
+     * The effective tuning profile of the device behind a slot, the default profile if there is none.
+     */
+    public DeviceProfile getProfile(String slot) {
+        Topology topology = topologyService.current();
+        return getDeviceProfile(topology, findDeviceAndPortMapping(slot, topology)[0]);
+    }
+
+    /**
+     * The effective tuning profile of the 1-indexed device, the default profile if there is none.
+     */
+    public DeviceProfile getDeviceProfile(int deviceId) {
+        return getDeviceProfile(topologyService.current(), deviceId);
+    }
+
+    private DeviceProfile getDeviceProfile(Topology topology, int deviceId) {
+        IRDeviceConfig irDevice = topology.getDevice(deviceId);
+        return irDevice != null ? topology.getProfile(irDevice.getHost()) : topology.getDefaultProfile();
     }
 
     /**
@@ -221,11 +251,14 @@ public class RemoteProcessor {
      * @return Remote containing the remote.
      */
     public Remote getRemote(int deviceId, int irPort, String keyset) {
-        if (deviceId <= 0 || deviceId > irConfig.getNormalizedIrDevices().size()) {
-            throw new IllegalArgumentException("Requested device[" + deviceId + "] > size[" + irDeviceList.size() + "] Invalid");
+        return getRemote(topologyService.current(), deviceId, irPort, keyset);
+    }
+
+    private Remote getRemote(Topology topology, int deviceId, int irPort, String keyset) {
+        IRDeviceConfig irDevice = topology.getDevice(deviceId);
+        if (irDevice == null) {
+            throw new IllegalArgumentException("Requested device[" + deviceId + "] > size[" + topology.getDevices().size() + "] Invalid");
         }
-        //Make sure to handle the zero indexed array list for incoming device.
-        IRDeviceConfig irDevice = irConfig.getNormalizedIrDevices().get(deviceId - 1);
 
         IRHardwareEnum irRemoteType = findIrRemoteType(irDevice.getType());
 
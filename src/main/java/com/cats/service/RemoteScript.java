@@ -0,0 +1,43 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.Remote;
+import com.cats.ir.context.RequestContext;
+import groovy.lang.Script;
+
+/**
+ * Base class for scripts run through the script API. Gives the script a typed {@code remote}
+ * property, so scripts can be compiled statically.
+ */
+public abstract class RemoteScript extends Script {
+
+    public static final String REMOTE = "remote";
+
+    public Remote getRemote() {
+        return (Remote) getBinding().getVariable(REMOTE);
+    }
+
+    /**
+     * Waits for the given time, cut short when the request deadline passes.
+     */
+    public void pause(long millis) {
+        RequestContext.current().pause(millis);
+    }
+}
@@ -0,0 +1,210 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.cats.utils.SseOutbox;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * State of a script submitted through the job API: lifecycle, outcome and the most recent steps
+ * with their timings. SSE subscribers are kept with the job until it finishes.
+ */
+public class ScriptJob {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, TIMED_OUT, CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    // Steps kept per job, older ones are dropped but still counted.
+    public static final int MAX_STEPS = 1000;
+
+    private final String id;
+    private final String slot;
+    private final String keySet;
+    private final Instant submittedAt = Instant.now();
+
+    private State state = State.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long startNanos;
+    private String error;
+    private boolean cancelRequested;
+
+    private final Deque<Step> steps = new ArrayDeque<>();
+    private int stepCount;
+
+    private Future<?> future;
+    private final List<SseOutbox> subscribers = new ArrayList<>();
+
+    public ScriptJob(String id, String slot, String keySet) {
+        this.id = id;
+        this.slot = slot;
+        this.keySet = keySet;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSlot() {
+        return slot;
+    }
+
+    public String getKeySet() {
+        return keySet;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized int getStepCount() {
+        return stepCount;
+    }
+
+    public synchronized List<Step> getSteps() {
+        return new ArrayList<>(steps);
+    }
+
+    /**
+     * Moves the job to RUNNING, unless it was cancelled while queued.
+     *
+     * @return true if the job should run.
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        startNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Records the outcome and hands back the subscribers, which the caller notifies and completes.
+     */
+    synchronized List<SseOutbox> finish(State outcome, String error) {
+        if (state.isFinished()) {
+            return new ArrayList<>();
+        }
+        this.state = cancelRequested ? State.CANCELLED : outcome;
+        this.error = error;
+        this.finishedAt = Instant.now();
+        List<SseOutbox> finished = new ArrayList<>(subscribers);
+        subscribers.clear();
+        return finished;
+    }
+
+    synchronized Step addStep(String stage, long durationNanos) {
+        Step step = new Step(++stepCount, stage, durationNanos / 1_000_000.0, (System.nanoTime() - startNanos) / 1_000_000);
+        if (steps.size() == MAX_STEPS) {
+            steps.removeFirst();
+        }
+        steps.addLast(step);
+        return step;
+    }
+
+    /**
+     * Adds a subscriber, unless the job already finished.
+     *
+     * @return false if the job is finished and the subscriber was not added.
+     */
+    synchronized boolean subscribe(SseOutbox subscriber) {
+        if (state.isFinished()) {
+            return false;
+        }
+        subscribers.add(subscriber);
+        return true;
+    }
+
+    synchronized void unsubscribe(SseOutbox subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    synchronized List<SseOutbox> subscribers() {
+        return new ArrayList<>(subscribers);
+    }
+
+    /**
+     * Marks the job cancelled and interrupts it if it is running.
+     *
+     * @return true if the job was still queued, so nothing will finish it.
+     */
+    synchronized boolean requestCancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (future != null) {
+            future.cancel(true);
+        }
+        return state == State.QUEUED;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+        if (cancelRequested) {
+            future.cancel(true);
+        }
+    }
+
+    @JsonIgnore
+    public synchronized boolean isFinished() {
+        return state.isFinished();
+    }
+
+    /**
+     * One recorded stage of the job, such as a hub round trip or a delay.
+     *
+     * @param index      1 based position of the step in the job.
+     * @param stage      stage name, as used in the Server-Timing header.
+     * @param durationMs time the stage took.
+     * @param atMs       time since the job started when the stage ended.
+     */
+    public record Step(int index, String stage, double durationMs, long atMs) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.Remote;
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
+import com.cats.ir.context.SchedulingClass;
+import com.cats.ir.exception.CustomBadRequestException;
+import com.cats.utils.SseOutbox;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs scripts as asynchronous jobs, limited by irms.script.jobs.timeoutSeconds rather than the limit of
+ * synchronous scripts. Submission returns as soon as the script is compiled and queued;
+ * callers then poll the job or subscribe to its server-sent events, which report every recorded stage
+ * (hub and HTTP round trips, delays) as it completes.
+ * <p>
+ * Steps are recorded on the script thread while it may hold a hub connection and a port, so events are
+ * only queued there and sent to subscribers on a separate executor, see {@link SseOutbox}. A subscriber
+ * that falls behind loses step events, never the state and done events.
+ * <p>
+ * Queued and running jobs are held until they finish, their number is bounded by the script pool. Finished
+ * jobs then move to a bounded in-memory store and expire a while after they finished; eviction from it never
+ * touches a job that is still running.
+ */
+@Service
+public class ScriptJobService {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptJobService.class);
+
+    public static final String STATE_EVENT = "state";
+    public static final String STEP_EVENT = "step";
+    public static final String DONE_EVENT = "done";
+
+    @Autowired
+    ScriptService scriptService;
+
+    // Finished jobs kept for polling, running jobs do not count against it.
+    @Value("${irms.script.jobs.maxJobs:1000}")
+    int maxJobs;
+
+    @Value("${irms.script.jobs.retentionMinutes:60}")
+    int retentionMinutes;
+
+    // Events queued per subscriber before step events are dropped.
+    @Value("${irms.script.jobs.eventBuffer:256}")
+    int eventBuffer;
+
+    private final Map<String, ScriptJob> active = new ConcurrentHashMap<>();
+    private Cache<String, ScriptJob> finished;
+
+    private final ExecutorService eventSender = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("script-events-%d").setDaemon(true).build());
+
+    @PostConstruct
+    public void init() {
+        finished = CacheBuilder.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(retentionMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Compiles and queues a script. Compilation errors are reported here, before a job is created.
+     */
+    public ScriptJob submit(String source, String slot, String keySet, Remote remote) {
+        Class<?> scriptClass = scriptService.compileJob(source);
+        ScriptJob job = new ScriptJob(UUID.randomUUID().toString(), slot, keySet);
+        RequestContext submitter = RequestContext.current();
+        SchedulingClass schedulingClass = submitter.getSchedulingClass();
+        String clientId = submitter.getClientId();
+        active.put(job.getId(), job);
+        try {
+            job.setFuture(scriptService.submit(() -> run(job, scriptClass, remote, schedulingClass, clientId)));
+        } catch (RuntimeException e) {
+            active.remove(job.getId());
+            throw e;
+        }
+        logger.info("Script job {} queued for slot {}", job.getId(), slot);
+        return job;
+    }
+
+    public ScriptJob getJob(String id) {
+        ScriptJob job = active.get(id);
+        if (job == null) {
+            job = finished.getIfPresent(id);
+        }
+        if (job == null) {
+            throw new CustomBadRequestException("Script job " + id + " not found");
+        }
+        return job;
+    }
+
+    /**
+     * Lists known jobs, most recent first.
+     */
+    public List<ScriptJob> getJobs() {
+        return Stream.concat(active.values().stream(), finished.asMap().values().stream())
+                .distinct()
+                .sorted(Comparator.comparing(ScriptJob::getSubmittedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancels a job. A running script is interrupted at its next loop, call or IR step.
+     */
+    public ScriptJob cancel(String id) {
+        ScriptJob job = getJob(id);
+        if (job.requestCancel()) {
+            finish(job, ScriptJob.State.CANCELLED, null);
+        }
+        return job;
+    }
+
+    /**
+     * Streams the job as server-sent events: the current state, then each step, then a final
+     * {@code done} event carrying the finished job.
+     */
+    public SseEmitter events(String id) {
+        ScriptJob job = getJob(id);
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(scriptService.getJobTimeoutSeconds()) + 30_000);
+        SseOutbox subscriber = new SseOutbox(emitter, eventSender, eventBuffer);
+        Runnable unsubscribe = () -> {
+            job.unsubscribe(subscriber);
+            subscriber.close();
+        };
+        subscriber.onClose(unsubscribe);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        subscriber.send(event(STATE_EVENT, job));
+        if (!job.subscribe(subscriber)) {
+            subscriber.send(event(DONE_EVENT, job));
+            subscriber.complete();
+        }
+        return emitter;
+    }
+
+    private void run(ScriptJob job, Class<?> scriptClass, Remote remote, SchedulingClass schedulingClass,
+            String clientId) {
+        if (!job.start()) {
+            return;
+        }
+        for (SseOutbox subscriber : job.subscribers()) {
+            subscriber.send(event(STATE_EVENT, job));
+        }
+        RequestTiming timing = new RequestTiming((stage, nanos) -> publishStep(job, job.addStep(stage, nanos)));
+        RequestContext context = new RequestContext(
+                Deadline.afterMillis(TimeUnit.SECONDS.toMillis(scriptService.getJobTimeoutSeconds())), timing);
+        context.setSchedulingClass(schedulingClass);
+        context.setClientId(clientId);
+        RequestContext.Scope scope = context.attach();
+        try (scope) {
+            scriptService.execute(scriptClass, remote);
+            finish(job, ScriptJob.State.SUCCEEDED, null);
+        } catch (Exception e) {
+            ScriptJob.State outcome = ScriptService.isTimeout(e) ? ScriptJob.State.TIMED_OUT : ScriptJob.State.FAILED;
+            logger.warn("Script job {} ended {}: {}", job.getId(), outcome, e.getMessage());
+            finish(job, outcome, e.getMessage());
+        }
+    }
+
+    private void finish(ScriptJob job, ScriptJob.State outcome, String error) {
+        List<SseOutbox> subscribers = job.finish(outcome, error);
+        // Stored before it leaves the active jobs, so lookups never miss it.
+        if (active.containsKey(job.getId())) {
+            finished.put(job.getId(), job);
+            active.remove(job.getId());
+        }
+        for (SseOutbox subscriber : subscribers) {
+            subscriber.send(event(DONE_EVENT, job));
+            subscriber.complete();
+        }
+        logger.info("Script job {} finished: {}", job.getId(), job.getState());
+    }
+
+    /**
+     * Queues a step for the subscribers, called from the script thread so it must never block.
+     */
+    private void publishStep(ScriptJob job, ScriptJob.Step step) {
+        for (SseOutbox subscriber : job.subscribers()) {
+            subscriber.offer(event(STEP_EVENT, step));
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, Object data) {
+        return SseEmitter.event().name(name).data(data);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventSender.shutdownNow();
+    }
+}
@@ -0,0 +1,289 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.Remote;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.exception.CustomBadRequestException;
+import com.cats.ir.exception.CustomInternalErrorException;
+import com.cats.ir.exception.DeadlineExceededException;
+import com.cats.ir.exception.TooManyRequestsException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import groovy.transform.ThreadInterrupt;
+import groovy.transform.TimedInterrupt;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compiles and runs Groovy scripts against a remote.
+ * <p>
+ * Compiled script classes are cached by the SHA-256 of their source in shared class loaders, so a script
+ * that is sent repeatedly is compiled once. Scripts are compiled statically when they type check and
+ * dynamically otherwise. Evicted classes are dropped from the loaders and the Groovy meta class registry
+ * so they can be unloaded. Scripts run on a bounded pool with a wall clock limit enforced both inside
+ * the script, through {@link TimedInterrupt}, and by the caller. Scripts run as jobs get their own,
+ * longer limit and are compiled separately with it.
+ */
+@Service
+public class ScriptService {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptService.class);
+
+    private static final String CODE_BASE = "/groovy/script";
+
+    @Value("${irms.script.cacheSize:128}")
+    int cacheSize;
+
+    @Value("${irms.script.timeoutSeconds:60}")
+    int timeoutSeconds;
+
+    // Limit for scripts run through the job API, which are meant for long campaigns.
+    @Value("${irms.script.jobs.timeoutSeconds:3600}")
+    int jobTimeoutSeconds;
+
+    // Scripts running at the same time, caps the CPU scripts can take from IR traffic.
+    @Value("${irms.script.threads:4}")
+    int threads;
+
+    @Value("${irms.script.queueSize:16}")
+    int queueSize;
+
+    private Compiler compiler;
+    private Compiler jobCompiler;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        compiler = new Compiler(timeoutSeconds);
+        jobCompiler = new Compiler(jobTimeoutSeconds);
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("ir-script-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Runs a script with {@code remote} bound, blocking until it completes, fails or times out.
+     *
+     * @throws CustomBadRequestException   if the script does not compile.
+     * @throws TooManyRequestsException    if the script pool and its queue are full.
+     * @throws DeadlineExceededException   if the script does not finish in time.
+     * @throws CustomInternalErrorException if the script throws.
+     */
+    public void run(String source, Remote remote) {
+        Class<?> scriptClass = compile(source);
+        RequestContext context = RequestContext.current();
+        long timeoutMs = Math.min(TimeUnit.SECONDS.toMillis(timeoutSeconds), context.getDeadline().remainingMillis());
+
+        Future<?> future = submit(() -> {
+            RequestContext.Scope scope = context.attach();
+            try (scope) {
+                execute(scriptClass, remote);
+            }
+        });
+
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new DeadlineExceededException("Script did not finish within " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CustomInternalErrorException("Interrupted while waiting for the script to finish.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isTimeout(cause)) {
+                throw new DeadlineExceededException("Script ran out of time: " + cause.getMessage());
+            }
+            throw new CustomInternalErrorException("An error occurred during script execution: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Queues a task on the script pool.
+     *
+     * @throws TooManyRequestsException if the pool and its queue are full.
+     */
+    public Future<?> submit(Runnable task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many scripts running, please retry later.", timeoutSeconds / 4);
+        }
+    }
+
+    /**
+     * Runs a compiled script on the calling thread with {@code remote} bound.
+     */
+    public void execute(Class<?> scriptClass, Remote remote) {
+        Binding binding = new Binding();
+        binding.setVariable(RemoteScript.REMOTE, remote);
+        InvokerHelper.createScript(scriptClass, binding).run();
+    }
+
+    /**
+     * @return true if a script failure was caused by running out of time.
+     */
+    public static boolean isTimeout(Throwable failure) {
+        return failure instanceof DeadlineExceededException || failure instanceof TimeoutException;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public int getJobTimeoutSeconds() {
+        return jobTimeoutSeconds;
+    }
+
+    /**
+     * Returns the compiled class for a script, compiling it on first use.
+     *
+     * @throws CustomBadRequestException if the script does not compile.
+     */
+    public Class<?> compile(String source) {
+        return compiler.compile(source);
+    }
+
+    /**
+     * Like {@link #compile(String)}, with the interrupt limit of irms.script.jobs.timeoutSeconds.
+     */
+    public Class<?> compileJob(String source) {
+        return jobCompiler.compile(source);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        compiler.close();
+        jobCompiler.close();
+    }
+
+    /**
+     * Static and dynamic loaders and the class cache for one {@link TimedInterrupt} limit.
+     */
+    private final class Compiler {
+        private final ScriptClassLoader staticLoader;
+        private final ScriptClassLoader dynamicLoader;
+        private final Cache<String, Class<?>> scripts;
+
+        Compiler(long limitSeconds) {
+            staticLoader = new ScriptClassLoader(configuration(limitSeconds, true));
+            dynamicLoader = new ScriptClassLoader(configuration(limitSeconds, false));
+            scripts = CacheBuilder.newBuilder()
+                    .maximumSize(cacheSize)
+                    .removalListener(this::evict)
+                    .build();
+        }
+
+        private CompilerConfiguration configuration(long limitSeconds, boolean compileStatic) {
+            CompilerConfiguration config = new CompilerConfiguration();
+            config.setScriptBaseClass(RemoteScript.class.getName());
+            config.addCompilationCustomizers(
+                    new ASTTransformationCustomizer(Collections.singletonMap("value", limitSeconds), TimedInterrupt.class),
+                    new ASTTransformationCustomizer(ThreadInterrupt.class));
+            if (compileStatic) {
+                config.addCompilationCustomizers(new ASTTransformationCustomizer(CompileStatic.class));
+            }
+            return config;
+        }
+
+        Class<?> compile(String source) {
+            String hash = Hashing.sha256().hashString(source, StandardCharsets.UTF_8).toString();
+            Class<?> scriptClass = scripts.getIfPresent(hash);
+            if (scriptClass == null) {
+                scriptClass = parse(source, "Script_" + hash.substring(0, 16) + ".groovy");
+                scripts.put(hash, scriptClass);
+            }
+            return scriptClass;
+        }
+
+        private Class<?> parse(String source, String name) {
+            try {
+                return staticLoader.parseClass(new GroovyCodeSource(source, name, CODE_BASE), false);
+            } catch (CompilationFailedException staticFailure) {
+                logger.debug("Script {} does not compile statically, falling back to dynamic: {}", name, staticFailure.getMessage());
+            }
+            try {
+                return dynamicLoader.parseClass(new GroovyCodeSource(source, name, CODE_BASE), false);
+            } catch (CompilationFailedException e) {
+                throw new CustomBadRequestException("Script does not compile: " + e.getMessage());
+            }
+        }
+
+        private void evict(RemovalNotification<String, Class<?>> notification) {
+            Class<?> scriptClass = notification.getValue();
+            if (scriptClass != null) {
+                InvokerHelper.removeClass(scriptClass);
+                staticLoader.evict(scriptClass);
+                dynamicLoader.evict(scriptClass);
+            }
+        }
+
+        void close() {
+            scripts.invalidateAll();
+            try {
+                staticLoader.close();
+                dynamicLoader.close();
+            } catch (IOException e) {
+                logger.warn("Could not close script class loaders: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Shared loader that can drop a single class from its cache.
+     */
+    private static final class ScriptClassLoader extends GroovyClassLoader {
+        ScriptClassLoader(CompilerConfiguration config) {
+            super(ScriptService.class.getClassLoader(), config);
+        }
+
+        void evict(Class<?> scriptClass) {
+            removeClassCacheEntry(scriptClass.getName());
+        }
+    }
+}
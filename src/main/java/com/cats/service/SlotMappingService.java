@@ -20,10 +20,18 @@ package com.cats.service;
 
 import com.cats.ir.SlotToPortMappings;
 import com.cats.ir.exception.SlotMappingException;
+import com.cats.utils.AtomicFiles;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,21 +39,37 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Service to handle slot to port mappings.
+ * <p>
+ * Readers get an immutable {@link SlotToPortMappings} snapshot that updates replace in one step.
+ * Updates are validated before anything changes, and persisted by replacing the mappings file
+ * atomically. Updates arriving within {@code irms.mappings.writeDelayMs} of each other share one
+ * write; each update returns once the write covering it is on disk.
  */
 @Service
 public class SlotMappingService {
-    private static final Logger logger = LoggerFactory.getLogger(RemoteProcessor.class);
+    private static final Logger logger = LoggerFactory.getLogger(SlotMappingService.class);
 
-    private SlotToPortMappings slotToPortMappings;
+    private volatile SlotToPortMappings slotToPortMappings = new SlotToPortMappings();
 
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Value("${slotMappingFilePath}")
     public String slotMappingFilePath;
 
+    // How long a write waits for further updates to join it.
+    @Value("${irms.mappings.writeDelayMs:50}")
+    long writeDelayMs;
+
+    // Completes when the next write is on disk, null when no write is pending. Guarded by this.
+    private CompletableFuture<Void> pendingWrite;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("slot-mapping-writer-%d").setDaemon(true).build());
+
     @PostConstruct
     private void initializePortMapping() {
         try {
@@ -64,6 +88,19 @@ public class SlotMappingService {
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the current mappings, never changed once returned.
+     */
     public SlotToPortMappings getMappings() {
         return slotToPortMappings;
     }
@@ -76,25 +113,22 @@ public class SlotMappingService {
      * @throws IOException the io exception
      */
     public SlotToPortMappings setMappings(Map<String, String> mappings) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(slotMappingFilePath))) {
+        SlotToPortMappings updated;
+        CompletableFuture<Void> write;
+        synchronized (this) {
             for (Map.Entry<String, String> entry : mappings.entrySet()) {
                 if (!isValidMapping(entry.getValue())) {
                     logger.error("Invalid mapping for slot " + entry.getKey() + ": " + entry.getValue());
-                    writer.write(mapper.writeValueAsString(this.slotToPortMappings));
                     throw new SlotMappingException("Invalid mapping for slot " + entry.getKey() + ": " + entry.getValue());
                 }
             }
             logger.info("Setting new mapping: " + mapper.writeValueAsString(mappings));
-
-            this.slotToPortMappings.setMappings(mappings);
-            writer.write(mapper.writeValueAsString(this.slotToPortMappings));
-
-            logger.info("Slot to port mappings file updated");
-            return this.slotToPortMappings;
-        } catch (IOException ex) {
-            logger.error("Could not update slot mappings: " + ex.getLocalizedMessage());
-            throw ex;
+            updated = new SlotToPortMappings(mappings);
+            write = publish(updated);
         }
+        awaitWrite(write);
+        logger.info("Slot to port mappings file updated");
+        return updated;
     }
 
     /**
@@ -103,17 +137,13 @@ public class SlotMappingService {
      * @throws IOException the io exception
      */
     public void removeMappings() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(slotMappingFilePath))) {
+        CompletableFuture<Void> write;
+        synchronized (this) {
             logger.info("Removing slot to port mappings");
-            this.slotToPortMappings.removeMappings();
-
-            logger.info("Slot to port mappings have been removed");
-            writer.write(mapper.writeValueAsString(this.slotToPortMappings));
-
-        } catch (IOException ex) {
-            logger.error("Could not update slot mappings: " + ex.getLocalizedMessage());
-            throw ex;
+            write = publish(new SlotToPortMappings());
         }
+        awaitWrite(write);
+        logger.info("Slot to port mappings have been removed");
     }
 
     /**
@@ -142,27 +172,20 @@ public class SlotMappingService {
      * @throws SlotMappingException the slot mapping exception
      */
     public SlotToPortMappings setMapping(String slot, String mapping) throws IOException, SlotMappingException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(slotMappingFilePath))) {
-            if (!isValidMapping(mapping)) {
-                logger.error("Invalid mapping for slot " + slot + ": " + mapping);
-                writer.write(mapper.writeValueAsString(this.slotToPortMappings));
-                throw new SlotMappingException("Invalid mapping for slot " + slot + ": " + mapping);
-            }
+        if (!isValidMapping(mapping)) {
+            logger.error("Invalid mapping for slot " + slot + ": " + mapping);
+            throw new SlotMappingException("Invalid mapping for slot " + slot + ": " + mapping);
+        }
+        SlotToPortMappings updated;
+        CompletableFuture<Void> write;
+        synchronized (this) {
             logger.info("Setting mapping on slot " + slot + " to " + mapping);
-
-            if (this.slotToPortMappings.getMappings().containsKey(slot)) {
-                this.slotToPortMappings.removeMapping(slot);
-            }
-            this.slotToPortMappings.addMapping(slot, mapping);
-
-            writer.write(mapper.writeValueAsString(this.slotToPortMappings));
-
-            logger.info("Slot " + slot + " mapping updated");
-            return this.slotToPortMappings;
-        } catch (IOException | SlotMappingException ex) {
-            logger.error("Could not update slot mappings: " + ex.getLocalizedMessage());
-            throw ex;
+            updated = slotToPortMappings.withMapping(slot, mapping);
+            write = publish(updated);
         }
+        awaitWrite(write);
+        logger.info("Slot " + slot + " mapping updated");
+        return updated;
     }
 
     /**
@@ -174,18 +197,71 @@ public class SlotMappingService {
      * @throws SlotMappingException the slot mapping exception
      */
     public SlotToPortMappings removeMapping(String slot) throws IOException, SlotMappingException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(slotMappingFilePath))) {
+        SlotToPortMappings updated;
+        CompletableFuture<Void> write;
+        synchronized (this) {
             logger.info("Removing mapping on slot " + slot);
-            this.slotToPortMappings.removeMapping(slot);
+            try {
+                updated = slotToPortMappings.withoutMapping(slot);
+            } catch (SlotMappingException ex) {
+                logger.error("Could not update slot mappings: " + ex.getLocalizedMessage());
+                throw ex;
+            }
+            write = publish(updated);
+        }
+        awaitWrite(write);
+        logger.info("Slot " + slot + " mapping removed");
+        return updated;
+    }
 
-            writer.write(mapper.writeValueAsString(this.slotToPortMappings));
+    /**
+     * Makes the mappings current and returns the write that will persist them. Called holding the lock.
+     */
+    private CompletableFuture<Void> publish(SlotToPortMappings updated) {
+        slotToPortMappings = updated;
+        if (pendingWrite == null) {
+            pendingWrite = new CompletableFuture<>();
+            writer.schedule(this::flush, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+        return pendingWrite;
+    }
 
-            logger.info("Slot " + slot + " mapping removed");
+    /**
+     * Writes the latest mappings, covering every update published since the previous write.
+     */
+    private void flush() {
+        CompletableFuture<Void> done;
+        SlotToPortMappings snapshot;
+        synchronized (this) {
+            done = pendingWrite;
+            pendingWrite = null;
+            snapshot = slotToPortMappings;
+        }
+        try {
+            AtomicFiles.write(Path.of(slotMappingFilePath), mapper.writeValueAsBytes(snapshot));
+            done.complete(null);
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Could not write slot mappings file: " + ex.getLocalizedMessage());
+            done.completeExceptionally(ex);
+        }
+    }
 
-            return this.slotToPortMappings;
-        } catch (IOException | SlotMappingException ex) {
-            logger.error("Could not update slot mappings: " + ex.getLocalizedMessage());
-            throw ex;
+    /**
+     * Waits until the update is on disk. If the write fails the update stays in effect and is
+     * persisted by the next successful write.
+     */
+    private void awaitWrite(CompletableFuture<Void> write) throws IOException {
+        try {
+            write.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the slot mappings file to be written");
+        } catch (ExecutionException ex) {
+            logger.error("Could not update slot mappings: " + ex.getCause().getLocalizedMessage());
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(ex.getCause());
         }
     }
 
@@ -199,7 +275,7 @@ public class SlotMappingService {
             String[] deviceAndPort = deviceInfo.split(":");
             if (Integer.parseInt(deviceAndPort[0]) < 1) return false;
             if (Integer.parseInt(deviceAndPort[1]) < 1) return false;
-        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+        } catch (NumberFormatException | IndexOutOfBoundsException | NullPointerException ex) {
             return false;
         }
         return true;
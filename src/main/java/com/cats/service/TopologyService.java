@@ -0,0 +1,99 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.DeviceProfile;
+import com.cats.configuration.IRConfiguration;
+import com.cats.configuration.Topology;
+import com.cats.configuration.YamlPropertySourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Holds the current {@link Topology}. The first one is built from the bound {@link IRConfiguration};
+ * {@link #reload(Path)} reads ir-ms.yml again and swaps in a new snapshot in one step. Readers take
+ * {@link #current()} once and use that snapshot for the whole request.
+ */
+@Service
+public class TopologyService {
+    private static final Logger logger = LoggerFactory.getLogger(TopologyService.class);
+
+    @Autowired
+    IRConfiguration irConfiguration;
+
+    // Folding identical presses into one hardware repeat, for devices whose profile does not set foldRepeats.
+    @Value("${irms.optimizer.foldRepeats:false}")
+    boolean foldRepeats;
+
+    private volatile Topology current;
+
+    @PostConstruct
+    public void init() {
+        current = new Topology(1, irConfiguration, baseProfile());
+        logger.info("Topology {}: {} devices, {} slots", current.getVersion(), current.getDevices().size(),
+                current.getNumSlots());
+    }
+
+    public Topology current() {
+        return current;
+    }
+
+    /**
+     * Reads the configuration file and makes it the current topology.
+     *
+     * @return the replaced topology.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not describe any IR device.
+     */
+    public synchronized Topology reload(Path file) throws IOException {
+        PropertySource<?> source = new YamlPropertySourceFactory()
+                .createPropertySource(file.getFileName().toString(), new EncodedResource(new FileSystemResource(file)));
+        IRConfiguration config = new Binder(ConfigurationPropertySources.from(source))
+                .bind("", Bindable.ofInstance(new IRConfiguration()))
+                .orElseThrow(() -> new IllegalArgumentException("Empty configuration " + file));
+        Topology previous = current;
+        Topology next = new Topology(previous.getVersion() + 1, config, baseProfile());
+        if (next.getDevices().isEmpty()) {
+            throw new IllegalArgumentException("No IR devices in " + file);
+        }
+        current = next;
+        logger.info("Topology {}: {} devices, {} slots", next.getVersion(), next.getDevices().size(),
+                next.getNumSlots());
+        return previous;
+    }
+
+    private DeviceProfile baseProfile() {
+        DeviceProfile base = DeviceProfile.defaults();
+        base.setFoldRepeats(foldRepeats);
+        return base;
+    }
+}
@@ -19,13 +19,13 @@ package com.cats.utils;
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import com.cats.ir.context.Deadline;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
 import com.cats.ir.exception.IRFailureException;
-import com.cats.service.MeasureTimeAdvice;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import jakarta.servlet.http.HttpServletResponse;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -38,8 +38,8 @@ import java.time.OffsetDateTime;
 @Slf4j
 public class GCDispatcherUtil {
 
-    @Autowired
-    private HttpServletResponse httpServletResponse;
+    // Per call timeout when the request deadline leaves more time than this.
+    private static final int DEFAULT_TIMEOUT_MS = 15000;
 
     public Boolean sendCommand(String commandString, String expectedResult, String urlEndpoint) throws IRFailureException {
         boolean retVal;
@@ -49,17 +49,28 @@ public class GCDispatcherUtil {
             log.info("Attempting to send command: {}", url);
             HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("POST");
-            connection.connect();
-            retVal = readResponse(connection, expectedResult, commandString);
+            RequestContext context = RequestContext.current();
+            Deadline deadline = context.getDeadline();
+            connection.setConnectTimeout(deadline.timeoutMillis(DEFAULT_TIMEOUT_MS));
+            connection.setReadTimeout(deadline.timeoutMillis(DEFAULT_TIMEOUT_MS));
+            long start = System.nanoTime();
+            try {
+                connection.connect();
+                retVal = readResponse(connection, expectedResult, commandString, context.getTiming());
+            } finally {
+                context.getTiming().record(RequestTiming.HTTP, start);
+            }
         } catch (IOException e) {
             e.printStackTrace();
             log.error("Error while sending command to GC Dispatcher: {}", e.getMessage());
+            RequestContext.current().getDeadline().check("reading the GC Dispatcher response");
             retVal = false;
         }
         return retVal;
     }
 
-    private boolean readResponse(HttpURLConnection connection, String expectedResult, String commandString) throws IOException, IRFailureException {
+    private boolean readResponse(HttpURLConnection connection, String expectedResult, String commandString,
+                                 RequestTiming timing) throws IOException, IRFailureException {
         BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
         String inputLine;
         StringBuilder content = new StringBuilder();
@@ -83,17 +94,16 @@ public class GCDispatcherUtil {
             }
         }
 
-        try {
-            String hwCommandRequestTimeHeader = connection.getHeaderField(MeasureTimeAdvice.HW_COMMAND_REQUEST_TIME_HEADER.toLowerCase());
-            String hwCommandResponseTimeHeader = connection.getHeaderField(MeasureTimeAdvice.HW_COMMAND_RESPONSE_TIME_HEADER.toLowerCase());
-            String hwCommandDurationHeader = connection.getHeaderField(MeasureTimeAdvice.HW_COMMAND_DURATION_HEADER.toLowerCase());
-
-            httpServletResponse.setHeader(MeasureTimeAdvice.HW_COMMAND_REQUEST_TIME_HEADER, String.valueOf(OffsetDateTime.parse(hwCommandRequestTimeHeader)));
-            httpServletResponse.setHeader(MeasureTimeAdvice.HW_COMMAND_RESPONSE_TIME_HEADER, String.valueOf(OffsetDateTime.parse(hwCommandResponseTimeHeader)));
-            httpServletResponse.setHeader(MeasureTimeAdvice.HW_COMMAND_DURATION_HEADER, hwCommandDurationHeader);
-
-        }catch(IllegalStateException e){
-            log.info("Error while setting response headers: {}", e.getMessage());
+        String hwCommandRequestTimeHeader = connection.getHeaderField(RequestTiming.HW_COMMAND_REQUEST_TIME_HEADER);
+        String hwCommandResponseTimeHeader = connection.getHeaderField(RequestTiming.HW_COMMAND_RESPONSE_TIME_HEADER);
+        String hwCommandDurationHeader = connection.getHeaderField(RequestTiming.HW_COMMAND_DURATION_HEADER);
+        if (hwCommandDurationHeader != null) {
+            try {
+                timing.reportHardwareTiming(String.valueOf(OffsetDateTime.parse(hwCommandRequestTimeHeader)),
+                        String.valueOf(OffsetDateTime.parse(hwCommandResponseTimeHeader)), hwCommandDurationHeader);
+            } catch (RuntimeException e) {
+                log.info("Error while reading hardware timing headers: {}", e.getMessage());
+            }
         }
 
         return true;
@@ -21,31 +21,38 @@ package com.cats.utils;
 
 import java.io.*;
 
-import com.cats.service.MeasureTime;
+import com.cats.ir.context.RequestContext;
+import com.cats.ir.context.RequestTiming;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 
 /**
  * Utility to handle telnet connections.
+ * Each round trip is recorded as a hub stage in the current request timing.
  */
-@Component
 @Slf4j
-public class MeasuredTelnetUtil {
+public final class MeasuredTelnetUtil {
 
-    @MeasureTime
-    String sendCommand(PrintStream os, String value, InputStream is, String pattern) throws IOException {
-        write(os,value);
-        return readUntil(is, pattern);
+    private MeasuredTelnetUtil() {
+    }
+
+    static String sendCommand(PrintStream os, String value, InputStream is, String pattern) throws IOException {
+        long start = System.nanoTime();
+        try {
+            write(os, value);
+            return readUntil(is, pattern);
+        } finally {
+            RequestContext.current().getTiming().record(RequestTiming.HUB, start);
+        }
     }
 
 
-    private void write(PrintStream os, String value) {
+    private static void write(PrintStream os, String value) {
         if (null != os) {
             os.println(value);
         }
     }
 
-    private synchronized String readUntil(InputStream is, String pattern) throws IOException {
+    private static String readUntil(InputStream is, String pattern) throws IOException {
         String str = null;
         if (is == null) {
             log.warn("Socket Not Connected");
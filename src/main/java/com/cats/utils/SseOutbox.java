@@ -0,0 +1,206 @@
+package com.cats.utils;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded queue of server-sent events for one subscriber, sent on an executor so the thread that
+ * publishes never waits on a slow client. Events are sent in order, one drain at a time per subscriber.
+ * <p>
+ * When the queue is full a new event takes the place of the oldest queued droppable one ({@link #offer}).
+ * Without one to replace, a new droppable event is discarded and a required one ({@link #send})
+ * disconnects the subscriber, so it can reconnect and catch up.
+ */
+public final class SseOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(SseOutbox.class);
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int capacity;
+
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private boolean draining;
+    private boolean completing;
+    private boolean closed;
+    private long dropped;
+    private Runnable onClose = () -> { };
+
+    public SseOutbox(SseEmitter emitter, Executor executor, int capacity) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Runs once when the subscriber is closed because sending failed or it fell too far behind.
+     */
+    public void onClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    /**
+     * Queues an event that may be dropped when the subscriber falls behind.
+     *
+     * @return false if the subscriber is closed.
+     */
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        return enqueue(event, true);
+    }
+
+    /**
+     * Queues an event that must reach the subscriber.
+     *
+     * @return false if the subscriber is closed, or was closed because it could not keep up.
+     */
+    public boolean send(SseEmitter.SseEventBuilder event) {
+        return enqueue(event, false);
+    }
+
+    /**
+     * Completes the emitter once the queued events are sent.
+     */
+    public void complete() {
+        synchronized (this) {
+            if (closed || completing) {
+                return;
+            }
+            completing = true;
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        schedule();
+    }
+
+    /**
+     * Stops sending, dropping queued events. The emitter is left to its owner.
+     */
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    private boolean enqueue(SseEmitter.SseEventBuilder event, boolean droppable) {
+        boolean overflow = false;
+        synchronized (this) {
+            if (closed || completing) {
+                return false;
+            }
+            if (pending.size() >= capacity && !dropOldestDroppable()) {
+                dropped++;
+                if (droppable) {
+                    return true;
+                }
+                closed = true;
+                pending.clear();
+                overflow = true;
+            } else {
+                pending.addLast(new Entry(event, droppable));
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+        }
+        if (overflow) {
+            logger.info("SSE subscriber fell {} events behind, disconnecting it", capacity);
+            disconnect(null);
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    private boolean dropOldestDroppable() {
+        for (Iterator<Entry> it = pending.iterator(); it.hasNext(); ) {
+            if (it.next().droppable) {
+                it.remove();
+                dropped++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            close();
+            disconnect(null);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Entry next;
+            synchronized (this) {
+                next = closed ? null : pending.pollFirst();
+                if (next == null) {
+                    draining = false;
+                    if (closed || !completing) {
+                        return;
+                    }
+                    closed = true;
+                }
+            }
+            if (next == null) {
+                emitter.complete();
+                return;
+            }
+            try {
+                emitter.send(next.event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, stop streaming to it.
+                close();
+                disconnect(e);
+                return;
+            }
+        }
+    }
+
+    private void disconnect(Exception failure) {
+        if (failure == null) {
+            emitter.complete();
+        }
+        onClose.run();
+    }
+
+    private record Entry(SseEmitter.SseEventBuilder event, boolean droppable) {
+    }
+}
@@ -19,7 +19,7 @@ package com.cats.utils;
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.cats.configuration.CustomApplicationContext;
+import com.cats.ir.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +40,8 @@ public class TelnetConnection {
     private String defaultPromptString;
     private Socket socket = null;
     private int defaultReadTimeout;
+    // Read timeout currently set on the socket, derived per command from the request deadline.
+    private int appliedReadTimeout;
     protected Date lastActiveTime;
     protected boolean isConnected = false;
     private boolean isBusy = false;
@@ -92,6 +94,7 @@ public class TelnetConnection {
                 socket = new Socket();
                 logger.debug("connect() Connect Attempt");
                 socket.setSoTimeout(defaultReadTimeout);
+                appliedReadTimeout = defaultReadTimeout;
                 socket.setKeepAlive(true);
                 socket.connect(new InetSocketAddress(host, port), defaultReadTimeout);
                 logger.debug("connect() getInputStream()");
@@ -177,22 +180,40 @@ public class TelnetConnection {
      * @throws IOException
      */
     public synchronized String sendCommand(String command, String prompt) throws IOException {
+        int readTimeout = RequestContext.current().getDeadline().timeoutMillis(defaultReadTimeout);
         isBusy = true;
         logger.trace("sendCommand(command:{},prompt:{})", command, prompt);
         String result = null;
-        if (isConnected && command != null) {
-            MeasuredTelnetUtil telnetUtil = CustomApplicationContext.getBean(MeasuredTelnetUtil.class);
-            result = telnetUtil.sendCommand(os, command,is,prompt);
+        try {
+            if (isConnected && command != null) {
+                applyReadTimeout(readTimeout);
+                result = MeasuredTelnetUtil.sendCommand(os, command, is, prompt);
 
-            if(result == null){
-                closeConnection();
+                if(result == null){
+                    closeConnection();
+                }
             }
+        } catch (IOException | RuntimeException e) {
+            // a timed out or broken read leaves the reply unread, the next command must not see it.
+            closeConnection();
+            throw e;
+        } finally {
+            lastActiveTime = new Date();
+            isBusy = false;
         }
-        lastActiveTime = new Date();
-        isBusy = false;
         return result;
     }
 
+    /**
+     * Applies the socket read timeout for the next command, skipping the system call when unchanged.
+     */
+    private void applyReadTimeout(int readTimeout) throws SocketException {
+        if (socket != null && readTimeout != appliedReadTimeout) {
+            socket.setSoTimeout(readTimeout);
+            appliedReadTimeout = readTimeout;
+        }
+    }
+
     /**
      * if prompt string is not received within the default timeout value, the
      * read will be interrupted. This is important to avoid the connection to
@@ -210,10 +231,15 @@ public class TelnetConnection {
      *
      */
     public void setDefaultReadTimeout(int defaultReadTimeout) {
+        if (defaultReadTimeout == this.defaultReadTimeout) {
+            // set per command from the device profile, skip the system call when unchanged.
+            return;
+        }
         this.defaultReadTimeout = defaultReadTimeout;
         try {
             logger.debug("Setting socket SO timeout to {}", defaultReadTimeout);
             socket.setSoTimeout(defaultReadTimeout);
+            appliedReadTimeout = defaultReadTimeout;
         } catch (IOException e) {
             logger.error("Failed to set the default timeout to {} got error {} ", defaultReadTimeout, e.getMessage());
 
@@ -0,0 +1,161 @@
+package com.cats.ir;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.configuration.DeviceProfile;
+import com.cats.ir.commands.CommandProgram;
+import com.cats.ir.exception.DeadlineExceededException;
+import com.cats.ir.exception.UnknownKeyException;
+import com.cats.service.KeysetCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class IRDevicePortTest {
+
+    private static final CommandProgram RIGHT_3 = CommandProgram.builder()
+            .press("RIGHT").delay(0).press("RIGHT").delay(0).press("RIGHT").build();
+
+    @Test
+    void sendsSeparatePressesWhenFoldingIsOff() throws Exception {
+        RecordingPort port = new RecordingPort(profile(false, 0));
+
+        port.sendProgram(RIGHT_3, "XR15");
+
+        assertEquals(List.of("PRESS RIGHT", "PRESS RIGHT", "PRESS RIGHT"), port.frames);
+    }
+
+    @Test
+    void foldsPressesWhenEnabledAndNoGapApplies() throws Exception {
+        RecordingPort port = new RecordingPort(profile(true, 0));
+
+        port.sendProgram(RIGHT_3, "XR15");
+
+        assertEquals(List.of("HOLD_REPEAT RIGHT 3"), port.frames);
+    }
+
+    @Test
+    void keepsTheGapBetweenPressesInsteadOfFolding() throws Exception {
+        RecordingPort port = new RecordingPort(profile(true, 30));
+
+        port.sendProgram(RIGHT_3, "XR15");
+
+        assertEquals(List.of("PRESS RIGHT", "PRESS RIGHT", "PRESS RIGHT"), port.frames);
+        for (int i = 1; i < port.sentAt.size(); i++) {
+            long gap = port.sentAt.get(i) - port.sentAt.get(i - 1);
+            assertTrue(gap >= TimeUnit.MILLISECONDS.toNanos(30), "frames " + gap + "ns apart");
+        }
+    }
+
+    @Test
+    void stopsTheSequenceWhenInterruptedDuringADelay() {
+        RecordingPort port = new RecordingPort(profile(false, 0));
+        CommandProgram program = CommandProgram.builder().press("UP").delay(1000).press("DOWN").build();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(DeadlineExceededException.class, () -> port.sendProgram(program, "XR15"));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(List.of("PRESS UP"), port.frames);
+    }
+
+    @Test
+    void checksEveryKeyOfTheProgramBeforeSending() {
+        RecordingPort port = new RecordingPort(profile(false, 0));
+        KeysetCatalog catalog = mock(KeysetCatalog.class);
+        doThrow(new UnknownKeyException("Unknown key 'RIGTH'", List.of("RIGHT")))
+                .when(catalog).check(null, "XR15", List.of("RIGHT", "RIGTH"));
+        port.getIrDevice().setKeysetCatalog(catalog);
+
+        CommandProgram program = CommandProgram.builder().press("RIGHT").press("RIGTH").build();
+
+        assertThrows(UnknownKeyException.class, () -> port.sendProgram(program, "XR15"));
+        assertEquals(List.of(), port.frames);
+    }
+
+    private static DeviceProfile profile(boolean foldRepeats, int minKeyGapMs) {
+        DeviceProfile tuning = new DeviceProfile();
+        tuning.setFoldRepeats(foldRepeats);
+        tuning.setMinKeyGapMs(minKeyGapMs);
+        return DeviceProfile.defaults().overriddenBy(tuning).withDerivedLimits();
+    }
+
+    private static final class StubDevice extends IRDevice {
+        private final DeviceProfile profile;
+
+        StubDevice(DeviceProfile profile) {
+            this.profile = profile;
+            this.id = "stub";
+        }
+
+        @Override
+        public DeviceProfile getProfile() {
+            return profile;
+        }
+
+        @Override
+        public boolean init() {
+            return true;
+        }
+
+        @Override
+        public boolean uninit() {
+            return true;
+        }
+
+        @Override
+        public IRDevicePort getPort(int portNumber) {
+            return null;
+        }
+    }
+
+    private static final class RecordingPort extends IRDevicePort {
+        final List<String> frames = new ArrayList<>();
+        final List<Long> sentAt = new ArrayList<>();
+
+        RecordingPort(DeviceProfile profile) {
+            this.device = new StubDevice(profile);
+            this.portNumber = 1;
+        }
+
+        @Override
+        protected boolean supportsRepeatFolding() {
+            return true;
+        }
+
+        @Override
+        protected Boolean emit(int opcode, String keySet, String key, int argument) {
+            sentAt.add(System.nanoTime());
+            frames.add(CommandProgram.opcodeName(opcode) + " " + key
+                    + (opcode == CommandProgram.PRESS ? "" : " " + argument));
+            return true;
+        }
+    }
+}
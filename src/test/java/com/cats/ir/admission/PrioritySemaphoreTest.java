@@ -0,0 +1,223 @@
+package com.cats.ir.admission;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.context.SchedulingClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrioritySemaphoreTest {
+
+    private static final long NO_AGING = TimeUnit.HOURS.toNanos(1);
+    private static final long COST = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<String> granted = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    void stopWaiters() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(1000);
+        }
+    }
+
+    @Test
+    void grantsAtOnceWhileFree() throws InterruptedException {
+        PrioritySemaphore semaphore = new PrioritySemaphore(2, NO_AGING);
+
+        assertTrue(semaphore.tryAcquire(SchedulingClass.BATCH, 0, TimeUnit.NANOSECONDS));
+        assertTrue(semaphore.tryAcquire(SchedulingClass.BATCH, 0, TimeUnit.NANOSECONDS));
+        assertFalse(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, 0, TimeUnit.NANOSECONDS));
+        assertEquals(0, semaphore.availablePermits());
+    }
+
+    @Test
+    void servesHigherClassFirst() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        waiter(semaphore, "maintenance", SchedulingClass.MAINTENANCE, null, 0);
+        waiter(semaphore, "batch", SchedulingClass.BATCH, null, 0);
+        waiter(semaphore, "interactive", SchedulingClass.INTERACTIVE, null, 0);
+
+        releaseAll(semaphore, 3);
+
+        assertEquals(List.of("interactive", "batch", "maintenance"), granted);
+    }
+
+    @Test
+    void servesSameClassInArrivalOrder() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        waiter(semaphore, "first", SchedulingClass.BATCH, null, 0);
+        waiter(semaphore, "second", SchedulingClass.BATCH, null, 0);
+        waiter(semaphore, "third", SchedulingClass.BATCH, null, 0);
+
+        releaseAll(semaphore, 3);
+
+        assertEquals(List.of("first", "second", "third"), granted);
+    }
+
+    @Test
+    void agedLowerClassOvertakesNewerHigherClass() throws InterruptedException {
+        PrioritySemaphore semaphore = held(TimeUnit.MILLISECONDS.toNanos(1));
+        waiter(semaphore, "batch", SchedulingClass.BATCH, null, 0);
+        Thread.sleep(20);
+        waiter(semaphore, "interactive", SchedulingClass.INTERACTIVE, null, 0);
+
+        releaseAll(semaphore, 2);
+
+        assertEquals(List.of("batch", "interactive"), granted);
+    }
+
+    @Test
+    void flowWithBacklogDoesNotPushOtherFlowsBack() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        waiter(semaphore, "heavy-1", SchedulingClass.INTERACTIVE, "heavy", COST);
+        waiter(semaphore, "heavy-2", SchedulingClass.INTERACTIVE, "heavy", COST);
+        waiter(semaphore, "heavy-3", SchedulingClass.INTERACTIVE, "heavy", COST);
+        waiter(semaphore, "light-1", SchedulingClass.INTERACTIVE, "light", COST);
+
+        releaseAll(semaphore, 4);
+
+        assertEquals(List.of("heavy-1", "light-1", "heavy-2", "heavy-3"), granted);
+    }
+
+    @Test
+    void cheaperFlowGetsMoreGrants() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        waiter(semaphore, "full-1", SchedulingClass.INTERACTIVE, "full", COST);
+        waiter(semaphore, "full-2", SchedulingClass.INTERACTIVE, "full", COST);
+        waiter(semaphore, "half-1", SchedulingClass.INTERACTIVE, "half", COST / 2);
+        waiter(semaphore, "half-2", SchedulingClass.INTERACTIVE, "half", COST / 2);
+        waiter(semaphore, "half-3", SchedulingClass.INTERACTIVE, "half", COST / 2);
+
+        releaseAll(semaphore, 5);
+
+        assertEquals(List.of("full-1", "half-1", "half-2", "full-2", "half-3"), granted);
+    }
+
+    @Test
+    void timedOutWaitsAreNotCharged() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        assertFalse(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, "retrying", COST, 0, TimeUnit.NANOSECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, "retrying", COST, 5, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(0, semaphore.getQueueLength());
+        waiter(semaphore, "retrying", SchedulingClass.INTERACTIVE, "retrying", COST);
+        waiter(semaphore, "other", SchedulingClass.INTERACTIVE, "other", COST);
+
+        releaseAll(semaphore, 2);
+
+        assertEquals(List.of("retrying", "other"), granted);
+    }
+
+    @Test
+    void uncontendedGrantsAreNotCharged() throws InterruptedException {
+        PrioritySemaphore semaphore = new PrioritySemaphore(1, NO_AGING);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, "alone", COST, 0, TimeUnit.NANOSECONDS));
+            semaphore.release();
+        }
+        assertTrue(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, 0, TimeUnit.NANOSECONDS));
+        waiter(semaphore, "alone", SchedulingClass.INTERACTIVE, "alone", COST);
+        waiter(semaphore, "other", SchedulingClass.INTERACTIVE, "other", COST);
+
+        releaseAll(semaphore, 2);
+
+        assertEquals(List.of("alone", "other"), granted);
+    }
+
+    @Test
+    void newFlowsStartAtTheSystemVirtualTime() throws InterruptedException {
+        PrioritySemaphore semaphore = held(NO_AGING);
+        for (int i = 1; i <= 5; i++) {
+            waiter(semaphore, "alone-" + i, SchedulingClass.INTERACTIVE, "alone", COST);
+        }
+        releaseAll(semaphore, 5);
+        granted.clear();
+
+        // the lone flow is one grant ahead of the others, not five.
+        waiter(semaphore, "other-1", SchedulingClass.INTERACTIVE, "other", COST);
+        waiter(semaphore, "other-2", SchedulingClass.INTERACTIVE, "other", COST);
+        waiter(semaphore, "other-3", SchedulingClass.INTERACTIVE, "other", COST);
+        waiter(semaphore, "alone-6", SchedulingClass.INTERACTIVE, "alone", COST);
+        releaseAll(semaphore, 4);
+
+        assertEquals(List.of("other-1", "other-2", "alone-6", "other-3"), granted);
+    }
+
+    /**
+     * A semaphore with its single permit taken, so every later caller queues.
+     */
+    private static PrioritySemaphore held(long agingNanos) throws InterruptedException {
+        PrioritySemaphore semaphore = new PrioritySemaphore(1, agingNanos);
+        assertTrue(semaphore.tryAcquire(SchedulingClass.INTERACTIVE, 0, TimeUnit.NANOSECONDS));
+        return semaphore;
+    }
+
+    /**
+     * Starts a waiter and returns once it is queued.
+     */
+    private void waiter(PrioritySemaphore semaphore, String name, SchedulingClass schedulingClass, String flow,
+            long costNanos) throws InterruptedException {
+        int queued = semaphore.getQueueLength();
+        Thread thread = new Thread(() -> {
+            try {
+                if (semaphore.tryAcquire(schedulingClass, flow, costNanos, 10, TimeUnit.SECONDS)) {
+                    granted.add(name);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, name);
+        threads.add(thread);
+        thread.start();
+        awaitCondition(() -> semaphore.getQueueLength() > queued);
+    }
+
+    /**
+     * Hands out one permit at a time, each once the previous one was taken.
+     */
+    private void releaseAll(PrioritySemaphore semaphore, int waiters) throws InterruptedException {
+        int before = granted.size();
+        for (int i = 1; i <= waiters; i++) {
+            int expected = before + i;
+            semaphore.release();
+            awaitCondition(() -> granted.size() == expected);
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting");
+            Thread.sleep(1);
+        }
+    }
+}
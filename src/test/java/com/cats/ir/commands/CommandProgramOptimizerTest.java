@@ -0,0 +1,100 @@
+package com.cats.ir.commands;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CommandProgramOptimizerTest {
+
+    @Test
+    void mergesAdjacentDelaysAndDropsZeroDelays() {
+        CommandProgram program = CommandProgram.builder()
+                .press("UP").delay(100).delay(0).delay(50)
+                .press("DOWN").delay(0)
+                .press("OK")
+                .build();
+
+        CommandProgram optimized = CommandProgramOptimizer.optimize(program, false);
+
+        assertEquals("[PRESS UP, DELAY 150, PRESS DOWN, PRESS OK]", optimized.toString());
+    }
+
+    @Test
+    void returnsSameInstanceWhenNothingChanges() {
+        CommandProgram program = CommandProgram.builder().press("UP").delay(100).press("UP").build();
+
+        assertSame(program, CommandProgramOptimizer.optimize(program, true));
+    }
+
+    @Test
+    void keepsIdenticalPressesWhenFoldingIsOff() {
+        CommandProgram program = CommandProgram.builder().press("1").press("1").delay(0).press("1").build();
+
+        assertEquals("[PRESS 1, PRESS 1, PRESS 1]", CommandProgramOptimizer.optimize(program, false).toString());
+    }
+
+    @Test
+    void foldsIdenticalPressesSeparatedByZeroDelays() {
+        CommandProgram program = CommandProgram.builder()
+                .press("RIGHT").delay(0).press("RIGHT").press("RIGHT")
+                .press("OK")
+                .build();
+
+        assertEquals("[HOLD_REPEAT RIGHT 3, PRESS OK]", CommandProgramOptimizer.optimize(program, true).toString());
+    }
+
+    @Test
+    void doesNotFoldAcrossDelaysOrHolds() {
+        CommandProgram program = CommandProgram.builder()
+                .press("RIGHT").delay(200).press("RIGHT")
+                .holdDuration("RIGHT", 2).press("RIGHT")
+                .build();
+
+        assertEquals("[PRESS RIGHT, DELAY 200, PRESS RIGHT, HOLD_DURATION RIGHT 2, PRESS RIGHT]",
+                CommandProgramOptimizer.optimize(program, true).toString());
+    }
+
+    @Test
+    void capsFoldedRunsAtMaxFoldedRepeats() {
+        CommandProgram.Builder builder = CommandProgram.builder();
+        int presses = CommandProgramOptimizer.MAX_FOLDED_REPEATS * 2 + 3;
+        for (int i = 0; i < presses; i++) {
+            builder.press("VOLUP");
+        }
+
+        CommandProgram optimized = CommandProgramOptimizer.optimize(builder.build(), true);
+
+        int max = CommandProgramOptimizer.MAX_FOLDED_REPEATS;
+        assertEquals("[HOLD_REPEAT VOLUP " + max + ", HOLD_REPEAT VOLUP " + max + ", HOLD_REPEAT VOLUP 3]",
+                optimized.toString());
+    }
+
+    @Test
+    void estimatesDelaysHoldsAndPresses() {
+        CommandProgram program = CommandProgram.builder()
+                .press("UP").delay(500).holdRepeat("UP", 10).holdDuration("OK", 2)
+                .build();
+
+        long expected = 100 + 500 + (100 + 10L * CommandProgramOptimizer.REPEAT_FRAME_MILLIS) + (100 + 2000);
+        assertEquals(expected, CommandProgramOptimizer.estimateMillis(program, 100));
+    }
+}
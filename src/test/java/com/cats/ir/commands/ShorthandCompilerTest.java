@@ -0,0 +1,123 @@
+package com.cats.ir.commands;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.exception.ShorthandSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShorthandCompilerTest {
+
+    @Test
+    void compilesAliasesNamesDelaysAndModifiers() {
+        CommandProgram program = ShorthandCompiler.compile("G D*3 O ~200 P:hold3, VOL_UP:hold2s");
+
+        assertEquals("[PRESS GUIDE, PRESS DOWN, PRESS DOWN, PRESS DOWN, PRESS OK, DELAY 200, HOLD_REPEAT PLAY 3, "
+                + "HOLD_DURATION VOL_UP 2]", program.toString());
+    }
+
+    @Test
+    void pressesEachDigitOfANumber() {
+        assertEquals("[PRESS ONE, PRESS TWO, PRESS THREE, PRESS LAST]",
+                ShorthandCompiler.compile("123 ~").toString());
+    }
+
+    @Test
+    void insertsGapOnlyWhereNoDelayIsGiven() {
+        assertEquals("[PRESS UP, DELAY 100, PRESS DOWN, DELAY 50, PRESS OK]",
+                ShorthandCompiler.compile("U,D ~50 O", 100).toString());
+    }
+
+    @Test
+    void reusesCompiledPrograms() {
+        assertSame(ShorthandCompiler.compile("G O", 10), ShorthandCompiler.compile("G O", 10));
+    }
+
+    @Test
+    void reportsPositionOfUnknownAlias() {
+        assertEquals(2, position("U Q"));
+    }
+
+    @Test
+    void reportsPositionOfUnexpectedCharacter() {
+        assertEquals(2, position("U *3"));
+        assertEquals(3, position("U D#"));
+    }
+
+    @Test
+    void reportsPositionOfBadModifiers() {
+        assertEquals(2, position("D*0"));
+        assertEquals(2, position("D*101"));
+        assertEquals(6, position("P:hold31s"));
+        assertEquals(1, position("P:foo"));
+        assertEquals(2, position("D*"));
+    }
+
+    @Test
+    void rejectsEmptySequences() {
+        assertEquals(0, position(" , "));
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> ShorthandCompiler.compile(null));
+        assertThrows(IllegalArgumentException.class, () -> ShorthandCompiler.compile("U", -1));
+    }
+
+    @Test
+    void enforcesTheGivenLimits() {
+        ShorthandCompiler.Limits limits = new ShorthandCompiler.Limits(1000, 5, 2);
+
+        assertEquals("[HOLD_REPEAT PLAY 5, HOLD_DURATION OK 2]",
+                ShorthandCompiler.compile("P:hold5 O:hold2s", 0, limits).toString());
+        assertThrows(ShorthandSyntaxException.class, () -> ShorthandCompiler.compile("D*6", 0, limits));
+        assertThrows(ShorthandSyntaxException.class, () -> ShorthandCompiler.compile("P:hold6", 0, limits));
+        assertThrows(ShorthandSyntaxException.class, () -> ShorthandCompiler.compile("P:hold3s", 0, limits));
+        assertThrows(ShorthandSyntaxException.class, () -> ShorthandCompiler.compile("U ~1001", 0, limits));
+        assertThrows(IllegalArgumentException.class, () -> ShorthandCompiler.compile("U D", 1001, limits));
+    }
+
+    @Test
+    void cachesProgramsPerLimits() {
+        ShorthandCompiler.compile("D*20");
+
+        assertThrows(ShorthandSyntaxException.class,
+                () -> ShorthandCompiler.compile("D*20", 0, new ShorthandCompiler.Limits(1000, 10, 2)));
+    }
+
+    @Test
+    void checksProgramsBuiltElsewhere() {
+        ShorthandCompiler.Limits limits = new ShorthandCompiler.Limits(1000, 5, 2);
+
+        limits.check(CommandProgram.builder().press("OK").delay(1000).holdRepeat("PLAY", 5).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> limits.check(CommandProgram.builder().delay(1001).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> limits.check(CommandProgram.builder().holdRepeat("PLAY", 6).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> limits.check(CommandProgram.builder().holdDuration("OK", 3).build()));
+    }
+
+    private static int position(String source) {
+        return assertThrows(ShorthandSyntaxException.class, () -> ShorthandCompiler.compile(source)).getPosition();
+    }
+}
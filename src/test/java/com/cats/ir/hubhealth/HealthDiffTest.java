@@ -0,0 +1,145 @@
+package com.cats.ir.hubhealth;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+import com.cats.ir.hubhealth.HealthDiff.Change;
+import com.cats.ir.hubhealth.HealthDiff.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HealthDiffTest {
+
+    @Test
+    void firstSnapshotHasNoChanges() {
+        HealthDiff diff = HealthDiff.between(null, snapshot(1, hub(true, true, List.of("XR11")), null));
+
+        assertTrue(diff.isEmpty());
+        assertEquals(0, diff.fromVersion());
+        assertEquals(1, diff.version());
+    }
+
+    @Test
+    void identicalSnapshotsHaveNoChanges() {
+        HubHealthBean hub = hub(true, true, List.of("XR11"), device("10.0.0.1", "Connected", "1.0"));
+
+        assertTrue(HealthDiff.between(snapshot(1, hub, null), snapshot(2, hub, null)).isEmpty());
+    }
+
+    @Test
+    void reportsAddedAndRemovedDevices() {
+        HubHealthBean before = hub(true, true, List.of(), device("10.0.0.1", "Connected", null));
+        HubHealthBean after = hub(true, true, List.of(), device("10.0.0.2", "Connected", null));
+
+        assertEquals(List.of(
+                        new Change(Kind.DEVICE_REMOVED, "10.0.0.1", "Connected", null),
+                        new Change(Kind.DEVICE_ADDED, "10.0.0.2", null, "Connected")),
+                changes(before, after));
+    }
+
+    @Test
+    void reportsStatusAndFirmwareChanges() {
+        HubHealthBean before = hub(true, true, List.of(), device("10.0.0.1", "Connected", "1.0"));
+        HubHealthBean after = hub(true, true, List.of(), device("10.0.0.1", "Connected", "1.1"));
+        HubHealthBean gone = hub(true, true, List.of(), device("10.0.0.1", "Disconnected", null));
+
+        assertEquals(List.of(new Change(Kind.FIRMWARE_CHANGED, "10.0.0.1", "1.0", "1.1")), changes(before, after));
+        // a disconnected device reports no firmware, that is not a firmware change.
+        assertEquals(List.of(new Change(Kind.STATUS_CHANGED, "10.0.0.1", "Connected", "Disconnected")),
+                changes(after, gone));
+    }
+
+    @Test
+    void reconnectingDeviceIsOnlyAStatusChange() {
+        HubHealthBean gone = hub(true, true, List.of(), device("10.0.0.1", "Disconnected", null));
+        RedRatDeviceBean reconnected = device("10.0.0.1", "Connected", "1.0");
+        reconnected.setHardwareType("RedRat-X");
+        HubHealthBean back = hub(true, true, List.of(), reconnected);
+
+        assertEquals(List.of(new Change(Kind.STATUS_CHANGED, "10.0.0.1", "Disconnected", "Connected")),
+                changes(gone, back));
+    }
+
+    @Test
+    void reportsHubGoingDown() {
+        assertEquals(List.of(new Change(Kind.HUB_UP_CHANGED, HealthDiff.HUB, "true", "false")),
+                changes(hub(true, true, List.of()), hub(false, true, List.of())));
+    }
+
+    @Test
+    void reportsKeysetChanges() {
+        HubHealthBean before = hub(true, true, List.of("XR11", "XR15"));
+        HubHealthBean after = hub(true, true, List.of("XR15", "XR2"));
+
+        assertEquals(List.of(
+                        new Change(Kind.KEYSET_REMOVED, "XR11", "XR11", null),
+                        new Change(Kind.KEYSET_ADDED, "XR2", null, "XR2")),
+                changes(before, after));
+    }
+
+    @Test
+    void incompleteProbeWithoutKeysetsDoesNotRemoveThem() {
+        HubHealthBean before = hub(true, true, List.of("XR11", "XR15"));
+        HubHealthBean timedOut = hub(true, false, List.of());
+
+        assertEquals(List.of(), changes(before, timedOut));
+        assertEquals(List.of(), changes(timedOut, before));
+    }
+
+    @Test
+    void reportsGcDispatcherHealth() {
+        HubHealthBean hub = hub(true, true, List.of());
+        HealthDiff diff = HealthDiff.between(snapshot(1, hub, null), snapshot(2, hub, new GCDispatcherHealthBean()));
+
+        assertEquals(List.of(new Change(Kind.GC_DISPATCHER_CHANGED, HealthDiff.GC_DISPATCHER, null, "false")),
+                diff.changes());
+    }
+
+    private static List<Change> changes(HubHealthBean before, HubHealthBean after) {
+        HealthDiff diff = HealthDiff.between(snapshot(1, before, null), snapshot(2, after, null));
+        assertEquals(1, diff.fromVersion());
+        assertEquals(2, diff.version());
+        return diff.changes();
+    }
+
+    private static HealthSnapshots.HealthSnapshot snapshot(long version, HubHealthBean hub,
+            GCDispatcherHealthBean gcDispatcher) {
+        return new HealthSnapshots.HealthSnapshot(version, Instant.now(), hub, gcDispatcher, null);
+    }
+
+    private static HubHealthBean hub(boolean up, boolean complete, List<String> keysets, RedRatDeviceBean... devices) {
+        HubHealthBean hub = new HubHealthBean();
+        hub.setHubUp(up);
+        hub.setComplete(complete);
+        hub.setKeysets(keysets);
+        hub.setDevices(List.of(devices));
+        return hub;
+    }
+
+    private static RedRatDeviceBean device(String ip, String status, String firmwareVersion) {
+        RedRatDeviceBean device = new RedRatDeviceBean("RedRat-X", "00:00:00:00:00:01", ip, status);
+        device.setFirmwareVersion(firmwareVersion);
+        return device;
+    }
+}
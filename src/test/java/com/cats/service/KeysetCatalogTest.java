@@ -0,0 +1,167 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.IRHardwareEnum;
+import com.cats.ir.exception.UnknownKeyException;
+import com.cats.ir.gchealth.GCDispatcherHealthBean;
+import com.cats.ir.gchealth.GCDispatcherHealthDataBean;
+import com.cats.ir.gchealth.IrdbBean;
+import com.cats.ir.hubhealth.HubHealthBean;
+import com.cats.ir.hubhealth.HubHealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeysetCatalogTest {
+
+    private HubHealthCheck hubHealthCheck;
+    private KeysetCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        hubHealthCheck = mock(HubHealthCheck.class);
+        when(hubHealthCheck.listSignals("XR11")).thenReturn("{\nPOWER\nOK\nVOL_UP\n}");
+        when(hubHealthCheck.listSignals("XR15")).thenReturn("{\nPOWER\nGUIDE\n}");
+        catalog = new KeysetCatalog();
+        catalog.hubHealthCheck = hubHealthCheck;
+        catalog.listTimeoutMs = 1000;
+        catalog.fullRefreshMinutes = 60;
+    }
+
+    @Test
+    void letsEverythingThroughUntilLoaded() {
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.REDRAT3, "NOPE", "NOPE"));
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.ITACH, "NOPE", "NOPE"));
+    }
+
+    @Test
+    void acceptsKnownKeysetsAndKeysIgnoringCase() {
+        catalog.update(hub("XR11", "XR15"), null);
+
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.REDRAT3, "xr11", "power", "Vol_Up"));
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.IRNETBOXPRO3, "XR15", "GUIDE"));
+    }
+
+    @Test
+    void rejectsUnknownKeysetWithSuggestions() {
+        catalog.update(hub("XR11", "XR15"), null);
+
+        UnknownKeyException e = assertThrows(UnknownKeyException.class,
+                () -> catalog.check(IRHardwareEnum.REDRAT3, "XR1", "POWER"));
+        assertEquals(List.of("XR11", "XR15"), e.getSuggestions());
+    }
+
+    @Test
+    void rejectsUnknownKeyWithSuggestions() {
+        catalog.update(hub("XR11"), null);
+
+        UnknownKeyException e = assertThrows(UnknownKeyException.class,
+                () -> catalog.check(IRHardwareEnum.REDRAT3, "XR11", "OK", "PWR"));
+        assertEquals(List.of("POWER"), e.getSuggestions());
+    }
+
+    @Test
+    void checksGcKeysetsButNotTheirKeys() {
+        catalog.update(null, gcDispatcher("Samsung_TV"));
+
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.ITACH, "samsung_tv", "ANYTHING"));
+        assertThrows(UnknownKeyException.class, () -> catalog.check(IRHardwareEnum.GC100, "LG_TV", "POWER"));
+        // the RedRat catalog is still unknown.
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.REDRAT3, "LG_TV", "POWER"));
+    }
+
+    @Test
+    void listsSignalsOnlyForNewDatasets() {
+        catalog.update(hub("XR11"), null);
+        catalog.update(hub("XR11", "XR15"), null);
+
+        verify(hubHealthCheck, times(1)).listSignals("XR11");
+        verify(hubHealthCheck, times(1)).listSignals("XR15");
+    }
+
+    @Test
+    void retriesFailedDatasetsOnlyOnFullRefresh() {
+        when(hubHealthCheck.listSignals("XR2")).thenThrow(new IllegalStateException("no connection"));
+        when(hubHealthCheck.listSignals("XR5")).thenReturn("{}");
+
+        catalog.update(hub("XR2", "XR5"), null);
+        catalog.update(hub("XR2", "XR5"), null);
+        catalog.update(hub("XR2", "XR5"), null);
+
+        verify(hubHealthCheck, times(1)).listSignals("XR2");
+        verify(hubHealthCheck, times(1)).listSignals("XR5");
+        // the keyset is known, its keys are not.
+        assertDoesNotThrow(() -> catalog.check(IRHardwareEnum.REDRAT3, "XR2", "ANYTHING"));
+
+        catalog.fullRefreshMinutes = 0;
+        catalog.update(hub("XR2", "XR5"), null);
+
+        verify(hubHealthCheck, times(2)).listSignals("XR2");
+        verify(hubHealthCheck, times(2)).listSignals("XR5");
+    }
+
+    @Test
+    void ignoresIncompleteRefreshWithoutKeysets() {
+        catalog.update(hub("XR11"), null);
+        HubHealthBean timedOut = hub();
+        timedOut.setComplete(false);
+
+        catalog.update(timedOut, null);
+
+        assertThrows(UnknownKeyException.class, () -> catalog.check(IRHardwareEnum.REDRAT3, "XR11", "PWR"));
+    }
+
+    @Test
+    void suggestsClosestNamesFirst() {
+        assertEquals(List.of("VOL_UP", "VOL_DN"),
+                KeysetCatalog.suggest("vol_up", List.of("VOL_DN", "VOL_UP", "GUIDE")));
+        assertEquals(List.of("CH_1", "CH_2", "CH_3"),
+                KeysetCatalog.suggest("CH", List.of("CH_4", "CH_3", "CH_2", "CH_1")));
+        assertEquals(List.of(), KeysetCatalog.suggest("POWER", List.of("GUIDE", "MENU")));
+    }
+
+    private static HubHealthBean hub(String... keysets) {
+        HubHealthBean hub = new HubHealthBean();
+        hub.setHubUp(true);
+        hub.setComplete(true);
+        hub.setKeysets(List.of(keysets));
+        return hub;
+    }
+
+    private static GCDispatcherHealthBean gcDispatcher(String... keysets) {
+        IrdbBean irdb = new IrdbBean();
+        irdb.setDatasetLoaded(true);
+        irdb.setIrDevices(List.of(keysets));
+        GCDispatcherHealthDataBean result = new GCDispatcherHealthDataBean();
+        result.setIrdb(irdb);
+        GCDispatcherHealthBean bean = new GCDispatcherHealthBean();
+        bean.setResult(result);
+        return bean;
+    }
+}
@@ -0,0 +1,78 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.exception.CustomBadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScriptJobServiceTest {
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private ScriptJobService service;
+
+    @BeforeEach
+    void setUp() {
+        ScriptService scriptService = mock(ScriptService.class);
+        when(scriptService.submit(any())).thenAnswer(invocation -> {
+            queued.add(invocation.getArgument(0));
+            return mock(Future.class);
+        });
+        service = new ScriptJobService();
+        service.scriptService = scriptService;
+        service.maxJobs = 1;
+        service.retentionMinutes = 60;
+        service.eventBuffer = 16;
+        service.init();
+    }
+
+    @Test
+    void neverEvictsJobsThatHaveNotFinished() {
+        ScriptJob first = service.submit("", "1", "XR15", null);
+        ScriptJob second = service.submit("", "2", "XR15", null);
+
+        assertSame(first, service.getJob(first.getId()));
+        assertSame(second, service.getJob(second.getId()));
+        assertEquals(ScriptJob.State.QUEUED, first.getState());
+        assertEquals(2, service.getJobs().size());
+    }
+
+    @Test
+    void keepsOnlyTheNewestFinishedJobs() {
+        ScriptJob first = service.submit("", "1", "XR15", null);
+        ScriptJob second = service.submit("", "2", "XR15", null);
+        queued.forEach(Runnable::run);
+
+        assertEquals(ScriptJob.State.SUCCEEDED, first.getState());
+        assertEquals(ScriptJob.State.SUCCEEDED, second.getState());
+        assertThrows(CustomBadRequestException.class, () -> service.getJob(first.getId()));
+        assertSame(second, service.getJob(second.getId()));
+    }
+}
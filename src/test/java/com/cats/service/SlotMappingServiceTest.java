@@ -0,0 +1,147 @@
+package com.cats.service;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.cats.ir.SlotToPortMappings;
+import com.cats.ir.exception.SlotMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotMappingServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private SlotMappingService service;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("mappings.json");
+        service = new SlotMappingService();
+        service.slotMappingFilePath = file.toString();
+        service.writeDelayMs = 10;
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void persistsMappingsBeforeReturning() throws IOException {
+        service.setMappings(Map.of("1", "1:1", "2", "1:2"));
+
+        assertEquals(Map.of("1", "1:1", "2", "1:2"), stored());
+        assertEquals("1:2", service.getMapping("2"));
+    }
+
+    @Test
+    void rejectsInvalidMappingsWithoutChangingAnything() throws IOException {
+        service.setMapping("1", "1:1");
+        SlotToPortMappings before = service.getMappings();
+
+        assertThrows(SlotMappingException.class, () -> service.setMappings(Map.of("2", "0:1")));
+        assertThrows(SlotMappingException.class, () -> service.setMapping("3", "abc"));
+        assertThrows(SlotMappingException.class, () -> service.setMapping("3", "1"));
+
+        assertTrue(before == service.getMappings());
+        assertEquals(Map.of("1", "1:1"), stored());
+    }
+
+    @Test
+    void updatesWithinTheWriteDelayShareOneWrite() throws Exception {
+        service.writeDelayMs = 300;
+        int updates = 8;
+        ExecutorService callers = Executors.newFixedThreadPool(updates);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 1; i <= updates; i++) {
+                String slot = String.valueOf(i);
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return service.setMapping(slot, "1:" + slot);
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+            // one write per update would take at least updates * writeDelayMs.
+            assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(updates * 300 / 2));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(updates, stored().size());
+        assertEquals("1:8", stored().get("8"));
+    }
+
+    @Test
+    void failedWriteKeepsTheUpdateForTheNextWrite() throws IOException {
+        Path blocker = Files.createFile(dir.resolve("blocker"));
+        service.slotMappingFilePath = blocker.resolve("mappings.json").toString();
+
+        assertThrows(IOException.class, () -> service.setMapping("1", "1:1"));
+        assertEquals("1:1", service.getMapping("1"));
+
+        service.slotMappingFilePath = file.toString();
+        service.setMapping("2", "1:2");
+
+        assertEquals(Map.of("1", "1:1", "2", "1:2"), stored());
+    }
+
+    @Test
+    void removesMappings() throws IOException {
+        service.setMappings(Map.of("1", "1:1", "2", "1:2"));
+
+        service.removeMapping("1");
+        assertEquals(Map.of("2", "1:2"), stored());
+        assertThrows(SlotMappingException.class, () -> service.removeMapping("1"));
+        assertThrows(SlotMappingException.class, () -> service.getMapping("1"));
+
+        service.removeMappings();
+        assertEquals(Map.of(), stored());
+    }
+
+    private Map<String, String> stored() throws IOException {
+        return new ObjectMapper().readValue(file.toFile(), SlotToPortMappings.class).getMappings();
+    }
+}
@@ -0,0 +1,138 @@
+package com.cats.utils;
+
+/*
+ * Copyright 2021 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseOutboxTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sendsInOrderAndCompletesAfterTheQueuedEvents() throws Exception {
+        StallingEmitter emitter = new StallingEmitter();
+        SseOutbox outbox = new SseOutbox(emitter, executor, 8);
+
+        outbox.send(SseEmitter.event().name("state"));
+        outbox.offer(SseEmitter.event().name("step"));
+        outbox.send(SseEmitter.event().name("done"));
+        outbox.complete();
+        emitter.release.countDown();
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("state", "step", "done"), emitter.names);
+    }
+
+    @Test
+    void publishingDoesNotWaitForAStalledSubscriber() {
+        StallingEmitter emitter = new StallingEmitter();
+        SseOutbox outbox = new SseOutbox(emitter, executor, 4);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(outbox.offer(SseEmitter.event().name("step")));
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(outbox.getDropped() >= 100 - 4 - 1, "dropped " + outbox.getDropped());
+        emitter.release.countDown();
+    }
+
+    @Test
+    void requiredEventReplacesTheOldestDroppableOne() throws Exception {
+        StallingEmitter emitter = new StallingEmitter();
+        SseOutbox outbox = new SseOutbox(emitter, executor, 2);
+
+        outbox.offer(SseEmitter.event().name("first"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        outbox.offer(SseEmitter.event().name("step1"));
+        outbox.offer(SseEmitter.event().name("step2"));
+        assertTrue(outbox.send(SseEmitter.event().name("done")));
+        outbox.complete();
+        emitter.release.countDown();
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "step2", "done"), emitter.names);
+    }
+
+    @Test
+    void disconnectsWhenRequiredEventsOverflow() throws Exception {
+        StallingEmitter emitter = new StallingEmitter();
+        SseOutbox outbox = new SseOutbox(emitter, executor, 1);
+        AtomicBoolean closed = new AtomicBoolean();
+        outbox.onClose(() -> closed.set(true));
+
+        outbox.send(SseEmitter.event().name("diff1"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        outbox.send(SseEmitter.event().name("diff2"));
+
+        assertFalse(outbox.send(SseEmitter.event().name("diff3")));
+        assertTrue(closed.get());
+        assertFalse(outbox.send(SseEmitter.event().name("diff4")));
+        emitter.release.countDown();
+    }
+
+    /**
+     * Records event names and blocks the first send until released.
+     */
+    private static final class StallingEmitter extends SseEmitter {
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            String event = builder.build().iterator().next().getData().toString();
+            names.add(event.substring("event:".length()).trim());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}